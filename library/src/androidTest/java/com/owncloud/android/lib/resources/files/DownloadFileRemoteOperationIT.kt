@@ -10,6 +10,7 @@ package com.owncloud.android.lib.resources.files
 
 import com.nextcloud.common.NextcloudClient
 import com.owncloud.android.AbstractIT
+import com.owncloud.android.lib.common.network.ChecksumAlgorithm
 import okhttp3.Interceptor
 import okhttp3.Response
 import okhttp3.ResponseBody
@@ -19,6 +20,7 @@ import okio.ForwardingSource
 import okio.buffer
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotNull
 import org.junit.Assert.assertSame
 import org.junit.Assert.assertTrue
 import org.junit.Test
@@ -209,6 +211,88 @@ class DownloadFileRemoteOperationIT : AbstractIT() {
         assertEquals(File(filePath).length(), File(cacheDir + remotePath).length())
     }
 
+    @Test
+    fun downloadResumesPartialFile() {
+        val filePath = createFile("resume_download", 100)
+        val remotePath = "/resume_download.txt"
+        assertTrue(
+            UploadFileRemoteOperation(filePath, remotePath, "text/plain", RANDOM_MTIME)
+                .execute(client)
+                .isSuccess
+        )
+        val first = DownloadFileRemoteOperation(remotePath, cacheDir)
+        assertTrue(first.execute(nextcloudClient).isSuccess)
+
+        // leave first half as partial download of the same file
+        val content = File(filePath).readBytes()
+        val half = content.size / 2
+        File(cacheDir + remotePath).delete()
+        File("$cacheDir$remotePath.part").writeBytes(content.copyOf(half))
+        File("$cacheDir$remotePath.part.etag").writeText("\"${first.etag}\"")
+
+        val sut = DownloadFileRemoteOperation(remotePath, cacheDir)
+        assertTrue(sut.execute(nextcloudClient).isSuccess)
+
+        assertEquals(half.toLong(), sut.resumedBytes)
+        assertTrue(content.contentEquals(File(cacheDir + remotePath).readBytes()))
+        assertFalse(File("$cacheDir$remotePath.part").exists())
+    }
+
+    @Test
+    fun downloadRestartsWhenFileChanged() {
+        val filePath = createFile("changed_download", 10)
+        val remotePath = "/changed_download.txt"
+        assertTrue(
+            UploadFileRemoteOperation(filePath, remotePath, "text/plain", RANDOM_MTIME)
+                .execute(client)
+                .isSuccess
+        )
+        File("$cacheDir$remotePath.part").writeText("stale content")
+        File("$cacheDir$remotePath.part.etag").writeText("\"outdated\"")
+
+        val sut = DownloadFileRemoteOperation(remotePath, cacheDir)
+        assertTrue(sut.execute(nextcloudClient).isSuccess)
+
+        assertEquals(0L, sut.resumedBytes)
+        assertTrue(File(filePath).readBytes().contentEquals(File(cacheDir + remotePath).readBytes()))
+    }
+
+    @Test
+    fun downloadInSegments() {
+        val filePath = createFile("segmented_download", 1000)
+        val remotePath = "/segmented_download.txt"
+        assertTrue(
+            UploadFileRemoteOperation(filePath, remotePath, "text/plain", RANDOM_MTIME)
+                .execute(client)
+                .isSuccess
+        )
+        val originalFile = File(filePath)
+
+        val sut = DownloadFileRemoteOperation(remotePath, cacheDir, originalFile.length())
+        sut.segments = 4
+        sut.segmentedMinSize = 0
+        assertTrue(sut.execute(nextcloudClient).isSuccess)
+
+        assertTrue(originalFile.readBytes().contentEquals(File(cacheDir + remotePath).readBytes()))
+        assertTrue(sut.etag.isNotEmpty())
+    }
+
+    @Test
+    fun downloadVerifiesChecksum() {
+        val filePath = createFile("checksum_download", 100)
+        val remotePath = "/checksum_download.txt"
+        val upload = ChunkedFileUploadRemoteOperation(filePath, remotePath, "text/plain", null, RANDOM_MTIME, true)
+        upload.setChecksumAlgorithm(ChecksumAlgorithm.SHA256)
+        assertTrue(upload.execute(client).isSuccess)
+        assertNotNull(upload.checksum)
+
+        val sut = DownloadFileRemoteOperation(remotePath, cacheDir)
+        sut.checksumAlgorithm = ChecksumAlgorithm.SHA256
+        assertTrue(sut.execute(nextcloudClient).isSuccess)
+
+        assertEquals(upload.checksum, sut.checksum)
+    }
+
     /**
      * Used for create delay for test
      */
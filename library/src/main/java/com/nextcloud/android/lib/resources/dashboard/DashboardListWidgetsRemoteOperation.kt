@@ -13,7 +13,6 @@ import com.nextcloud.operations.GetMethod
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.ocs.ServerResponse
 import com.owncloud.android.lib.resources.OCSRemoteOperation
-import org.apache.commons.httpclient.HttpStatus
 import java.io.IOException
 
 class DashboardListWidgetsRemoteOperation : OCSRemoteOperation<Map<String, DashboardWidget>>() {
@@ -23,21 +22,17 @@ class DashboardListWidgetsRemoteOperation : OCSRemoteOperation<Map<String, Dashb
 
         try {
             get = GetMethod(client.baseUri.toString() + LIST_ENDPOINT + JSON_FORMAT, true)
-            val status = client.execute(get)
-
-            if (status == HttpStatus.SC_OK) {
-                val list =
+            val list =
+                executeConditionally(client, get) {
                     getServerResponse(
-                        get,
+                        it,
                         object : TypeToken<ServerResponse<HashMap<String, DashboardWidget>>>() {}
                     )?.ocs?.data
+                }.data
 
-                if (list != null) {
-                    result = RemoteOperationResult<Map<String, DashboardWidget>>(true, get)
-                    result.resultData = list
-                } else {
-                    result = RemoteOperationResult<Map<String, DashboardWidget>>(false, get)
-                }
+            if (list != null) {
+                result = RemoteOperationResult<Map<String, DashboardWidget>>(true, get)
+                result.resultData = list
             } else {
                 result = RemoteOperationResult<Map<String, DashboardWidget>>(false, get)
             }
@@ -0,0 +1,225 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.android.lib.resources.files
+
+import com.google.gson.JsonObject
+import com.google.gson.JsonParseException
+import com.google.gson.JsonParser
+import com.nextcloud.common.BandwidthLimiter
+import com.nextcloud.common.FileRequestBody
+import com.nextcloud.common.NextcloudClient
+import com.nextcloud.operations.PostMethod
+import com.owncloud.android.lib.common.operations.OperationCancelledException
+import com.owncloud.android.lib.common.operations.OperationPriority
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.utils.Log_OC
+import okhttp3.Headers
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.MultipartBody
+import org.apache.commons.httpclient.HttpStatus
+import java.io.File
+import java.io.FileInputStream
+import java.io.IOException
+import java.security.MessageDigest
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * File to upload with [BulkUploadRemoteOperation].
+ *
+ * @property remotePath path in the files of the user, e.g. `/Photos/image.jpg`
+ * @property lastModificationTimestamp modification time in seconds since epoch
+ */
+data class BulkUploadFile(
+    val localPath: String,
+    val remotePath: String,
+    val lastModificationTimestamp: Long
+)
+
+/**
+ * Outcome of one file of a bulk upload, as reported by the server.
+ */
+data class BulkUploadFileResult(
+    val remotePath: String,
+    val isSuccess: Boolean,
+    val etag: String?,
+    val fileId: String?,
+    val message: String?
+)
+
+/**
+ * Uploads many small files with few requests, using the bulk upload endpoint of the server (capability
+ * `dav.bulkupload`).
+ *
+ * Files are sent in batches, each one a single streamed `multipart/related` request, limited to [maxBatchBytes]
+ * and [maxBatchCount] files; a file larger than [maxBatchBytes] is sent alone, but large files are better uploaded
+ * with [com.owncloud.android.lib.resources.files.ChunkedFileUploadRemoteOperation]. Every part carries the path,
+ * modification time and MD5 checksum of its file, which the server verifies.
+ *
+ * The result holds one [BulkUploadFileResult] per file uploaded so far; it is successful only if all files are.
+ */
+class BulkUploadRemoteOperation
+    @JvmOverloads
+    constructor(
+        private val files: List<BulkUploadFile>,
+        private val maxBatchBytes: Long = DEFAULT_MAX_BATCH_BYTES,
+        private val maxBatchCount: Int = DEFAULT_MAX_BATCH_COUNT
+    ) : RemoteOperation<List<BulkUploadFileResult>>() {
+        private val cancellationRequested = AtomicBoolean(false)
+
+        override fun getPriority(): OperationPriority = OperationPriority.BULK_TRANSFER
+
+        @Suppress("TooGenericExceptionCaught")
+        override fun run(client: NextcloudClient): RemoteOperationResult<List<BulkUploadFileResult>> {
+            val results = mutableListOf<BulkUploadFileResult>()
+            val result =
+                try {
+                    uploadBatches(client, results)
+                } catch (e: Exception) {
+                    RemoteOperationResult<List<BulkUploadFileResult>>(e).also {
+                        Log_OC.e(TAG, "Bulk upload failed: " + it.logMessage, e)
+                    }
+                }
+            result.resultData = results
+            return result
+        }
+
+        /**
+         * Uploads the batches in order, adding the outcome of their files to [results], and stops at the first
+         * batch rejected as a whole.
+         */
+        @Throws(IOException::class, OperationCancelledException::class)
+        private fun uploadBatches(
+            client: NextcloudClient,
+            results: MutableList<BulkUploadFileResult>
+        ): RemoteOperationResult<List<BulkUploadFileResult>> {
+            for (batch in plan(files, maxBatchBytes, maxBatchCount)) {
+                if (cancellationRequested.get()) {
+                    throw OperationCancelledException()
+                }
+                val body = createBody(batch, BandwidthLimiter.forAccount(client.userId, client.baseUri))
+                val method = PostMethod(client.davUri.toString() + BULK_PATH, false, body)
+                try {
+                    val status = client.execute(method)
+                    if (status != HttpStatus.SC_OK) {
+                        Log_OC.e(TAG, "Bulk upload failed with status $status: ${method.getStatusText()}")
+                        return RemoteOperationResult(false, method)
+                    }
+                    results += parseResults(batch, method.getResponseBodyAsString())
+                } finally {
+                    method.releaseConnection()
+                }
+            }
+            return RemoteOperationResult(results.all { it.isSuccess }, HttpStatus.SC_OK, null)
+        }
+
+        fun cancel() {
+            cancellationRequested.set(true)
+        }
+
+        private fun createBody(
+            batch: List<BulkUploadFile>,
+            bandwidthLimiter: BandwidthLimiter
+        ): MultipartBody {
+            val builder = MultipartBody.Builder().setType(MULTIPART_RELATED.toMediaType())
+            batch.forEach { file ->
+                val localFile = File(file.localPath)
+                val headers =
+                    Headers
+                        .Builder()
+                        .addUnsafeNonAscii(HEADER_FILE_PATH, file.remotePath)
+                        .add(HEADER_FILE_MD5, md5(localFile))
+                        .add(HEADER_FILE_MTIME, file.lastModificationTimestamp.toString())
+                        .build()
+                builder.addPart(headers, FileRequestBody(localFile, null, bandwidthLimiter = bandwidthLimiter))
+            }
+            return builder.build()
+        }
+
+        companion object {
+            private val TAG = BulkUploadRemoteOperation::class.java.simpleName
+
+            const val DEFAULT_MAX_BATCH_BYTES = 50L * 1024 * 1024
+            const val DEFAULT_MAX_BATCH_COUNT = 100
+
+            private const val BULK_PATH = "/bulk"
+            private const val MULTIPART_RELATED = "multipart/related"
+            private const val HEADER_FILE_PATH = "X-File-Path"
+            private const val HEADER_FILE_MD5 = "X-File-MD5"
+            private const val HEADER_FILE_MTIME = "X-File-Mtime"
+            private const val BUFFER_SIZE = 64 * 1024
+
+            /**
+             * Splits files into consecutive batches of at most [maxBytes] and [maxCount] files.
+             */
+            internal fun plan(
+                files: List<BulkUploadFile>,
+                maxBytes: Long,
+                maxCount: Int
+            ): List<List<BulkUploadFile>> {
+                val batches = mutableListOf<List<BulkUploadFile>>()
+                var batch = mutableListOf<BulkUploadFile>()
+                var batchBytes = 0L
+                files.forEach { file ->
+                    val size = File(file.localPath).length()
+                    if (batch.isNotEmpty() && (batch.size >= maxCount || batchBytes + size > maxBytes)) {
+                        batches += batch
+                        batch = mutableListOf()
+                        batchBytes = 0
+                    }
+                    batch += file
+                    batchBytes += size
+                }
+                if (batch.isNotEmpty()) {
+                    batches += batch
+                }
+                return batches
+            }
+
+            /**
+             * Maps the JSON response of the server, keyed by remote path, to the files of the batch; files missing
+             * in the response are failed.
+             */
+            internal fun parseResults(
+                batch: List<BulkUploadFile>,
+                response: String
+            ): List<BulkUploadFileResult> {
+                val json =
+                    try {
+                        JsonParser.parseString(response).takeIf { it.isJsonObject }?.asJsonObject
+                    } catch (e: JsonParseException) {
+                        Log_OC.e(TAG, "Invalid bulk upload response", e)
+                        null
+                    } ?: JsonObject()
+
+                return batch.map { file ->
+                    val entry = json.get(file.remotePath)?.takeIf { it.isJsonObject }?.asJsonObject
+                    val failed = entry == null || entry.get("error")?.asBoolean != false
+                    BulkUploadFileResult(
+                        remotePath = file.remotePath,
+                        isSuccess = !failed,
+                        etag = entry?.get("etag")?.asString?.replace("\"", ""),
+                        fileId = entry?.get("fileid")?.asString,
+                        message = entry?.get("message")?.asString ?: if (entry == null) "Missing in response" else null
+                    )
+                }
+            }
+
+            private fun md5(file: File): String {
+                val digest = MessageDigest.getInstance("MD5")
+                FileInputStream(file).use { input ->
+                    val buffer = ByteArray(BUFFER_SIZE)
+                    var read = input.read(buffer)
+                    while (read != -1) {
+                        digest.update(buffer, 0, read)
+                        read = input.read(buffer)
+                    }
+                }
+                return digest.digest().joinToString("") { "%02x".format(it) }
+            }
+        }
+    }
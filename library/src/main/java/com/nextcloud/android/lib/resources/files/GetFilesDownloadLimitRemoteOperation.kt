@@ -8,13 +8,13 @@
 package com.nextcloud.android.lib.resources.files
 
 import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod
 import com.owncloud.android.lib.common.network.WebdavEntry
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.common.utils.Log_OC
 import com.owncloud.android.lib.resources.OCSRemoteOperation
 import org.apache.commons.httpclient.HttpStatus
 import org.apache.jackrabbit.webdav.DavConstants
-import org.apache.jackrabbit.webdav.client.methods.PropFindMethod
 import org.apache.jackrabbit.webdav.property.DavPropertyNameSet
 import org.apache.jackrabbit.webdav.xml.Namespace
 
@@ -35,7 +35,7 @@ class GetFilesDownloadLimitRemoteOperation
                 Namespace.getNamespace(WebdavEntry.NAMESPACE_NC)
             )
 
-            val propFindMethod = PropFindMethod(client.getFilesDavUri(remotePath), propSet, depth)
+            val propFindMethod = DecompressingPropFindMethod(client.getFilesDavUri(remotePath), propSet, depth)
 
             val status = client.executeMethod(propFindMethod)
 
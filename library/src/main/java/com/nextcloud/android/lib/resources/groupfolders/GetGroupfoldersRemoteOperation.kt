@@ -14,7 +14,6 @@ import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.common.utils.Log_OC
 import com.owncloud.android.lib.ocs.ServerResponse
 import com.owncloud.android.lib.resources.OCSRemoteOperation
-import org.apache.commons.httpclient.HttpStatus
 
 /**
  * Get groupfolders of an user
@@ -30,20 +29,17 @@ class GetGroupfoldersRemoteOperation : OCSRemoteOperation<Map<String, Groupfolde
                     client.baseUri.toString() + GROUPFOLDERS_ENDPOINT + JSON_FORMAT + APPLICABLE,
                     true
                 )
-            val status = client.execute(getMethod)
-            if (status == HttpStatus.SC_OK) {
-                val map =
+            val map =
+                executeConditionally(client, getMethod) {
                     getServerResponse(
-                        getMethod,
+                        it,
                         object : TypeToken<ServerResponse<Map<String, Groupfolder>>>() {}
                     )?.ocs?.data
+                }.data
 
-                if (map != null) {
-                    result = RemoteOperationResult(true, getMethod)
-                    result.setResultData(map)
-                } else {
-                    result = RemoteOperationResult(false, getMethod)
-                }
+            if (map != null) {
+                result = RemoteOperationResult(true, getMethod)
+                result.setResultData(map)
             } else {
                 result = RemoteOperationResult(false, getMethod)
             }
@@ -0,0 +1,131 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import android.net.Uri
+import java.io.InterruptedIOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Token bucket limiting the throughput of file transfers, shared by all threads using it.
+ *
+ * Transfers call [acquire] before moving each buffer. The bucket holds up to one second of transfer; once it is
+ * empty, callers are paused until enough tokens have accumulated. Limits of a limiter and its [parent] apply both,
+ * so an account limiter created by [forAccount] is also bound by the [GLOBAL] one.
+ *
+ * The state is a single "theoretical arrival time" updated with compare-and-set, so acquiring never locks.
+ */
+class BandwidthLimiter
+    @JvmOverloads
+    constructor(
+        bytesPerSecond: Long = UNLIMITED,
+        private val parent: BandwidthLimiter? = null,
+        private val nanoClock: () -> Long = System::nanoTime,
+        private val sleeper: (Long) -> Unit = { TimeUnit.NANOSECONDS.sleep(it) }
+    ) {
+        companion object {
+            const val UNLIMITED = 0L
+
+            private val NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1)
+
+            /**
+             * Limit of all transfers of the process.
+             */
+            @JvmField
+            val GLOBAL = BandwidthLimiter()
+
+            private val accounts = ConcurrentHashMap<String, BandwidthLimiter>()
+
+            /**
+             * Limiter of the transfers of an account, bound by [GLOBAL] as well.
+             */
+            @JvmStatic
+            fun forAccount(
+                userId: String?,
+                baseUri: Uri?
+            ): BandwidthLimiter = accounts.computeIfAbsent("$userId@$baseUri") { BandwidthLimiter(parent = GLOBAL) }
+
+            /**
+             * Sets the limit of an account, effective immediately also for running transfers.
+             *
+             * @param bytesPerSecond limit, or [UNLIMITED]
+             */
+            @JvmStatic
+            fun setAccountLimit(
+                userId: String?,
+                baseUri: Uri?,
+                bytesPerSecond: Long
+            ) {
+                forAccount(userId, baseUri).bytesPerSecond = bytesPerSecond
+            }
+
+            /**
+             * Sets the limit of all transfers, effective immediately also for running transfers.
+             *
+             * @param bytesPerSecond limit, or [UNLIMITED]
+             */
+            @JvmStatic
+            fun setGlobalLimit(bytesPerSecond: Long) {
+                GLOBAL.bytesPerSecond = bytesPerSecond
+            }
+        }
+
+        /**
+         * Current limit, or [UNLIMITED].
+         */
+        @Volatile
+        var bytesPerSecond: Long = bytesPerSecond
+            set(value) {
+                require(value >= 0) { "bytesPerSecond must not be negative" }
+                field = value
+            }
+
+        private val theoreticalArrival = AtomicLong(nanoClock())
+
+        /**
+         * Takes tokens for [bytes] about to be transferred, pausing the calling thread as long as needed.
+         *
+         * @throws InterruptedIOException if the thread is interrupted while paused
+         */
+        @Throws(InterruptedIOException::class)
+        fun acquire(bytes: Long) {
+            val pause = reserve(bytes)
+            if (pause > 0) {
+                try {
+                    sleeper(pause)
+                } catch (e: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    throw InterruptedIOException("Interrupted while throttling transfer").apply { initCause(e) }
+                }
+            }
+            parent?.acquire(bytes)
+        }
+
+        /**
+         * @return nanoseconds to wait before transferring [bytes], 0 if they can be transferred right away
+         */
+        private fun reserve(bytes: Long): Long {
+            val rate = bytesPerSecond
+            if (rate <= UNLIMITED || bytes <= 0) {
+                return 0
+            }
+
+            val cost = bytes * NANOS_PER_SECOND / rate
+            var pause: Long
+            do {
+                val now = nanoClock()
+                val previous = theoreticalArrival.get()
+                // an idle bucket fills up to one second of transfer, never more
+                val start = maxOf(previous, now - NANOS_PER_SECOND)
+                val next = start + cost
+                pause = next - now
+            } while (!theoreticalArrival.compareAndSet(previous, next))
+            return pause.coerceAtLeast(0)
+        }
+    }
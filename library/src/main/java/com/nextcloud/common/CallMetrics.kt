@@ -0,0 +1,90 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import java.io.IOException
+import java.util.Locale
+
+/**
+ * Timings and sizes of one HTTP call, as reported to [NetworkMetricsListener]s.
+ *
+ * Phases that did not happen (e.g. DNS and TLS on a reused connection) or cannot be observed (DNS, connect and TLS
+ * on [com.owncloud.android.lib.common.OwnCloudClient]) are [NOT_MEASURED].
+ *
+ * @property operation class name of the [com.owncloud.android.lib.common.operations.RemoteOperation] that issued
+ * the call, if any
+ * @property status final HTTP status, or [OkHttpMethodBase.UNKNOWN_STATUS_CODE] if the call failed
+ * @property timeToFirstByteMillis from the request being sent until the response headers start arriving, i.e.
+ * server think time plus one round trip; on OwnCloudClient it also includes connection setup
+ * @property transferMillis from the response headers until the end of the response body
+ * @property connectionReused whether an already open connection was used; null if unknown
+ */
+data class CallMetrics(
+    val method: String,
+    val url: String,
+    val endpointFamily: EndpointFamily,
+    val operation: String?,
+    val status: Int,
+    val dnsMillis: Long,
+    val connectMillis: Long,
+    val tlsMillis: Long,
+    val timeToFirstByteMillis: Long,
+    val transferMillis: Long,
+    val totalMillis: Long,
+    val bytesSent: Long,
+    val bytesReceived: Long,
+    val connectionReused: Boolean?,
+    val failure: IOException?
+) {
+    companion object {
+        const val NOT_MEASURED = -1L
+    }
+}
+
+/**
+ * Groups of server endpoints with comparable performance profiles.
+ */
+enum class EndpointFamily {
+    DAV_FILES,
+    UPLOADS,
+    OCS,
+    OTHER;
+
+    companion object {
+        private const val DAV_FILES_PATH = "/remote.php/dav/files/"
+        private const val LEGACY_DAV_PATH = "/remote.php/webdav"
+        private const val UPLOADS_PATH = "/remote.php/dav/uploads/"
+        private const val BULK_PATH = "/remote.php/dav/bulk"
+        private const val OCS_PATH = "/ocs/"
+
+        /**
+         * Classifies a request; file contents sent with PUT count as uploads.
+         */
+        @JvmStatic
+        fun of(
+            method: String,
+            url: String
+        ): EndpointFamily {
+            val isDavFiles = url.contains(DAV_FILES_PATH) || url.contains(LEGACY_DAV_PATH)
+            return when {
+                url.contains(UPLOADS_PATH) || url.contains(BULK_PATH) -> UPLOADS
+                isDavFiles && method.uppercase(Locale.ROOT) == "PUT" -> UPLOADS
+                isDavFiles -> DAV_FILES
+                url.contains(OCS_PATH) -> OCS
+                else -> OTHER
+            }
+        }
+    }
+}
+
+/**
+ * Receives the [CallMetrics] of every finished call. Called on the thread finishing the call, so implementations
+ * must be fast and thread safe.
+ */
+fun interface NetworkMetricsListener {
+    fun onCallFinished(metrics: CallMetrics)
+}
@@ -0,0 +1,38 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import okhttp3.Call
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Keeps track of the OkHttp calls issued on behalf of one asynchronous operation, so that cancelling the
+ * operation cancels its network calls as well. A tracker lives as long as the operation, so calls are not
+ * removed once finished.
+ */
+class CallTracker {
+    private val calls = ConcurrentHashMap.newKeySet<Call>()
+
+    @Volatile
+    var isCancelled = false
+        private set
+
+    /**
+     * Registers a new call. Calls registered after [cancelAll] are cancelled right away.
+     */
+    fun register(call: Call) {
+        calls.add(call)
+        if (isCancelled) {
+            call.cancel()
+        }
+    }
+
+    fun cancelAll() {
+        isCancelled = true
+        calls.forEach { it.cancel() }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import androidx.annotation.VisibleForTesting
+import com.nextcloud.android.lib.core.Clock
+import com.nextcloud.android.lib.core.ClockImpl
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import java.net.HttpURLConnection
+import java.util.function.Function
+
+/**
+ * Cache of ETag validators and parsed results of GET requests, per account and URI.
+ *
+ * Requests prepared through [prepare] carry an `If-None-Match` header when a result is cached; a `304 Not Modified`
+ * answer is then served from the cache without parsing. The cache is bounded in size (least recently used entries
+ * are evicted first) and in age. Cached results are shared between callers, which must not modify them.
+ */
+object ConditionalRequestCache {
+    const val DEFAULT_MAX_ENTRIES = 128
+    const val DEFAULT_TTL_MILLIS = 60 * 60 * 1000L
+
+    private const val ETAG_HEADER = "ETag"
+    private const val LOAD_FACTOR = 0.75f
+
+    @VisibleForTesting
+    @Volatile
+    var clock: Clock = ClockImpl()
+
+    private var maxEntries = DEFAULT_MAX_ENTRIES
+    private var ttlMillis = DEFAULT_TTL_MILLIS
+
+    private val entries =
+        object : LinkedHashMap<String, Entry>(DEFAULT_MAX_ENTRIES, LOAD_FACTOR, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>?): Boolean =
+                size > maxEntries
+        }
+
+    private class Entry(
+        val etag: String,
+        val data: Any,
+        val timestamp: Long
+    )
+
+    /**
+     * Outcome of a conditional request. [status] is the real HTTP status, i.e. 304 for cache hits.
+     */
+    class Response<D>(
+        val status: Int,
+        val data: D?,
+        val isFromCache: Boolean
+    )
+
+    /**
+     * A request prepared by [prepare], waiting for its response.
+     */
+    class Request internal constructor(
+        private val key: String,
+        private val method: OkHttpMethodBase,
+        private val cachedData: Any?
+    ) {
+        /**
+         * Interprets the response to the prepared method, parsing it with [parser] if it was modified.
+         */
+        @Suppress("UNCHECKED_CAST")
+        fun <D : Any> resolve(
+            status: Int,
+            parser: Function<OkHttpMethodBase, D?>
+        ): Response<D> {
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cachedData != null) {
+                return Response(status, cachedData as D, true)
+            }
+
+            if (status != HttpURLConnection.HTTP_OK) {
+                return Response(status, null, false)
+            }
+
+            val data = parser.apply(method)
+            val newEtag = method.getResponseHeader(ETAG_HEADER)
+            if (data != null && !newEtag.isNullOrEmpty()) {
+                put(key, newEtag, data)
+            } else {
+                invalidate(key)
+            }
+            return Response(status, data, false)
+        }
+    }
+
+    /**
+     * Adds the validator of a cached result for the URI of [method], if any.
+     */
+    @JvmStatic
+    fun prepare(
+        client: NextcloudClient,
+        method: OkHttpMethodBase
+    ): Request {
+        val key = key(client, method.uri)
+        val entry = get(key)
+        if (entry != null) {
+            method.addRequestHeader(RemoteOperation.OCS_ETAG_HEADER, entry.etag)
+        }
+        return Request(key, method, entry?.data)
+    }
+
+    /**
+     * Bounds the cache. Takes effect for entries added afterwards; expired entries are dropped on access.
+     */
+    @JvmStatic
+    @Synchronized
+    fun configure(
+        maxEntries: Int,
+        ttlMillis: Long
+    ) {
+        require(maxEntries > 0) { "maxEntries must be positive" }
+        require(ttlMillis > 0) { "ttlMillis must be positive" }
+        this.maxEntries = maxEntries
+        this.ttlMillis = ttlMillis
+    }
+
+    @JvmStatic
+    @Synchronized
+    fun size(): Int = entries.size
+
+    @JvmStatic
+    @Synchronized
+    fun clear() {
+        entries.clear()
+    }
+
+    private fun key(
+        client: NextcloudClient,
+        uri: String
+    ): String = client.getUserIdPlain() + "@" + client.baseUri + " " + uri
+
+    @Synchronized
+    private fun get(key: String): Entry? {
+        val entry = entries[key] ?: return null
+        if (clock.currentTimeMillis - entry.timestamp > ttlMillis) {
+            entries.remove(key)
+            return null
+        }
+        return entry
+    }
+
+    @Synchronized
+    private fun put(
+        key: String,
+        etag: String,
+        data: Any
+    ) {
+        entries[key] = Entry(etag, data, clock.currentTimeMillis)
+    }
+
+    @Synchronized
+    private fun invalidate(key: String) {
+        entries.remove(key)
+    }
+}
@@ -8,27 +8,55 @@
  */
 package com.nextcloud.common
 
+import android.content.Context
+import android.content.SharedPreferences
 import androidx.annotation.VisibleForTesting
 import com.nextcloud.android.lib.core.Clock
 import com.nextcloud.android.lib.core.ClockImpl
+import com.owncloud.android.lib.common.utils.Log_OC
 import okhttp3.Dns
 import java.net.Inet4Address
 import java.net.Inet6Address
 import java.net.InetAddress
 import java.net.UnknownHostException
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * DNS Cache which prefers IPv6 unless otherwise specified
+ *
+ * Used by [OkHttpEngine] through [resolver] and by the socket factory of the legacy client. Entries that expired
+ * less than [staleMillis] ago are still returned while they are refreshed in the background, and failed lookups are
+ * remembered for [negativeTtlMillis].
  */
+@Suppress("TooManyFunctions")
 object DNSCache {
     const val DEFAULT_TTL = 30 * 1000L
+    const val DEFAULT_STALE_MILLIS = 60 * 60 * 1000L
+    const val DEFAULT_NEGATIVE_TTL = 5 * 1000L
+
+    private const val TAG = "DNSCache"
+    private const val PREFERENCES_NAME = "nextcloud_dns_cache"
+    private const val FIELD_SEPARATOR = ';'
+    private const val ADDRESS_SEPARATOR = ','
+    private const val FIELD_COUNT = 3
 
     // 30 seconds is the Java default. Let's keep it.
     @VisibleForTesting
     @Volatile
     var ttlMillis: Long = DEFAULT_TTL
 
+    /**
+     * How long after expiry an entry may still be returned while it is refreshed; 0 always resolves synchronously.
+     */
+    @Volatile
+    var staleMillis: Long = DEFAULT_STALE_MILLIS
+
+    @Volatile
+    var negativeTtlMillis: Long = DEFAULT_NEGATIVE_TTL
+
     @VisibleForTesting
     @Volatile
     var clock: Clock = ClockImpl()
@@ -37,34 +65,97 @@ object DNSCache {
     @Volatile
     var dns: Dns = Dns.SYSTEM
 
+    @VisibleForTesting
+    @Volatile
+    var executor: Executor =
+        Executors.newCachedThreadPool { runnable -> Thread(runnable, TAG).apply { isDaemon = true } }
+
+    /**
+     * Resolver for OkHttp backed by this cache.
+     */
+    @JvmField
+    val resolver: Dns =
+        object : Dns {
+            override fun lookup(hostname: String): List<InetAddress> = DNSCache.lookup(hostname)
+        }
+
     data class DNSInfo(
         val addresses: List<InetAddress>,
         val preferIPV4: Boolean = false,
         val timestamp: Long = clock.currentTimeMillis
     ) {
         fun isExpired(): Boolean = clock.currentTimeMillis - timestamp > ttlMillis
+
+        fun isStaleUsable(): Boolean = clock.currentTimeMillis - timestamp <= ttlMillis + staleMillis
     }
 
+    data class Stats(
+        val hits: Long,
+        val staleHits: Long,
+        val misses: Long,
+        val negativeHits: Long,
+        val failures: Long
+    )
+
     private val cache: ConcurrentHashMap<String, DNSInfo> = ConcurrentHashMap()
+    private val failedLookups: ConcurrentHashMap<String, Long> = ConcurrentHashMap()
+    private val refreshing: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    private val hits = AtomicLong()
+    private val staleHits = AtomicLong()
+    private val misses = AtomicLong()
+    private val negativeHits = AtomicLong()
+    private val failures = AtomicLong()
+
+    @Volatile
+    private var preferences: SharedPreferences? = null
 
     @Throws(UnknownHostException::class)
     @JvmStatic
     fun lookup(hostname: String): List<InetAddress> {
-        val entry = cache[hostname]
-        if (entry?.addresses?.isNotEmpty() == true && !entry.isExpired()) {
-            return entry.addresses
-        }
-
-        val addresses = dns.lookup(hostname).toMutableList()
-        if (addresses.isEmpty()) {
-            throw UnknownHostException("Unknown host $hostname")
+        val entry = cache[hostname]?.takeIf { it.addresses.isNotEmpty() }
+        return when {
+            entry != null && !entry.isExpired() -> {
+                hits.incrementAndGet()
+                entry.addresses
+            }
+            entry != null && entry.isStaleUsable() -> {
+                staleHits.incrementAndGet()
+                refreshInBackground(hostname)
+                entry.addresses
+            }
+            isLookupFailureCached(hostname) -> {
+                negativeHits.incrementAndGet()
+                throw UnknownHostException("Unknown host $hostname (cached)")
+            }
+            else -> {
+                misses.incrementAndGet()
+                resolve(hostname)
+            }
         }
+    }
 
-        val preferIPV4 = entry?.preferIPV4 ?: false
-        val sortedAddresses = sortAddresses(addresses, preferIPV4)
-        cache[hostname] = DNSInfo(sortedAddresses, preferIPV4)
+    @JvmStatic
+    fun getStats(): Stats =
+        Stats(
+            hits = hits.get(),
+            staleHits = staleHits.get(),
+            misses = misses.get(),
+            negativeHits = negativeHits.get(),
+            failures = failures.get()
+        )
 
-        return sortedAddresses
+    /**
+     * Keeps resolved entries in shared preferences, and loads the entries kept by earlier processes; these are
+     * returned as stale entries if they are recent enough. Reads from disk, so better not called on the main thread.
+     */
+    @JvmStatic
+    fun enablePersistence(context: Context) {
+        val prefs = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE)
+        prefs.all.forEach { (hostname, value) ->
+            (value as? String)?.let { decode(hostname, it) }?.let { cache.putIfAbsent(hostname, it) }
+        }
+        preferences = prefs
     }
 
     /**
@@ -81,7 +172,7 @@ object DNSCache {
                     sortAddresses(it, preferIPV4)
                 } ?: emptyList()
             DNSInfo(addresses, preferIPV4)
-        }
+        }.let { persist(hostname, it) }
     }
 
     /**
@@ -103,8 +194,88 @@ object DNSCache {
     @JvmStatic
     fun clear() {
         cache.clear()
+        failedLookups.clear()
+        preferences?.edit()?.clear()?.apply()
+        listOf(hits, staleHits, misses, negativeHits, failures).forEach { it.set(0) }
+    }
+
+    @Throws(UnknownHostException::class)
+    private fun resolve(hostname: String): List<InetAddress> {
+        val addresses =
+            try {
+                dns.lookup(hostname)
+            } catch (ex: UnknownHostException) {
+                failures.incrementAndGet()
+                failedLookups[hostname] = clock.currentTimeMillis
+                throw ex
+            }
+        if (addresses.isEmpty()) {
+            failures.incrementAndGet()
+            failedLookups[hostname] = clock.currentTimeMillis
+            throw UnknownHostException("Unknown host $hostname")
+        }
+        failedLookups.remove(hostname)
+
+        val preferIPV4 = cache[hostname]?.preferIPV4 ?: false
+        val sortedAddresses = sortAddresses(addresses, preferIPV4)
+        val info = DNSInfo(sortedAddresses, preferIPV4)
+        cache[hostname] = info
+        persist(hostname, info)
+
+        return sortedAddresses
+    }
+
+    private fun refreshInBackground(hostname: String) {
+        if (refreshing.add(hostname)) {
+            executor.execute {
+                try {
+                    resolve(hostname)
+                } catch (ex: UnknownHostException) {
+                    Log_OC.w(TAG, "Refreshing $hostname failed: ${ex.message}")
+                } finally {
+                    refreshing.remove(hostname)
+                }
+            }
+        }
+    }
+
+    private fun isLookupFailureCached(hostname: String): Boolean {
+        val failedAt = failedLookups[hostname] ?: return false
+        return clock.currentTimeMillis - failedAt <= negativeTtlMillis
+    }
+
+    private fun persist(
+        hostname: String,
+        info: DNSInfo
+    ) {
+        preferences?.edit()?.putString(hostname, encode(info))?.apply()
     }
 
+    private fun encode(info: DNSInfo): String =
+        listOf(
+            info.timestamp.toString(),
+            info.preferIPV4.toString(),
+            info.addresses.joinToString(ADDRESS_SEPARATOR.toString()) { it.hostAddress.orEmpty() }
+        ).joinToString(FIELD_SEPARATOR.toString())
+
+    /**
+     * @return the entry, or null if the value is not a valid encoded entry
+     */
+    private fun decode(
+        hostname: String,
+        value: String
+    ): DNSInfo? =
+        runCatching {
+            val fields = value.split(FIELD_SEPARATOR, limit = FIELD_COUNT)
+            val addresses =
+                fields[2]
+                    .split(ADDRESS_SEPARATOR)
+                    .filter { it.isNotEmpty() }
+                    // literal addresses are parsed without a lookup
+                    .map { InetAddress.getByAddress(hostname, InetAddress.getByName(it).address) }
+            DNSInfo(addresses, fields[1].toBoolean(), fields[0].toLong())
+        }.getOrNull()
+
     private fun sortAddresses(
         addresses: List<InetAddress>,
         preferIPV4: Boolean
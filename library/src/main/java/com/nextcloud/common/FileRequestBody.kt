@@ -0,0 +1,69 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import com.owncloud.android.lib.common.network.FileUploadWriter
+import com.owncloud.android.lib.common.network.OnDatatransferProgressListener
+import com.owncloud.android.lib.common.network.ProgressDispatcher
+import com.owncloud.android.lib.common.network.ProgressiveDataTransfer
+import com.owncloud.android.lib.common.network.StreamingChecksum
+import okhttp3.MediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+import java.io.File
+import java.io.RandomAccessFile
+
+/**
+ * Request body streaming a file, or a part of it, for [NextcloudClient], written by the same [FileUploadWriter] as
+ * the upload entities of [com.owncloud.android.lib.common.OwnCloudClient], optionally hashing it into a
+ * [StreamingChecksum].
+ */
+class FileRequestBody
+    @JvmOverloads
+    constructor(
+        private val file: File,
+        private val contentType: MediaType?,
+        private val offset: Long = 0,
+        private val length: Long = file.length() - offset,
+        private val uploadWriter: FileUploadWriter = FileUploadWriter.DEFAULT,
+        private val bandwidthLimiter: BandwidthLimiter = BandwidthLimiter.GLOBAL,
+        private val checksum: StreamingChecksum? = null
+    ) : RequestBody(),
+        ProgressiveDataTransfer {
+        private val progressDispatcher = ProgressDispatcher(file.absolutePath)
+
+        override fun contentType(): MediaType? = contentType
+
+        override fun contentLength(): Long = length
+
+        override fun writeTo(sink: BufferedSink) {
+            val fileSize = file.length().takeIf { it > 0 } ?: -1
+            try {
+                RandomAccessFile(file, "r").use { raf ->
+                    val listener =
+                        FileUploadWriter.WriteListener { written, totalWritten ->
+                            progressDispatcher.onProgress(written, offset + totalWritten, fileSize)
+                        }
+                    uploadWriter.write(raf.channel, offset, length, sink, bandwidthLimiter, checksum, listener)
+                }
+            } finally {
+                progressDispatcher.flush()
+            }
+        }
+
+        override fun addDataTransferProgressListener(listener: OnDatatransferProgressListener) {
+            progressDispatcher.addDataTransferProgressListener(listener)
+        }
+
+        override fun addDataTransferProgressListeners(listeners: Collection<OnDatatransferProgressListener>) {
+            progressDispatcher.addDataTransferProgressListeners(listeners)
+        }
+
+        override fun removeDataTransferProgressListener(listener: OnDatatransferProgressListener) {
+            progressDispatcher.removeDataTransferProgressListener(listener)
+        }
+    }
@@ -0,0 +1,61 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import okhttp3.Request
+import okhttp3.Response
+import java.io.IOException
+
+/**
+ * Cross-cutting behavior around the synchronous execution of [OkHttpMethodBase]s, e.g. caching, signing,
+ * throttling or fault injection.
+ *
+ * Interceptors registered on a [NextcloudClient] or [PlainClient] run in registration order, outermost first, for
+ * every request sent by [OkHttpMethodBase.execute], including each followed redirection. On [NextcloudClient] they
+ * run outside of the [RetryPolicy], so every retry of a request goes through the same interceptor calls.
+ * [OkHttpMethodBase.executeAsync] does not run interceptors.
+ */
+fun interface MethodInterceptor {
+    /**
+     * Handles the request of [chain], usually by calling [Chain.proceed] once, possibly with a modified request.
+     */
+    @Throws(IOException::class)
+    fun intercept(chain: Chain): Response
+
+    interface Chain {
+        /**
+         * Method whose request is executed.
+         */
+        val method: OkHttpMethodBase
+
+        /**
+         * Request as built by the method and modified by the outer interceptors.
+         */
+        val request: Request
+
+        @Throws(IOException::class)
+        fun proceed(request: Request): Response
+    }
+}
+
+/**
+ * Chain over an immutable snapshot of the interceptors of a client; each step only allocates the next chain.
+ */
+internal class MethodChain(
+    override val method: OkHttpMethodBase,
+    private val interceptors: List<MethodInterceptor>,
+    private val index: Int,
+    override val request: Request,
+    private val terminal: (Request) -> Response
+) : MethodInterceptor.Chain {
+    override fun proceed(request: Request): Response =
+        if (index < interceptors.size) {
+            interceptors[index].intercept(MethodChain(method, interceptors, index + 1, request, terminal))
+        } else {
+            terminal(request)
+        }
+}
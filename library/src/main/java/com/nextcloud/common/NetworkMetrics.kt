@@ -0,0 +1,311 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import com.owncloud.android.lib.common.utils.Log_OC
+import okhttp3.Call
+import okhttp3.Connection
+import okhttp3.EventListener
+import okhttp3.Handshake
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+
+/**
+ * Entry point of the network metrics of the library.
+ *
+ * Listeners registered here receive the [CallMetrics] of the calls of all clients; listeners can also be
+ * registered on a single [NextcloudClient] or [com.owncloud.android.lib.common.OwnCloudClient]. Calls are only
+ * instrumented while at least one listener is interested in them.
+ */
+object NetworkMetrics {
+    private val TAG = NetworkMetrics::class.java.simpleName
+
+    private val globalListeners = CopyOnWriteArrayList<NetworkMetricsListener>()
+    private val currentOperation = ThreadLocal<String?>()
+
+    /**
+     * Installed on the shared [OkHttpEngine]; instruments the calls tagged by [NextcloudClient.newCall].
+     */
+    internal val eventListenerFactory =
+        EventListener.Factory { call ->
+            call.request().tag(Tag::class.java)?.let { MetricsEventListener(it) } ?: EventListener.NONE
+        }
+
+    /**
+     * Listeners and issuing operation of an instrumented call.
+     */
+    internal class Tag(
+        val listeners: List<NetworkMetricsListener>,
+        val operation: String?
+    )
+
+    @JvmStatic
+    fun addListener(listener: NetworkMetricsListener) {
+        globalListeners.addIfAbsent(listener)
+    }
+
+    @JvmStatic
+    fun removeListener(listener: NetworkMetricsListener) {
+        globalListeners.remove(listener)
+    }
+
+    /**
+     * Attributes the calls issued by the current thread to [operation] until [exitOperation].
+     *
+     * @return the previous operation of the thread, to be passed to [exitOperation]
+     */
+    @JvmStatic
+    fun enterOperation(operation: String): String? {
+        val previous = currentOperation.get()
+        currentOperation.set(operation)
+        return previous
+    }
+
+    @JvmStatic
+    fun exitOperation(previous: String?) {
+        if (previous == null) {
+            currentOperation.remove()
+        } else {
+            currentOperation.set(previous)
+        }
+    }
+
+    @JvmStatic
+    fun getCurrentOperation(): String? = currentOperation.get()
+
+    /**
+     * @return the global listeners followed by [clientListeners], or an empty list if nobody is listening
+     */
+    @JvmStatic
+    fun listenersFor(clientListeners: Collection<NetworkMetricsListener>): List<NetworkMetricsListener> =
+        when {
+            globalListeners.isEmpty() -> clientListeners.toList()
+            clientListeners.isEmpty() -> globalListeners.toList()
+            else -> globalListeners + clientListeners
+        }
+
+    /**
+     * Tags [request] for instrumentation if any listener is interested in it.
+     */
+    internal fun tag(
+        request: Request,
+        clientListeners: Collection<NetworkMetricsListener>
+    ): Request {
+        val listeners = listenersFor(clientListeners)
+        return if (listeners.isEmpty()) {
+            request
+        } else {
+            request.newBuilder().tag(Tag::class.java, Tag(listeners, getCurrentOperation())).build()
+        }
+    }
+
+    @JvmStatic
+    @Suppress("TooGenericExceptionCaught")
+    fun dispatch(
+        listeners: List<NetworkMetricsListener>,
+        metrics: CallMetrics
+    ) {
+        listeners.forEach {
+            try {
+                it.onCallFinished(metrics)
+            } catch (e: RuntimeException) {
+                Log_OC.e(TAG, "Network metrics listener failed", e)
+            }
+        }
+    }
+
+    /**
+     * Collects the events of one OkHttp call. Phases happening several times, e.g. because of redirections, are
+     * summed up.
+     */
+    @Suppress("TooManyFunctions")
+    private class MetricsEventListener(
+        private val tag: Tag
+    ) : EventListener() {
+        private var callStart = 0L
+        private var dnsStart = 0L
+        private var dnsNanos = 0L
+        private var connectStart = 0L
+        private var connectNanos = 0L
+        private var secureConnectStart = 0L
+        private var tlsNanos = 0L
+        private var requestSent = 0L
+        private var ttfbNanos = 0L
+        private var responseHeadersEnd = 0L
+        private var transferNanos = 0L
+        private var bytesSent = 0L
+        private var bytesReceived = 0L
+        private var connecting = false
+        private var connectionReused: Boolean? = null
+        private var lastRequest: Request? = null
+        private var status = OkHttpMethodBase.UNKNOWN_STATUS_CODE
+
+        override fun callStart(call: Call) {
+            callStart = System.nanoTime()
+            lastRequest = call.request()
+        }
+
+        override fun dnsStart(
+            call: Call,
+            domainName: String
+        ) {
+            dnsStart = System.nanoTime()
+        }
+
+        override fun dnsEnd(
+            call: Call,
+            domainName: String,
+            inetAddressList: List<InetAddress>
+        ) {
+            dnsNanos += System.nanoTime() - dnsStart
+        }
+
+        override fun connectStart(
+            call: Call,
+            inetSocketAddress: InetSocketAddress,
+            proxy: Proxy
+        ) {
+            if (!connecting) {
+                connecting = true
+                connectStart = System.nanoTime()
+            }
+        }
+
+        override fun secureConnectStart(call: Call) {
+            secureConnectStart = System.nanoTime()
+        }
+
+        override fun secureConnectEnd(
+            call: Call,
+            handshake: Handshake?
+        ) {
+            tlsNanos += System.nanoTime() - secureConnectStart
+        }
+
+        override fun connectEnd(
+            call: Call,
+            inetSocketAddress: InetSocketAddress,
+            proxy: Proxy,
+            protocol: Protocol?
+        ) {
+            endConnect()
+        }
+
+        override fun connectFailed(
+            call: Call,
+            inetSocketAddress: InetSocketAddress,
+            proxy: Proxy,
+            protocol: Protocol?,
+            ioe: IOException
+        ) {
+            endConnect()
+        }
+
+        private fun endConnect() {
+            if (connecting) {
+                connecting = false
+                connectNanos += System.nanoTime() - connectStart
+            }
+        }
+
+        override fun connectionAcquired(
+            call: Call,
+            connection: Connection
+        ) {
+            // connections established for this call are acquired right after being connected
+            connectionReused = connectionReused ?: (connectNanos == 0L && !connecting)
+        }
+
+        override fun requestHeadersEnd(
+            call: Call,
+            request: Request
+        ) {
+            lastRequest = request
+            bytesSent += request.headers.byteCount()
+            requestSent = System.nanoTime()
+        }
+
+        override fun requestBodyEnd(
+            call: Call,
+            byteCount: Long
+        ) {
+            bytesSent += byteCount
+            requestSent = System.nanoTime()
+        }
+
+        override fun responseHeadersStart(call: Call) {
+            if (requestSent > 0) {
+                ttfbNanos += System.nanoTime() - requestSent
+            }
+        }
+
+        override fun responseHeadersEnd(
+            call: Call,
+            response: Response
+        ) {
+            status = response.code
+            bytesReceived += response.headers.byteCount()
+            responseHeadersEnd = System.nanoTime()
+        }
+
+        override fun responseBodyEnd(
+            call: Call,
+            byteCount: Long
+        ) {
+            bytesReceived += byteCount
+            transferNanos += System.nanoTime() - responseHeadersEnd
+        }
+
+        override fun callEnd(call: Call) {
+            finish(call, null)
+        }
+
+        override fun callFailed(
+            call: Call,
+            ioe: IOException
+        ) {
+            finish(call, ioe)
+        }
+
+        private fun finish(
+            call: Call,
+            failure: IOException?
+        ) {
+            val request = lastRequest ?: call.request()
+            val url = request.url.toString()
+            val metrics =
+                CallMetrics(
+                    method = request.method,
+                    url = url,
+                    endpointFamily = EndpointFamily.of(request.method, url),
+                    operation = tag.operation,
+                    status = if (failure == null) status else OkHttpMethodBase.UNKNOWN_STATUS_CODE,
+                    dnsMillis = millisOrNotMeasured(dnsNanos),
+                    connectMillis = millisOrNotMeasured(connectNanos),
+                    tlsMillis = millisOrNotMeasured(tlsNanos),
+                    timeToFirstByteMillis = millisOrNotMeasured(ttfbNanos),
+                    transferMillis = millisOrNotMeasured(transferNanos),
+                    totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - callStart),
+                    bytesSent = bytesSent,
+                    bytesReceived = bytesReceived,
+                    connectionReused = connectionReused,
+                    failure = failure
+                )
+            dispatch(tag.listeners, metrics)
+        }
+
+        private fun millisOrNotMeasured(nanos: Long): Long =
+            if (nanos == 0L) CallMetrics.NOT_MEASURED else TimeUnit.NANOSECONDS.toMillis(nanos)
+    }
+}
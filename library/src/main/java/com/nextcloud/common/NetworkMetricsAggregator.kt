@@ -0,0 +1,182 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import com.nextcloud.android.lib.core.Clock
+import com.nextcloud.android.lib.core.ClockImpl
+import java.util.EnumMap
+import kotlin.math.ceil
+
+/**
+ * [NetworkMetricsListener] keeping rolling histograms of call timings per [EndpointFamily], e.g. registered with
+ * [NetworkMetrics.addListener].
+ *
+ * Samples are collected in consecutive windows of [windowMillis]; a [Snapshot] covers the current and the previous
+ * window, that is between one and two windows of history.
+ */
+class NetworkMetricsAggregator
+    @JvmOverloads
+    constructor(
+        private val windowMillis: Long = DEFAULT_WINDOW_MILLIS,
+        private val clock: Clock = ClockImpl()
+    ) : NetworkMetricsListener {
+        companion object {
+            const val DEFAULT_WINDOW_MILLIS = 5 * 60 * 1000L
+
+            /**
+             * Upper bounds of the histogram buckets, in milliseconds; a last bucket holds all longer samples.
+             */
+            @JvmField
+            val BUCKET_BOUNDS_MILLIS = longArrayOf(10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000)
+
+            private const val PERCENT = 100.0
+        }
+
+        enum class Phase {
+            DNS,
+            CONNECT,
+            TLS,
+            TIME_TO_FIRST_BYTE,
+            TRANSFER,
+            TOTAL
+        }
+
+        /**
+         * Sample counts per bucket of [BUCKET_BOUNDS_MILLIS].
+         */
+        class Histogram internal constructor(
+            private val counts: LongArray
+        ) {
+            val count: Long
+                get() = counts.sum()
+
+            fun getCount(bucket: Int): Long = counts[bucket]
+
+            /**
+             * @return upper bound of the bucket holding the given percentile, [Long.MAX_VALUE] for the last bucket,
+             * or [CallMetrics.NOT_MEASURED] if there are no samples
+             */
+            fun percentile(percent: Double): Long {
+                val rank = ceil(count * percent / PERCENT).toLong().coerceAtLeast(1)
+                var seen = 0L
+                counts.forEachIndexed { bucket, bucketCount ->
+                    seen += bucketCount
+                    if (seen >= rank) {
+                        return BUCKET_BOUNDS_MILLIS.getOrElse(bucket) { Long.MAX_VALUE }
+                    }
+                }
+                return CallMetrics.NOT_MEASURED
+            }
+        }
+
+        data class Snapshot(
+            val family: EndpointFamily,
+            val calls: Long,
+            val failures: Long,
+            val reusedConnections: Long,
+            val bytesSent: Long,
+            val bytesReceived: Long,
+            val histograms: Map<Phase, Histogram>
+        )
+
+        private class Window(
+            val start: Long
+        ) {
+            var calls = 0L
+            var failures = 0L
+            var reusedConnections = 0L
+            var bytesSent = 0L
+            var bytesReceived = 0L
+            val buckets = Array(Phase.values().size) { LongArray(BUCKET_BOUNDS_MILLIS.size + 1) }
+        }
+
+        private val currentWindows = EnumMap<EndpointFamily, Window>(EndpointFamily::class.java)
+        private val previousWindows = EnumMap<EndpointFamily, Window>(EndpointFamily::class.java)
+
+        @Synchronized
+        override fun onCallFinished(metrics: CallMetrics) {
+            val window = roll(metrics.endpointFamily)
+            window.calls++
+            if (metrics.failure != null) {
+                window.failures++
+            }
+            if (metrics.connectionReused == true) {
+                window.reusedConnections++
+            }
+            window.bytesSent += metrics.bytesSent
+            window.bytesReceived += metrics.bytesReceived
+
+            add(window, Phase.DNS, metrics.dnsMillis)
+            add(window, Phase.CONNECT, metrics.connectMillis)
+            add(window, Phase.TLS, metrics.tlsMillis)
+            add(window, Phase.TIME_TO_FIRST_BYTE, metrics.timeToFirstByteMillis)
+            add(window, Phase.TRANSFER, metrics.transferMillis)
+            add(window, Phase.TOTAL, metrics.totalMillis)
+        }
+
+        @Synchronized
+        fun getSnapshot(family: EndpointFamily): Snapshot {
+            val current = roll(family)
+            val windows = listOfNotNull(previousWindows[family], current)
+            val histograms = EnumMap<Phase, Histogram>(Phase::class.java)
+            Phase.values().forEach { phase ->
+                val counts = LongArray(BUCKET_BOUNDS_MILLIS.size + 1)
+                windows.forEach { window ->
+                    window.buckets[phase.ordinal].forEachIndexed { bucket, count -> counts[bucket] += count }
+                }
+                histograms[phase] = Histogram(counts)
+            }
+            return Snapshot(
+                family = family,
+                calls = windows.sumOf { it.calls },
+                failures = windows.sumOf { it.failures },
+                reusedConnections = windows.sumOf { it.reusedConnections },
+                bytesSent = windows.sumOf { it.bytesSent },
+                bytesReceived = windows.sumOf { it.bytesReceived },
+                histograms = histograms
+            )
+        }
+
+        @Synchronized
+        fun reset() {
+            currentWindows.clear()
+            previousWindows.clear()
+        }
+
+        /**
+         * @return the current window of [family], starting a new one if it is over
+         */
+        private fun roll(family: EndpointFamily): Window {
+            val now = clock.currentTimeMillis
+            val current = currentWindows[family]
+            if (current != null && now - current.start < windowMillis) {
+                return current
+            }
+
+            if (current != null && now - current.start < 2 * windowMillis) {
+                previousWindows[family] = current
+            } else {
+                previousWindows.remove(family)
+            }
+            return Window(now).also { currentWindows[family] = it }
+        }
+
+        private fun add(
+            window: Window,
+            phase: Phase,
+            millis: Long
+        ) {
+            if (millis == CallMetrics.NOT_MEASURED) {
+                return
+            }
+            var bucket = BUCKET_BOUNDS_MILLIS.indexOfFirst { millis <= it }
+            if (bucket < 0) {
+                bucket = BUCKET_BOUNDS_MILLIS.size
+            }
+            window.buckets[phase.ordinal][bucket]++
+        }
+    }
@@ -13,30 +13,27 @@ package com.nextcloud.common
 
 import android.content.Context
 import android.net.Uri
-import android.text.TextUtils
+import com.nextcloud.operations.HeadMethod
 import com.owncloud.android.lib.common.OwnCloudClient
 import com.owncloud.android.lib.common.OwnCloudClientFactory.DEFAULT_CONNECTION_TIMEOUT_LONG
 import com.owncloud.android.lib.common.OwnCloudClientFactory.DEFAULT_DATA_TIMEOUT_LONG
-import com.owncloud.android.lib.common.OwnCloudClientManagerFactory
 import com.owncloud.android.lib.common.accounts.AccountUtils
 import com.owncloud.android.lib.common.network.AdvancedX509KeyManager
-import com.owncloud.android.lib.common.network.AdvancedX509TrustManager
-import com.owncloud.android.lib.common.network.NetworkUtils
 import com.owncloud.android.lib.common.network.RedirectionPath
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.common.utils.Log_OC
-import okhttp3.CookieJar
+import okhttp3.Call
 import okhttp3.OkHttpClient
 import okhttp3.Request
 import org.apache.commons.httpclient.HttpStatus
 import java.io.IOException
-import java.net.InetSocketAddress
-import java.net.Proxy
+import java.net.UnknownHostException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.TimeUnit
-import javax.net.ssl.SSLSession
-import javax.net.ssl.TrustManager
 
+@Suppress("TooManyFunctions")
 class NextcloudClient private constructor(
     val delegate: NextcloudUriDelegate,
     var credentials: String,
@@ -45,6 +42,29 @@ class NextcloudClient private constructor(
 ) : NextcloudUriProvider by delegate {
     var followRedirects = true
 
+    /**
+     * Decides which failed requests executed through [OkHttpMethodBase.execute] are retried.
+     */
+    var retryPolicy: RetryPolicy = RetryPolicy.getDefault()
+
+    private val metricsListeners = CopyOnWriteArrayList<NetworkMetricsListener>()
+
+    /**
+     * Interceptors run, in this order, around every request sent by [OkHttpMethodBase.execute].
+     */
+    @Volatile
+    var interceptors: List<MethodInterceptor> = emptyList()
+        private set
+
+    @Volatile
+    private var prewarming: CompletableFuture<Int>? = null
+
+    /**
+     * Set on clients derived by [withCallTracker]; every call issued through this client is registered there.
+     */
+    var callTracker: CallTracker? = null
+        private set
+
     constructor(
         baseUri: Uri,
         userId: String,
@@ -53,6 +73,12 @@ class NextcloudClient private constructor(
         context: Context
     ) : this(NextcloudUriDelegate(baseUri, userId), credentials, client, context)
 
+    /**
+     * Key of the permanent redirections recorded for the account of this client.
+     */
+    internal val redirectsAccount: String
+        get() = PermanentRedirects.accountKey(delegate.userId, baseUri)
+
     var userId: String
         get() = delegate.userId!!
         set(value) {
@@ -63,39 +89,21 @@ class NextcloudClient private constructor(
         @JvmStatic
         val TAG = NextcloudClient::class.java.simpleName
 
-        private fun createDefaultClient(context: Context): OkHttpClient {
-            val trustManager = AdvancedX509TrustManager(NetworkUtils.getKnownServersStore(context))
-            val keyManager = AdvancedX509KeyManager(context)
-
-            val sslContext = NetworkUtils.getSSLContext()
-
-            sslContext.init(arrayOf(keyManager), arrayOf<TrustManager>(trustManager), null)
-            val sslSocketFactory = sslContext.socketFactory
-
-            var proxy: Proxy? = null
-
-            val proxyHost = OwnCloudClientManagerFactory.getProxyHost()
-            val proxyPort = OwnCloudClientManagerFactory.getProxyPort()
-
-            if (!TextUtils.isEmpty(proxyHost) && proxyPort > 0) {
-                proxy = Proxy(Proxy.Type.HTTP, InetSocketAddress(proxyHost, proxyPort))
-                Log_OC.d(this, "Proxy settings: $proxyHost:$proxyPort")
-            }
-
-            return OkHttpClient
-                .Builder()
-                .cookieJar(CookieJar.NO_COOKIES)
+        /**
+         * Derives a client from the shared [OkHttpEngine], so that connection pool, dispatcher and TLS
+         * session cache are shared with all other clients of the process.
+         */
+        private fun createDefaultClient(context: Context): OkHttpClient =
+            OkHttpEngine
+                .get(context)
+                .newBuilder()
                 .connectTimeout(DEFAULT_CONNECTION_TIMEOUT_LONG, TimeUnit.MILLISECONDS)
                 .readTimeout(DEFAULT_DATA_TIMEOUT_LONG, TimeUnit.MILLISECONDS)
                 .callTimeout(
                     DEFAULT_CONNECTION_TIMEOUT_LONG + DEFAULT_DATA_TIMEOUT_LONG,
                     TimeUnit.MILLISECONDS
-                ).sslSocketFactory(sslSocketFactory, trustManager)
-                .hostnameVerifier { _: String?, _: SSLSession? -> true }
-                .fastFallback(true)
-                .proxy(proxy)
+                ).proxy(OkHttpEngine.getProxy())
                 .build()
-        }
     }
 
     constructor(
@@ -109,7 +117,7 @@ class NextcloudClient private constructor(
     fun <T> execute(remoteOperation: RemoteOperation<T>): RemoteOperationResult<T> {
         val result =
             try {
-                remoteOperation.run(this)
+                remoteOperation.execute(this)
             } catch (ex: Exception) {
                 RemoteOperationResult(ex)
             }
@@ -138,7 +146,7 @@ class NextcloudClient private constructor(
 
     internal fun execute(request: Request): ResponseOrError =
         try {
-            val response = client.newCall(request).execute()
+            val response = newCall(request).execute()
             if (response.code == HttpStatus.SC_BAD_REQUEST) {
                 val url = request.url
                 Log_OC.e(TAG, "Received http status 400 for $url -> removing client certificate")
@@ -149,17 +157,73 @@ class NextcloudClient private constructor(
             ResponseOrError(ex)
         }
 
+    /**
+     * Creates a call for the request, registering it with the [callTracker] if any.
+     */
+    fun newCall(request: Request): Call =
+        client.newCall(NetworkMetrics.tag(request, metricsListeners)).also { callTracker?.register(it) }
+
+    /**
+     * Registers a listener receiving the [CallMetrics] of every call issued through this client. Only calls of
+     * clients derived from the shared [OkHttpEngine] are instrumented.
+     */
+    fun addNetworkMetricsListener(listener: NetworkMetricsListener) {
+        metricsListeners.addIfAbsent(listener)
+    }
+
+    fun removeNetworkMetricsListener(listener: NetworkMetricsListener) {
+        metricsListeners.remove(listener)
+    }
+
+    /**
+     * Appends an interceptor, making it the innermost one; see [MethodInterceptor].
+     */
+    @Synchronized
+    fun addInterceptor(interceptor: MethodInterceptor) {
+        interceptors = interceptors + interceptor
+    }
+
+    @Synchronized
+    fun removeInterceptor(interceptor: MethodInterceptor) {
+        interceptors = interceptors - interceptor
+    }
+
+    /**
+     * Prepares the first requests to the server, e.g. on account switch or when the app comes to the foreground,
+     * without blocking the calling thread: resolves the host into [DNSCache], which also serves [OwnCloudClient],
+     * and sends a HEAD request for [path] so that a connection is opened, handshaken and left in the shared pool.
+     *
+     * While a prewarm of this client is in progress, further calls return the same future.
+     *
+     * @return future completing with the HTTP status of the request, or [OkHttpMethodBase.UNKNOWN_STATUS_CODE]
+     */
+    @JvmOverloads
+    @Synchronized
+    fun prewarm(path: String = AccountUtils.STATUS_PATH): CompletableFuture<Int> {
+        prewarming?.takeUnless { it.isDone }?.let { return it }
+
+        val host = baseUri.host
+        return CompletableFuture
+            .runAsync({ host?.let { resolve(it) } }, client.dispatcher.executorService)
+            .thenCompose { HeadMethod(baseUri.toString() + path, false).executeAsync(this) }
+            .also { prewarming = it }
+    }
+
+    private fun resolve(host: String) {
+        try {
+            DNSCache.lookup(host)
+        } catch (ex: UnknownHostException) {
+            Log_OC.w(TAG, "Prewarm could not resolve $host: ${ex.message}")
+        }
+    }
+
     @Throws(IOException::class)
     fun followRedirection(method: OkHttpMethodBase): RedirectionPath {
         var redirectionsCount = 0
         var status = method.getStatusCode()
         val result = RedirectionPath(status, OwnCloudClient.MAX_REDIRECTIONS_COUNT)
 
-        val statusIsRedirection =
-            status == HttpStatus.SC_MOVED_PERMANENTLY ||
-                status == HttpStatus.SC_MOVED_TEMPORARILY ||
-                status == HttpStatus.SC_TEMPORARY_REDIRECT
-        while (redirectionsCount < OwnCloudClient.MAX_REDIRECTIONS_COUNT && statusIsRedirection) {
+        while (redirectionsCount < OwnCloudClient.MAX_REDIRECTIONS_COUNT && isRedirection(status)) {
             val location =
                 method.getResponseHeader("Location")
                     ?: method.getResponseHeader("location")
@@ -167,6 +231,10 @@ class NextcloudClient private constructor(
             if (location != null) {
                 Log_OC.d(TAG, "Location to redirect: $location")
                 result.addLocation(location)
+                if (RedirectionPath.isPermanentRedirection(status)) {
+                    PermanentRedirects.record(redirectsAccount, baseUri, method.uri, location)
+                    method.lastPermanentLocation = location
+                }
                 // Release the connection to avoid reach the max number of connections per host
                 // due to it will be set a different url
                 method.releaseConnection()
@@ -191,6 +259,12 @@ class NextcloudClient private constructor(
         return result
     }
 
+    private fun isRedirection(status: Int): Boolean =
+        status == HttpStatus.SC_MOVED_PERMANENTLY ||
+            status == HttpStatus.SC_MOVED_TEMPORARILY ||
+            status == HttpStatus.SC_TEMPORARY_REDIRECT ||
+            status == RedirectionPath.SC_PERMANENT_REDIRECT
+
     private fun setRedirectedDestinationHeader(
         method: OkHttpMethodBase,
         location: String,
@@ -217,9 +291,26 @@ class NextcloudClient private constructor(
                 // needed to prevent cancellation, seems like default value not applied
                 .callTimeout(0, TimeUnit.MILLISECONDS)
                 .build()
-        return NextcloudClient(delegate, credentials, newClient, context)
+        return copy(newClient, callTracker)
     }
 
+    /**
+     * Returns a client sharing everything with this one, but registering all its calls with the given tracker.
+     */
+    fun withCallTracker(tracker: CallTracker): NextcloudClient = copy(client, tracker)
+
+    private fun copy(
+        okHttpClient: OkHttpClient,
+        tracker: CallTracker?
+    ): NextcloudClient =
+        NextcloudClient(delegate, credentials, okHttpClient, context).also {
+            it.followRedirects = followRedirects
+            it.retryPolicy = retryPolicy
+            it.metricsListeners.addAll(metricsListeners)
+            it.interceptors = interceptors
+            it.callTracker = tracker
+        }
+
     fun getUserIdEncoded(): String = delegate.userIdEncoded!!
 
     fun getUserIdPlain(): String = delegate.userId!!
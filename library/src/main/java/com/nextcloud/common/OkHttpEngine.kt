@@ -0,0 +1,173 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import android.content.Context
+import android.text.TextUtils
+import com.owncloud.android.lib.common.OwnCloudClientManagerFactory
+import com.owncloud.android.lib.common.network.AdvancedX509KeyManager
+import com.owncloud.android.lib.common.network.AdvancedX509TrustManager
+import com.owncloud.android.lib.common.network.NetworkUtils
+import com.owncloud.android.lib.common.utils.Log_OC
+import okhttp3.ConnectionPool
+import okhttp3.CookieJar
+import okhttp3.Dispatcher
+import okhttp3.OkHttpClient
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.TimeUnit
+import javax.net.ssl.SSLSession
+import javax.net.ssl.TrustManager
+
+/**
+ * Process-wide OkHttp engine shared by all [NextcloudClient] and [PlainClient] instances.
+ *
+ * Holds the single connection pool, dispatcher and TLS context of the library. Clients derive their own
+ * timeouts and proxy settings through [OkHttpClient.newBuilder], which keeps pool, dispatcher and TLS
+ * session cache shared.
+ */
+object OkHttpEngine {
+    const val DEFAULT_MAX_IDLE_CONNECTIONS = 16
+    const val DEFAULT_KEEP_ALIVE_MILLIS = 5 * 60 * 1000L
+    const val DEFAULT_MAX_REQUESTS = 64
+    const val DEFAULT_MAX_REQUESTS_PER_HOST = 16
+
+    private val TAG = OkHttpEngine::class.java.simpleName
+
+    @Volatile
+    private var engine: OkHttpClient? = null
+
+    private var maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS
+    private var keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS
+
+    private val dispatcher =
+        Dispatcher().apply {
+            maxRequests = DEFAULT_MAX_REQUESTS
+            maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST
+        }
+
+    data class PoolStats(
+        val connectionCount: Int,
+        val idleConnectionCount: Int,
+        val runningCalls: Int,
+        val queuedCalls: Int,
+        val maxIdleConnections: Int,
+        val keepAliveMillis: Long
+    )
+
+    /**
+     * Returns the shared engine, creating it on first use.
+     *
+     * Callers should not use the returned client directly but derive from it with
+     * [OkHttpClient.newBuilder] to apply their own timeouts.
+     */
+    @JvmStatic
+    fun get(context: Context): OkHttpClient =
+        engine ?: synchronized(this) {
+            engine ?: create(context.applicationContext ?: context).also { engine = it }
+        }
+
+    /**
+     * Sizes the shared connection pool.
+     *
+     * OkHttp pools cannot be resized, so a new pool replaces the current one and its idle connections are
+     * evicted. Clients created before this call keep using the previous pool until they are recreated.
+     */
+    @JvmStatic
+    @Synchronized
+    fun configurePool(
+        maxIdleConnections: Int,
+        keepAliveMillis: Long
+    ) {
+        require(maxIdleConnections > 0) { "maxIdleConnections must be positive" }
+        require(keepAliveMillis > 0) { "keepAliveMillis must be positive" }
+
+        this.maxIdleConnections = maxIdleConnections
+        this.keepAliveMillis = keepAliveMillis
+
+        engine?.let { current ->
+            engine = current.newBuilder().connectionPool(createConnectionPool()).build()
+            current.connectionPool.evictAll()
+        }
+    }
+
+    /**
+     * Limits the number of concurrent asynchronous calls, in total and per host. Takes effect immediately for
+     * all clients.
+     */
+    @JvmStatic
+    fun configureDispatcher(
+        maxRequests: Int,
+        maxRequestsPerHost: Int
+    ) {
+        dispatcher.maxRequests = maxRequests
+        dispatcher.maxRequestsPerHost = maxRequestsPerHost
+    }
+
+    /**
+     * Snapshot of the current usage of the shared pool and dispatcher.
+     */
+    @JvmStatic
+    fun getPoolStats(): PoolStats {
+        val pool = engine?.connectionPool
+        return PoolStats(
+            connectionCount = pool?.connectionCount() ?: 0,
+            idleConnectionCount = pool?.idleConnectionCount() ?: 0,
+            runningCalls = dispatcher.runningCallsCount(),
+            queuedCalls = dispatcher.queuedCallsCount(),
+            maxIdleConnections = maxIdleConnections,
+            keepAliveMillis = keepAliveMillis
+        )
+    }
+
+    /**
+     * Closes all idle connections of the shared pool, e.g. after a network change.
+     */
+    @JvmStatic
+    fun evictIdleConnections() {
+        engine?.connectionPool?.evictAll()
+    }
+
+    /**
+     * Proxy as currently configured in [OwnCloudClientManagerFactory], or null if none.
+     */
+    @JvmStatic
+    fun getProxy(): Proxy? {
+        val proxyHost = OwnCloudClientManagerFactory.getProxyHost()
+        val proxyPort = OwnCloudClientManagerFactory.getProxyPort()
+
+        if (!TextUtils.isEmpty(proxyHost) && proxyPort > 0) {
+            Log_OC.d(TAG, "Proxy settings: $proxyHost:$proxyPort")
+            return Proxy(Proxy.Type.HTTP, InetSocketAddress(proxyHost, proxyPort))
+        }
+        return null
+    }
+
+    private fun createConnectionPool() = ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS)
+
+    private fun create(context: Context): OkHttpClient {
+        val trustManager = AdvancedX509TrustManager(NetworkUtils.getKnownServersStore(context))
+        val keyManager = AdvancedX509KeyManager(context)
+
+        val sslContext = NetworkUtils.getSSLContext()
+        sslContext.init(arrayOf(keyManager), arrayOf<TrustManager>(trustManager), null)
+
+        Log_OC.d(TAG, "Creating shared OkHttp engine")
+
+        return OkHttpClient
+            .Builder()
+            .cookieJar(CookieJar.NO_COOKIES)
+            .connectionPool(createConnectionPool())
+            .dispatcher(dispatcher)
+            .sslSocketFactory(sslContext.socketFactory, trustManager)
+            .hostnameVerifier { _: String?, _: SSLSession? -> true }
+            .dns(DNSCache.resolver)
+            .fastFallback(true)
+            .eventListenerFactory(NetworkMetrics.eventListenerFactory)
+            .build()
+    }
+}
@@ -11,15 +11,21 @@ package com.nextcloud.common
 
 import com.nextcloud.common.OkHttpMethodBase.Companion.UNKNOWN_STATUS_CODE
 import com.owncloud.android.lib.common.OwnCloudClientManagerFactory
+import com.owncloud.android.lib.common.network.RedirectionPath
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.utils.Log_OC
+import okhttp3.Call
+import okhttp3.Callback
 import okhttp3.Headers
+import okhttp3.Headers.Companion.headersOf
 import okhttp3.HttpUrl
 import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
 import okhttp3.Request
 import okhttp3.Response
 import java.io.IOException
+import java.io.InterruptedIOException
 import java.net.HttpURLConnection
+import java.util.concurrent.CompletableFuture
 
 /**
  * Common base class for all new OkHttpMethods
@@ -33,22 +39,41 @@ abstract class OkHttpMethodBase(
         const val UNKNOWN_STATUS_CODE: Int = -1
         const val USER_AGENT = "User-Agent"
         const val AUTHORIZATION = "Authorization"
+        const val DESTINATION = "Destination"
+
+        private val EMPTY_HEADERS = headersOf()
     }
 
     private var response: Response? = null
-    private var queryMap: Map<String, String> = HashMap()
+    private var queryMap: Map<String, String> = emptyMap()
     private val requestHeaders: MutableMap<String, String> = HashMap()
     private val requestBuilder: Request.Builder = Request.Builder()
     private var request: Request? = null
 
+    @Volatile
+    private var call: Call? = null
+
+    /**
+     * Retries performed by the [RetryPolicy] of the client while executing this method.
+     */
+    var retryCount: Int = 0
+        private set
+
+    /**
+     * Last permanent location this method was redirected to, or sent to because of an earlier redirection.
+     */
+    var lastPermanentLocation: String? = null
+        internal set
+
     @Throws(IllegalStateException::class)
     private fun buildQueryParameter(): HttpUrl {
-        val httpBuilder =
-            uri.toHttpUrlOrNull()?.newBuilder() ?: throw IllegalStateException("Error")
+        val url = uri.toHttpUrlOrNull() ?: throw IllegalStateException("Error")
 
-        queryMap.forEach { (k, v) -> httpBuilder.addQueryParameter(k, v) }
-
-        return httpBuilder.build()
+        return if (queryMap.isEmpty()) {
+            url
+        } else {
+            url.newBuilder().also { builder -> queryMap.forEach { (k, v) -> builder.addQueryParameter(k, v) } }.build()
+        }
     }
 
     /**
@@ -100,54 +125,253 @@ abstract class OkHttpMethodBase(
     fun getRequestHeader(name: String): String? = request?.header(name)
 
     /**
-     * Execute operation using nextcloud client.
+     * Execute operation using nextcloud client, through its [MethodInterceptor]s.
      *
      * @return HTTP return code or [UNKNOWN_STATUS_CODE] in case of network error.
      */
     fun execute(nextcloudClient: NextcloudClient): Int {
-        val temp = requestBuilder.url(buildQueryParameter())
+        val originalUri = applyPermanentRedirects(nextcloudClient)
+        response =
+            try {
+                intercept(nextcloudClient.interceptors, buildRequest(nextcloudClient)) {
+                    executeWithRetries(nextcloudClient, it)
+                }
+            } catch (ex: IOException) {
+                Log_OC.e(this, "Error executing method", ex)
+                null
+            }
+        response?.let { recordPermanentRedirects(nextcloudClient, it) }
+
+        val status = if (response == null) UNKNOWN_STATUS_CODE else handleResponse(nextcloudClient)
+        if (originalUri != null && PermanentRedirects.isFailure(status)) {
+            PermanentRedirects.invalidate(nextcloudClient.redirectsAccount, originalUri)
+        }
+        return status
+    }
 
-        requestHeaders[AUTHORIZATION] = nextcloudClient.credentials
-        requestHeaders[USER_AGENT] = OwnCloudClientManagerFactory.getUserAgent()
-        requestHeaders.forEach { (name, value) -> temp.header(name, value) }
+    /**
+     * Runs [request] through [interceptors], ending with [terminal].
+     */
+    private fun intercept(
+        interceptors: List<MethodInterceptor>,
+        request: Request,
+        terminal: (Request) -> Response
+    ): Response =
+        if (interceptors.isEmpty()) {
+            terminal(request)
+        } else {
+            MethodChain(this, interceptors, 0, request, terminal).proceed(request)
+        }
 
-        if (useOcsApiRequestHeader) {
-            temp.header(RemoteOperation.OCS_API_HEADER, RemoteOperation.OCS_API_HEADER_VALUE)
+    /**
+     * Sends this method straight to the known permanent location of its URI, if any, including the `Destination`
+     * header of WebDAV methods.
+     *
+     * @return the URI before rewriting, or null if it was not rewritten
+     */
+    private fun applyPermanentRedirects(nextcloudClient: NextcloudClient): String? {
+        val account = nextcloudClient.redirectsAccount
+        val rewritten = PermanentRedirects.rewrite(account, uri)
+        if (rewritten == uri) {
+            return null
         }
 
-        applyType(temp)
+        val originalUri = uri
+        uri = rewritten
+        lastPermanentLocation = rewritten
+        requestHeaders.keys
+            .filter { it.equals(DESTINATION, ignoreCase = true) }
+            .forEach { requestHeaders[it] = PermanentRedirects.rewrite(account, requestHeaders.getValue(it)) }
+        return originalUri
+    }
 
-        val request = temp.build()
+    /**
+     * Records the permanent redirections followed by OkHttp itself while executing the request.
+     */
+    private fun recordPermanentRedirects(
+        nextcloudClient: NextcloudClient,
+        response: Response
+    ) {
+        var latestLocation: String? = null
+        var current = response
+        var prior = current.priorResponse
+        while (prior != null) {
+            if (RedirectionPath.isPermanentRedirection(prior.code)) {
+                val location = current.request.url.toString()
+                PermanentRedirects.record(
+                    nextcloudClient.redirectsAccount,
+                    nextcloudClient.baseUri,
+                    prior.request.url.toString(),
+                    location
+                )
+                latestLocation = latestLocation ?: location
+            }
+            current = prior
+            prior = current.priorResponse
+        }
+        latestLocation?.let { lastPermanentLocation = it }
+    }
 
-        try {
-            response = nextcloudClient.client.newCall(request).execute()
-        } catch (ex: IOException) {
-            return UNKNOWN_STATUS_CODE
+    /**
+     * Executes the request, retrying it as allowed by the [RetryPolicy] of the client. Requests with a one-shot
+     * body are never retried.
+     *
+     * @return the last response
+     * @throws IOException if the last attempt failed, or if waiting for a retry was interrupted
+     */
+    @Throws(IOException::class)
+    private fun executeWithRetries(
+        nextcloudClient: NextcloudClient,
+        request: Request
+    ): Response {
+        val policy = if (request.body?.isOneShot() == true) RetryPolicy.NONE else nextcloudClient.retryPolicy
+        val host = request.url.host
+        val bodyBytes = request.body?.contentLength() ?: 0
+
+        fun attempt(): Result<Response> =
+            try {
+                Result.success(nextcloudClient.newCall(request).also { call = it }.execute())
+            } catch (ex: IOException) {
+                Result.failure(ex)
+            }
+
+        fun retryDelay(result: Result<Response>): Long =
+            result.fold(
+                onSuccess = {
+                    policy.getRetryDelay(
+                        request.method,
+                        host,
+                        retryCount,
+                        it.code,
+                        it.header(RetryPolicy.RETRY_AFTER_HEADER),
+                        bodyBytes
+                    )
+                },
+                onFailure = { policy.getRetryDelay(host, retryCount, it as IOException) }
+            )
+
+        var result = attempt()
+        var delay = retryDelay(result)
+        while (delay != RetryPolicy.NO_RETRY && call?.isCanceled() != true) {
+            Log_OC.d(this, "Retrying ${request.method} ${request.url} in $delay ms")
+            result.getOrNull()?.close()
+            if (!RetryPolicy.pause(delay)) {
+                throw InterruptedIOException("Interrupted while waiting to retry ${request.method} ${request.url}")
+            }
+            retryCount++
+            result = attempt()
+            delay = retryDelay(result)
         }
 
-        return if (nextcloudClient.followRedirects) {
-            nextcloudClient.followRedirection(this).lastStatus
-        } else {
-            response?.code ?: UNKNOWN_STATUS_CODE
+        return result.getOrThrow()
+    }
+
+    /**
+     * Execute operation using nextcloud client without blocking the calling thread; the request is enqueued
+     * on the dispatcher of the shared [OkHttpEngine]. Cancelling the returned future cancels the call.
+     *
+     * Redirections, if enabled, are followed on the dispatcher thread that received the response. Failed attempts
+     * are not retried, as that would block the dispatcher.
+     *
+     * @return future completing with the HTTP return code or [UNKNOWN_STATUS_CODE] in case of network error.
+     */
+    fun executeAsync(nextcloudClient: NextcloudClient): CompletableFuture<Int> {
+        val future = CompletableFuture<Int>()
+        val newCall = nextcloudClient.newCall(buildRequest(nextcloudClient))
+        call = newCall
+
+        newCall.enqueue(
+            object : Callback {
+                override fun onFailure(
+                    call: Call,
+                    e: IOException
+                ) {
+                    future.complete(UNKNOWN_STATUS_CODE)
+                }
+
+                /**
+                 * Runs on a thread of the OkHttp dispatcher, so the future is completed whatever happens, lest its
+                 * callers wait forever.
+                 */
+                @Suppress("TooGenericExceptionCaught")
+                override fun onResponse(
+                    call: Call,
+                    response: Response
+                ) {
+                    this@OkHttpMethodBase.response = response
+                    try {
+                        future.complete(handleResponse(nextcloudClient))
+                    } catch (ex: IOException) {
+                        Log_OC.e(this@OkHttpMethodBase, "Error following redirection", ex)
+                        future.complete(UNKNOWN_STATUS_CODE)
+                    } catch (ex: Exception) {
+                        Log_OC.e(this@OkHttpMethodBase, "Error handling response", ex)
+                        future.completeExceptionally(ex)
+                    }
+                }
+            }
+        )
+
+        future.whenComplete { _, _ ->
+            if (future.isCancelled) {
+                newCall.cancel()
+            }
         }
+        return future
     }
 
-    fun execute(client: PlainClient): Int {
-        val temp = requestBuilder.url(buildQueryParameter())
+    /**
+     * Cancels the call currently executed by this method, if any.
+     */
+    fun abort() {
+        call?.cancel()
+    }
+
+    /**
+     * Builds the request on the reused builder, without copying the request headers of this method; client
+     * credentials and the OCS header are only added for a [NextcloudClient].
+     */
+    private fun buildRequest(nextcloudClient: NextcloudClient?): Request {
+        val temp = requestBuilder.url(buildQueryParameter()).headers(EMPTY_HEADERS)
 
-        requestHeaders[USER_AGENT] = OwnCloudClientManagerFactory.getUserAgent()
         requestHeaders.forEach { (name, value) -> temp.header(name, value) }
+        temp.header(USER_AGENT, OwnCloudClientManagerFactory.getUserAgent())
+
+        if (nextcloudClient != null) {
+            temp.header(AUTHORIZATION, nextcloudClient.credentials)
+            if (useOcsApiRequestHeader) {
+                temp.header(RemoteOperation.OCS_API_HEADER, RemoteOperation.OCS_API_HEADER_VALUE)
+            }
+        }
 
         applyType(temp)
 
-        val request = temp.build()
+        return temp.build().also { request = it }
+    }
 
-        try {
-            response = client.client.newCall(request).execute()
-        } catch (ex: IOException) {
-            Log_OC.e(this, "Error executing method", ex)
+    private fun handleResponse(nextcloudClient: NextcloudClient): Int =
+        if (nextcloudClient.followRedirects) {
+            nextcloudClient.followRedirection(this).lastStatus
+        } else {
+            response?.code ?: UNKNOWN_STATUS_CODE
         }
 
+    /**
+     * Execute operation using plain client, through its [MethodInterceptor]s.
+     *
+     * @return HTTP return code or [UNKNOWN_STATUS_CODE] in case of network error.
+     */
+    fun execute(client: PlainClient): Int {
+        response =
+            try {
+                intercept(client.interceptors, buildRequest(null)) { request ->
+                    client.client.newCall(request).also { call = it }.execute()
+                }
+            } catch (ex: IOException) {
+                Log_OC.e(this, "Error executing method", ex)
+                null
+            }
+
         return response?.code ?: UNKNOWN_STATUS_CODE
     }
 
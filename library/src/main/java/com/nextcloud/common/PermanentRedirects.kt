@@ -0,0 +1,174 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import java.net.HttpURLConnection
+
+/**
+ * Permanent redirections (301 and 308) seen per account, used to send later requests straight to the new location.
+ *
+ * A redirection that moves the base URL of the client, i.e. its scheme, host or base path, e.g. `http://host/nextcloud`
+ * to `https://cloud.host`, is recorded as a rewrite of the base URL, applied to all URLs below it. Any other
+ * redirection, e.g. of a file moved within the server, only rewrites the exact URL.
+ * Entries are dropped by [invalidate] when a rewritten request fails, and the least recently used entries of an
+ * account are evicted beyond [MAX_ENTRIES_PER_ACCOUNT].
+ */
+object PermanentRedirects {
+    const val MAX_ENTRIES_PER_ACCOUNT = 32
+
+    /**
+     * String method parameter holding the permanent location a commons-httpclient method was sent to.
+     */
+    const val PARAM_PERMANENT_LOCATION = "nc.redirect.permanent"
+
+    private const val SCHEME_SEPARATOR = "://"
+    private const val LOAD_FACTOR = 0.75f
+
+    private class Entry(
+        val target: String,
+        val exact: Boolean
+    )
+
+    private val accounts = HashMap<String, LinkedHashMap<String, Entry>>()
+
+    /**
+     * Key identifying the redirections of an account.
+     */
+    @JvmStatic
+    fun accountKey(
+        userId: String?,
+        baseUri: Any
+    ): String = "$userId@$baseUri"
+
+    /**
+     * Whether a request answered with [status] after being rewritten shows that the redirection may be stale.
+     */
+    @JvmStatic
+    fun isFailure(status: Int): Boolean =
+        status < 0 || status == HttpURLConnection.HTTP_NOT_FOUND || status >= HttpURLConnection.HTTP_INTERNAL_ERROR
+
+    /**
+     * @return the URL to send a request for [uri] to, which is [uri] itself if no redirection is known
+     */
+    @JvmStatic
+    @Synchronized
+    fun rewrite(
+        account: String,
+        uri: String
+    ): String {
+        val entries = accounts[account]
+        val prefix = entries?.let { findPrefix(it, uri) }
+        return if (entries == null || prefix == null) {
+            uri
+        } else {
+            entries.getValue(prefix).target + uri.substring(prefix.length)
+        }
+    }
+
+    /**
+     * Records that [from] was permanently redirected to [to] for a client whose base URL is [baseUri].
+     */
+    @JvmStatic
+    @Synchronized
+    fun record(
+        account: String,
+        baseUri: Any,
+        from: String,
+        to: String
+    ) {
+        if (from == to) {
+            return
+        }
+
+        val base = baseUri.toString().trimEnd('/')
+        val suffix = commonPathSuffix(from, to)
+        val changedLength = from.length - suffix
+        val movesBase = suffix > 0 && isBelow(from, base) && changedLength <= base.length
+        val entries =
+            accounts.getOrPut(account) {
+                object : LinkedHashMap<String, Entry>(MAX_ENTRIES_PER_ACCOUNT, LOAD_FACTOR, true) {
+                    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>?): Boolean =
+                        size > MAX_ENTRIES_PER_ACCOUNT
+                }
+            }
+        if (movesBase) {
+            entries[base] = Entry(to.substring(0, to.length - suffix) + base.substring(changedLength), false)
+        } else {
+            entries[from] = Entry(to, true)
+        }
+    }
+
+    /**
+     * Forgets the redirection applied to [uri], if any, e.g. because the request sent to its target failed.
+     */
+    @JvmStatic
+    @Synchronized
+    fun invalidate(
+        account: String,
+        uri: String
+    ) {
+        val entries = accounts[account] ?: return
+        findPrefix(entries, uri)?.let { entries.remove(it) }
+    }
+
+    @JvmStatic
+    @Synchronized
+    fun clear(account: String) {
+        accounts.remove(account)
+    }
+
+    @JvmStatic
+    @Synchronized
+    fun clear() {
+        accounts.clear()
+    }
+
+    /**
+     * Longest recorded prefix matching [uri] on a path boundary.
+     */
+    private fun findPrefix(
+        entries: Map<String, Entry>,
+        uri: String
+    ): String? =
+        entries
+            .filter { (prefix, entry) ->
+                if (entry.exact) uri == prefix else isBelow(uri, prefix)
+            }.keys
+            .maxByOrNull { it.length }
+
+    /**
+     * Whether [uri] is [prefix] or below it, on a path boundary.
+     */
+    private fun isBelow(
+        uri: String,
+        prefix: String
+    ): Boolean = uri.startsWith(prefix) && (uri.length == prefix.length || uri[prefix.length] in "/?#")
+
+    /**
+     * Length of the common end of both URLs, limited to their paths and starting at a '/'.
+     */
+    internal fun commonPathSuffix(
+        from: String,
+        to: String
+    ): Int {
+        val limit = minOf(from.length - pathStart(from), to.length - pathStart(to))
+        var length = 0
+        while (length < limit && from[from.length - 1 - length] == to[to.length - 1 - length]) {
+            length++
+        }
+        while (length > 0 && from[from.length - length] != '/') {
+            length--
+        }
+        return length
+    }
+
+    private fun pathStart(url: String): Int {
+        val authorityStart = url.indexOf(SCHEME_SEPARATOR).let { if (it < 0) 0 else it + SCHEME_SEPARATOR.length }
+        val pathStart = url.indexOf('/', authorityStart)
+        return if (pathStart < 0) url.length else pathStart
+    }
+}
@@ -11,22 +11,11 @@
 package com.nextcloud.common
 
 import android.content.Context
-import android.text.TextUtils
 import com.owncloud.android.lib.common.OwnCloudClientFactory.DEFAULT_DATA_TIMEOUT_LONG
-import com.owncloud.android.lib.common.OwnCloudClientManagerFactory
-import com.owncloud.android.lib.common.network.AdvancedX509KeyManager
-import com.owncloud.android.lib.common.network.AdvancedX509TrustManager
-import com.owncloud.android.lib.common.network.NetworkUtils
-import com.owncloud.android.lib.common.utils.Log_OC
-import okhttp3.CookieJar
 import okhttp3.OkHttpClient
 import okhttp3.Request
 import java.io.IOException
-import java.net.InetSocketAddress
-import java.net.Proxy
 import java.util.concurrent.TimeUnit
-import javax.net.ssl.SSLSession
-import javax.net.ssl.TrustManager
 
 class PlainClient(
     context: Context
@@ -34,39 +23,37 @@ class PlainClient(
     var followRedirects = true
     var client: OkHttpClient = createDefaultClient(context)
 
+    /**
+     * Interceptors run, in this order, around every request sent by [OkHttpMethodBase.execute].
+     */
+    @Volatile
+    var interceptors: List<MethodInterceptor> = emptyList()
+        private set
+
     companion object {
         @JvmStatic
         val TAG = PlainClient::class.java.simpleName
 
-        private fun createDefaultClient(context: Context): OkHttpClient {
-            val trustManager = AdvancedX509TrustManager(NetworkUtils.getKnownServersStore(context))
-            val keyManager = AdvancedX509KeyManager(context)
-
-            val sslContext = NetworkUtils.getSSLContext()
-
-            sslContext.init(arrayOf(keyManager), arrayOf<TrustManager>(trustManager), null)
-            val sslSocketFactory = sslContext.socketFactory
-
-            var proxy: Proxy? = null
-
-            val proxyHost = OwnCloudClientManagerFactory.getProxyHost()
-            val proxyPort = OwnCloudClientManagerFactory.getProxyPort()
-
-            if (!TextUtils.isEmpty(proxyHost) && proxyPort > 0) {
-                proxy = Proxy(Proxy.Type.HTTP, InetSocketAddress(proxyHost, proxyPort))
-                Log_OC.d(this, "Proxy settings: $proxyHost:$proxyPort")
-            }
-
-            return OkHttpClient
-                .Builder()
-                .cookieJar(CookieJar.NO_COOKIES)
+        private fun createDefaultClient(context: Context): OkHttpClient =
+            OkHttpEngine
+                .get(context)
+                .newBuilder()
                 .callTimeout(DEFAULT_DATA_TIMEOUT_LONG, TimeUnit.MILLISECONDS)
-                .sslSocketFactory(sslSocketFactory, trustManager)
-                .hostnameVerifier { _: String?, _: SSLSession? -> true }
-                .fastFallback(true)
-                .proxy(proxy)
+                .proxy(OkHttpEngine.getProxy())
                 .build()
-        }
+    }
+
+    /**
+     * Appends an interceptor, making it the innermost one; see [MethodInterceptor].
+     */
+    @Synchronized
+    fun addInterceptor(interceptor: MethodInterceptor) {
+        interceptors = interceptors + interceptor
+    }
+
+    @Synchronized
+    fun removeInterceptor(interceptor: MethodInterceptor) {
+        interceptors = interceptors - interceptor
     }
 
     @Throws(Exception::class)
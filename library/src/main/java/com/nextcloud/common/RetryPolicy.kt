@@ -0,0 +1,260 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import com.nextcloud.android.lib.core.Clock
+import com.nextcloud.android.lib.core.ClockImpl
+import java.io.IOException
+import java.net.ConnectException
+import java.text.ParseException
+import java.text.SimpleDateFormat
+import java.util.Locale
+import java.util.TimeZone
+import java.util.concurrent.TimeUnit
+import kotlin.math.min
+import kotlin.random.Random
+
+/**
+ * Retry policy shared by [NextcloudClient] and [com.owncloud.android.lib.common.OwnCloudClient].
+ *
+ * Failed attempts are retried after an exponential backoff with full jitter, or after the delay requested by the
+ * server with `Retry-After`. Only answers meaning that the request was not processed are retried:
+ * - 429, 502, 503 and 504 for idempotent methods,
+ * - 429 for all methods, as the request was rejected before being handled,
+ * - connection failures for all methods, as the request was never sent.
+ *
+ * Answers to requests whose body is larger than [maxRetriedBodyBytes], or of unknown length, are not retried, as
+ * this would send the body again, e.g. a file upload of several gigabytes.
+ *
+ * Other transport errors are left to the retry handling of the HTTP stacks themselves.
+ *
+ * Retries towards a host are limited by a [RetryBudget], so that a struggling server is not hammered by every
+ * operation at the same time.
+ */
+class RetryPolicy
+    @JvmOverloads
+    constructor(
+        val maxRetries: Int = DEFAULT_MAX_RETRIES,
+        val baseDelayMillis: Long = DEFAULT_BASE_DELAY_MILLIS,
+        val maxDelayMillis: Long = DEFAULT_MAX_DELAY_MILLIS,
+        private val budget: RetryBudget = RetryBudget(),
+        private val clock: Clock = ClockImpl(),
+        private val random: Random = Random.Default,
+        val maxRetriedBodyBytes: Long = DEFAULT_MAX_RETRIED_BODY_BYTES
+    ) {
+        init {
+            require(maxRetries >= 0) { "maxRetries must not be negative" }
+            require(baseDelayMillis > 0 && maxDelayMillis >= baseDelayMillis) { "Invalid delays" }
+            require(maxRetriedBodyBytes >= 0) { "maxRetriedBodyBytes must not be negative" }
+        }
+
+        companion object {
+            const val DEFAULT_MAX_RETRIES = 2
+            const val DEFAULT_BASE_DELAY_MILLIS = 500L
+            const val DEFAULT_MAX_DELAY_MILLIS = 30_000L
+            const val DEFAULT_MAX_RETRIED_BODY_BYTES = 1024 * 1024L
+
+            /**
+             * Returned by the `getRetryDelay` methods when the attempt must not be retried.
+             */
+            const val NO_RETRY = -1L
+
+            /**
+             * Boolean method parameter disabling retries for a commons-httpclient method.
+             */
+            const val PARAM_RETRY_DISABLED = "nc.retry.disabled"
+
+            /**
+             * Integer method parameter holding the retries performed for a commons-httpclient method.
+             */
+            const val PARAM_RETRY_COUNT = "nc.retry.count"
+
+            const val RETRY_AFTER_HEADER = "Retry-After"
+
+            private const val HTTP_TOO_MANY_REQUESTS = 429
+            private const val HTTP_BAD_GATEWAY = 502
+            private const val HTTP_SERVICE_UNAVAILABLE = 503
+            private const val HTTP_GATEWAY_TIMEOUT = 504
+            private const val MAX_BACKOFF_SHIFT = 20
+            private const val HTTP_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz"
+
+            private val IDEMPOTENT_METHODS =
+                setOf("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE", "PROPFIND", "SEARCH", "REPORT")
+
+            /**
+             * Policy never retrying.
+             */
+            @JvmField
+            val NONE = RetryPolicy(maxRetries = 0)
+
+            @Volatile
+            private var defaultPolicy = RetryPolicy()
+
+            /**
+             * Policy used by clients not configured otherwise.
+             */
+            @JvmStatic
+            fun getDefault(): RetryPolicy = defaultPolicy
+
+            @JvmStatic
+            fun setDefault(policy: RetryPolicy) {
+                defaultPolicy = policy
+            }
+
+            @JvmStatic
+            fun isIdempotent(method: String): Boolean = IDEMPOTENT_METHODS.contains(method.uppercase(Locale.ROOT))
+
+            /**
+             * Waits before the next attempt.
+             *
+             * @return false if the thread was interrupted while waiting; the interrupted flag is then restored
+             */
+            @JvmStatic
+            fun pause(delayMillis: Long): Boolean =
+                try {
+                    if (delayMillis > 0) {
+                        Thread.sleep(delayMillis)
+                    }
+                    true
+                } catch (e: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    false
+                }
+        }
+
+        /**
+         * Decides whether a request answered with [status] is retried.
+         *
+         * @param method HTTP method name
+         * @param host host the request was sent to
+         * @param retries retries already performed for the request
+         * @param retryAfter value of the `Retry-After` response header, if any
+         * @param bodyBytes length of the request body, 0 if it has none, -1 if unknown
+         * @return delay in milliseconds before the next attempt, or [NO_RETRY]
+         */
+        @JvmOverloads
+        fun getRetryDelay(
+            method: String,
+            host: String,
+            retries: Int,
+            status: Int,
+            retryAfter: String?,
+            bodyBytes: Long = 0
+        ): Long {
+            val retryable =
+                when (status) {
+                    HTTP_TOO_MANY_REQUESTS -> true
+                    HTTP_BAD_GATEWAY, HTTP_SERVICE_UNAVAILABLE, HTTP_GATEWAY_TIMEOUT -> isIdempotent(method)
+                    else -> false
+                }
+            if (!retryable || bodyBytes !in 0..maxRetriedBodyBytes || retries >= maxRetries) {
+                return NO_RETRY
+            }
+
+            val requested =
+                if (status == HTTP_TOO_MANY_REQUESTS || status == HTTP_SERVICE_UNAVAILABLE) {
+                    parseRetryAfter(retryAfter)
+                } else {
+                    NO_RETRY
+                }
+            // do not block a thread for longer than any backoff would; the caller gets the error instead
+            val delay = if (requested >= 0) requested else backoff(retries)
+            return if (delay <= maxDelayMillis && budget.tryAcquire(host)) delay else NO_RETRY
+        }
+
+        /**
+         * Decides whether a request that failed with [exception] is retried.
+         *
+         * @return delay in milliseconds before the next attempt, or [NO_RETRY]
+         */
+        fun getRetryDelay(
+            host: String,
+            retries: Int,
+            exception: IOException
+        ): Long =
+            if (exception is ConnectException && retries < maxRetries && budget.tryAcquire(host)) {
+                backoff(retries)
+            } else {
+                NO_RETRY
+            }
+
+        /**
+         * Full jitter: a random delay between 0 and the exponential backoff for the attempt.
+         */
+        internal fun backoff(retries: Int): Long {
+            val ceiling = min(maxDelayMillis, baseDelayMillis shl min(retries, MAX_BACKOFF_SHIFT))
+            return random.nextLong(ceiling + 1)
+        }
+
+        /**
+         * Parses a `Retry-After` value, either in seconds or an HTTP date.
+         *
+         * @return delay in milliseconds, or [NO_RETRY] if missing or malformed
+         */
+        internal fun parseRetryAfter(value: String?): Long {
+            val trimmed = value?.trim()
+            val seconds = trimmed?.toLongOrNull()
+            return when {
+                trimmed.isNullOrEmpty() -> NO_RETRY
+                seconds != null -> if (seconds >= 0) TimeUnit.SECONDS.toMillis(seconds) else NO_RETRY
+                else -> parseHttpDate(trimmed)
+            }
+        }
+
+        private fun parseHttpDate(value: String): Long =
+            try {
+                val format = SimpleDateFormat(HTTP_DATE_PATTERN, Locale.US)
+                format.timeZone = TimeZone.getTimeZone("GMT")
+                val date = format.parse(value)
+                if (date == null) NO_RETRY else maxOf(0L, date.time - clock.currentTimeMillis)
+            } catch (e: ParseException) {
+                NO_RETRY
+            }
+    }
+
+/**
+ * Limits the retries sent to each host within a time window.
+ */
+class RetryBudget
+    @JvmOverloads
+    constructor(
+        private val maxRetriesPerWindow: Int = DEFAULT_MAX_RETRIES_PER_WINDOW,
+        private val windowMillis: Long = DEFAULT_WINDOW_MILLIS,
+        private val clock: Clock = ClockImpl()
+    ) {
+        companion object {
+            const val DEFAULT_MAX_RETRIES_PER_WINDOW = 20
+            const val DEFAULT_WINDOW_MILLIS = 60_000L
+        }
+
+        private class Window(
+            var start: Long,
+            var used: Int
+        )
+
+        private val windows = HashMap<String, Window>()
+
+        /**
+         * Takes one retry from the budget of [host].
+         *
+         * @return false if the budget of the host is exhausted for the current window
+         */
+        @Synchronized
+        fun tryAcquire(host: String): Boolean {
+            val now = clock.currentTimeMillis
+            val window = windows.getOrPut(host) { Window(now, 0) }
+            if (now - window.start >= windowMillis) {
+                window.start = now
+                window.used = 0
+            }
+            if (window.used >= maxRetriesPerWindow) {
+                return false
+            }
+            window.used++
+            return true
+        }
+    }
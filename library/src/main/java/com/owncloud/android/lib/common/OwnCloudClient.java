@@ -21,13 +21,21 @@ import android.net.Uri;
 import android.text.TextUtils;
 
 import com.nextcloud.common.DNSCache;
+import com.nextcloud.common.NetworkMetricsListener;
 import com.nextcloud.common.NextcloudUriDelegate;
+import com.nextcloud.common.PermanentRedirects;
+import com.nextcloud.common.RetryPolicy;
 import com.owncloud.android.lib.common.accounts.AccountUtils;
 import com.owncloud.android.lib.common.network.AdvancedX509KeyManager;
+import com.owncloud.android.lib.common.network.HttpMethodMetrics;
+import com.owncloud.android.lib.common.network.ManagedHttpConnectionManager;
+import com.owncloud.android.lib.common.network.OnResponseCompressionListener;
 import com.owncloud.android.lib.common.network.RedirectionPath;
+import com.owncloud.android.lib.common.network.ResponseCompression;
 import com.owncloud.android.lib.common.utils.Log_OC;
 
 import org.apache.commons.httpclient.Cookie;
+import org.apache.commons.httpclient.EntityEnclosingMethod;
 import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
@@ -43,9 +51,12 @@ import org.apache.commons.httpclient.params.HttpParams;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -62,6 +73,10 @@ public class OwnCloudClient extends HttpClient {
     private static int sInstanceCounter = 0;
     private final NextcloudUriDelegate nextcloudUriDelegate;
     private boolean followRedirects = true;
+    private boolean compressionEnabled = true;
+    private OnResponseCompressionListener compressionListener = null;
+    private RetryPolicy retryPolicy = RetryPolicy.getDefault();
+    private final List<NetworkMetricsListener> metricsListeners = new CopyOnWriteArrayList<>();
     private OwnCloudCredentials credentials = null;
     private int mInstanceNumber;
 
@@ -131,7 +146,10 @@ public class OwnCloudClient extends HttpClient {
      * <p>
      * Executes the method through the inherited HttpClient.executedMethod(method).
      * <p>
-     * Sets the socket and connection timeouts only for the method received.
+     * Sets the socket and connection timeouts only for the method received, without changing the defaults of the
+     * client, so that the same client can execute methods from several threads. This needs a
+     * {@link ManagedHttpConnectionManager}; with any other connection manager the defaults of the client and of the
+     * connection manager are changed during the request, and restored afterwards.
      * <p>
      * The timeouts are both in milliseconds; 0 means 'infinite';
      * < 0 means 'do not change the default'
@@ -141,40 +159,120 @@ public class OwnCloudClient extends HttpClient {
      * @param connectionTimeout Timeout to set for connection establishment
      */
     public int executeMethod(HttpMethodBase method, int readTimeout, int connectionTimeout) throws IOException {
+        if (readTimeout >= 0) {
+            method.getParams().setSoTimeout(readTimeout);
+        }
+        if (!(getHttpConnectionManager() instanceof ManagedHttpConnectionManager)) {
+            return executeMethodWithDefaultTimeouts(method, readTimeout, connectionTimeout);
+        }
+
+        ManagedHttpConnectionManager.setRequestTimeouts(connectionTimeout, readTimeout);
+        try {
+            return executeMethodCheckingKeys(method);
+        } finally {
+            ManagedHttpConnectionManager.clearRequestTimeouts();
+        }
+    }
 
+    /**
+     * Applies the timeouts through the defaults of the client and of its connection manager, which cannot apply them
+     * per request.
+     */
+    private int executeMethodWithDefaultTimeouts(HttpMethodBase method, int readTimeout, int connectionTimeout)
+        throws IOException {
         int oldSoTimeout = getParams().getSoTimeout();
         int oldConnectionTimeout = getHttpConnectionManager().getParams().getConnectionTimeout();
         try {
             if (readTimeout >= 0) {
-                method.getParams().setSoTimeout(readTimeout);   // this should be enough...
-                getParams().setSoTimeout(readTimeout);          // ... but HTTPS needs this
+                getParams().setSoTimeout(readTimeout);  // HTTPS needs this for the handshake
             }
             if (connectionTimeout >= 0) {
                 getHttpConnectionManager().getParams().setConnectionTimeout(connectionTimeout);
             }
-            int httpStatus = executeMethod(method);
-            if (httpStatus == HttpStatus.SC_BAD_REQUEST) {
-                URI uri = method.getURI();
-                Log_OC.e(TAG, "Received http status 400 for " + uri + " -> removing client certificate");
-                keyManager.removeKeys(uri);
-            }
-            return httpStatus;
+            return executeMethodCheckingKeys(method);
         } finally {
             getParams().setSoTimeout(oldSoTimeout);
             getHttpConnectionManager().getParams().setConnectionTimeout(oldConnectionTimeout);
         }
     }
 
+    private int executeMethodCheckingKeys(HttpMethodBase method) throws IOException {
+        int httpStatus = executeMethod(method);
+        if (httpStatus == HttpStatus.SC_BAD_REQUEST) {
+            URI uri = method.getURI();
+            Log_OC.e(TAG, "Received http status 400 for " + uri + " -> removing client certificate");
+            keyManager.removeKeys(uri);
+        }
+        return httpStatus;
+    }
+
 
     /**
      * Requests the received method.
      *
      * Executes the method through the inherited HttpClient.executedMethod(method).
+     * <p>
+     * Methods are sent straight to the known permanent location of their URI, if any; the redirection is forgotten
+     * if the request fails.
      *
      * @param method                HTTP method request.
      */
     @Override
     public int executeMethod(HttpMethod method) throws IOException {
+        HttpMethodMetrics metrics = HttpMethodMetrics.start(method, metricsListeners);
+        String originalUri = applyPermanentRedirects(method);
+        boolean failed = true;
+        try {
+            int status = executeMethodWithFallbacks(method);
+            failed = PermanentRedirects.isFailure(status);
+            if (metrics != null) {
+                metrics.onResponse(status);
+            }
+            return status;
+        } catch (IOException e) {
+            if (metrics != null) {
+                metrics.onFailure(e);
+            }
+            throw e;
+        } finally {
+            if (metrics != null) {
+                metrics.onExecuted();
+            }
+            if (originalUri != null && failed) {
+                PermanentRedirects.invalidate(getRedirectsAccount(), originalUri);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the URI and the 'Destination' header of the method according to the permanent redirections known for
+     * the account.
+     *
+     * @return the URI before rewriting, or null if it was not rewritten
+     */
+    private String applyPermanentRedirects(HttpMethod method) throws IOException {
+        String account = getRedirectsAccount();
+        String originalUri = method.getURI().toString();
+        String rewritten = PermanentRedirects.rewrite(account, originalUri);
+        if (rewritten.equals(originalUri)) {
+            return null;
+        }
+
+        Log_OC.d(TAG + " #" + mInstanceNumber, "Using permanent location " + rewritten);
+        method.setURI(new URI(rewritten, true));
+        method.getParams().setParameter(PermanentRedirects.PARAM_PERMANENT_LOCATION, rewritten);
+        Header destination = method.getRequestHeader("Destination");
+        if (destination != null) {
+            method.setRequestHeader("Destination", PermanentRedirects.rewrite(account, destination.getValue()));
+        }
+        return originalUri;
+    }
+
+    private String getRedirectsAccount() {
+        return PermanentRedirects.accountKey(getUserIdPlain(), getBaseUri());
+    }
+
+    private int executeMethodWithFallbacks(HttpMethod method) throws IOException {
         final String hostname = method.getURI().getHost();
 
         try {
@@ -188,8 +286,11 @@ public class OwnCloudClient extends HttpClient {
 //	        logCookiesAtRequest(method.getRequestHeaders(), "before");
 //	        logCookiesAtState("before");
             method.setFollowRedirects(false);
+            if (compressionEnabled) {
+                ResponseCompression.negotiate(method, compressionListener);
+            }
 
-            int status = super.executeMethod(method);
+            int status = executeWithRetries(method, hostname);
 
             if (status >= 500 && status < 600 && DNSCache.isIPV6First(hostname)) {
                 return retryMethodWithIPv4(method, hostname);
@@ -221,10 +322,82 @@ public class OwnCloudClient extends HttpClient {
         }
     }
 
+    /**
+     * Executes the method, retrying it as allowed by the retry policy of this client.
+     * <p>
+     * Nothing is retried while the IPv4 fallback is pending, for methods flagged with
+     * {@link RetryPolicy#PARAM_RETRY_DISABLED}, nor for methods whose request body cannot be sent twice. The number
+     * of retries is kept in the {@link RetryPolicy#PARAM_RETRY_COUNT} parameter of the method.
+     */
+    private int executeWithRetries(HttpMethod method, String hostname) throws IOException {
+        HttpParams params = method.getParams();
+        RetryPolicy policy = retryPolicy;
+        if (params.getBooleanParameter(RetryPolicy.PARAM_RETRY_DISABLED, false) ||
+            DNSCache.isIPV6First(hostname) ||
+            !isRequestRepeatable(method)) {
+            policy = RetryPolicy.NONE;
+        }
+
+        int retries = params.getIntParameter(RetryPolicy.PARAM_RETRY_COUNT, 0);
+        while (true) {
+            long delay;
+            try {
+                int status = super.executeMethod(method);
+                Header retryAfter = method.getResponseHeader(RetryPolicy.RETRY_AFTER_HEADER);
+                delay = policy.getRetryDelay(method.getName(),
+                                             hostname,
+                                             retries,
+                                             status,
+                                             retryAfter == null ? null : retryAfter.getValue(),
+                                             getRequestBodyLength(method));
+                if (delay == RetryPolicy.NO_RETRY) {
+                    return status;
+                }
+                exhaustResponse(method.getResponseBodyAsStream());
+                method.releaseConnection();
+            } catch (IOException e) {
+                delay = policy.getRetryDelay(hostname, retries, e);
+                if (delay == RetryPolicy.NO_RETRY) {
+                    throw e;
+                }
+            }
+
+            Log_OC.d(TAG + " #" + mInstanceNumber, "Retrying " + method.getName() + " in " + delay + " ms");
+            if (!RetryPolicy.pause(delay)) {
+                throw new InterruptedIOException("Interrupted while waiting to retry " + method.getName());
+            }
+            retries++;
+            params.setIntParameter(RetryPolicy.PARAM_RETRY_COUNT, retries);
+        }
+    }
+
+    /**
+     * @return length of the request body, 0 if there is none, -1 if unknown
+     */
+    private static long getRequestBodyLength(HttpMethod method) {
+        if (method instanceof EntityEnclosingMethod) {
+            EntityEnclosingMethod entityMethod = (EntityEnclosingMethod) method;
+            return entityMethod.getRequestEntity() == null ? 0 : entityMethod.getRequestEntity().getContentLength();
+        }
+        return 0;
+    }
+
+    private static boolean isRequestRepeatable(HttpMethod method) {
+        if (method instanceof EntityEnclosingMethod) {
+            EntityEnclosingMethod entityMethod = (EntityEnclosingMethod) method;
+            return entityMethod.getRequestEntity() == null || entityMethod.getRequestEntity().isRepeatable();
+        }
+        return true;
+    }
+
+    /**
+     * Executes the method again over IPv4; the response is metered by the outer {@link #executeMethod(HttpMethod)}
+     * only.
+     */
     private int retryMethodWithIPv4(HttpMethod method, String hostname) throws IOException {
         Log_OC.d(TAG, "IPv6 connection failed. Retrying with IPV4");
         DNSCache.setIPVersionPreference(hostname, true);
-        return executeMethod(method);
+        return executeMethodWithFallbacks(method);
     }
 
 
@@ -235,7 +408,8 @@ public class OwnCloudClient extends HttpClient {
         while (redirectionsCount < MAX_REDIRECTIONS_COUNT &&
                 (status == HttpStatus.SC_MOVED_PERMANENTLY ||
                         status == HttpStatus.SC_MOVED_TEMPORARILY ||
-                        status == HttpStatus.SC_TEMPORARY_REDIRECT)
+                        status == HttpStatus.SC_TEMPORARY_REDIRECT ||
+                        status == RedirectionPath.SC_PERMANENT_REDIRECT)
                 ) {
 
             Header location = method.getResponseHeader("Location");
@@ -254,6 +428,13 @@ public class OwnCloudClient extends HttpClient {
                 exhaustResponse(method.getResponseBodyAsStream());
                 method.releaseConnection();
 
+                if (RedirectionPath.isPermanentRedirection(status)) {
+                    PermanentRedirects.record(getRedirectsAccount(),
+                                              getBaseUri(),
+                                              method.getURI().toString(),
+                                              locationStr);
+                    method.getParams().setParameter(PermanentRedirects.PARAM_PERMANENT_LOCATION, locationStr);
+                }
                 method.setURI(new URI(locationStr, true));
                 Header destination = method.getRequestHeader("Destination");
                 if (destination == null) {
@@ -438,6 +619,50 @@ public class OwnCloudClient extends HttpClient {
         return nextcloudUriDelegate.getUserId();
     }
 
+    /**
+     * Registers a listener receiving the {@link com.nextcloud.common.CallMetrics} of every method executed by this
+     * client.
+     */
+    public void addNetworkMetricsListener(NetworkMetricsListener listener) {
+        if (!metricsListeners.contains(listener)) {
+            metricsListeners.add(listener);
+        }
+    }
+
+    public void removeNetworkMetricsListener(NetworkMetricsListener listener) {
+        metricsListeners.remove(listener);
+    }
+
+    /**
+     * Sets the policy deciding which failed requests are retried. Defaults to {@link RetryPolicy#getDefault()}.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Enables or disables transparent gzip/deflate compression of the WebDAV listings read by a
+     * {@link com.owncloud.android.lib.common.network.DecompressingMethod}. Enabled by default.
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Sets a listener receiving the compressed and uncompressed size of every decompressed response body.
+     */
+    public void setOnResponseCompressionListener(OnResponseCompressionListener listener) {
+        compressionListener = listener;
+    }
+
     public boolean isFollowRedirects() {
         return this.followRedirects;
     }
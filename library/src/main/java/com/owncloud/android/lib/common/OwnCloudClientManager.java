@@ -27,6 +27,7 @@ import org.apache.commons.httpclient.cookie.CookiePolicy;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -238,6 +239,17 @@ public class OwnCloudClientManager {
         return client;
     }
 
+    /**
+     * Prepares DNS and a pooled connection for the given account, so that its first requests do not pay for name
+     * resolution and connection setup. See {@link NextcloudClient#prewarm()}.
+     *
+     * @return future completing with the HTTP status of the prewarm request
+     */
+    public CompletableFuture<Integer> prewarm(OwnCloudAccount account, Context context)
+            throws OperationCanceledException, AuthenticatorException, IOException {
+        return getNextcloudClientFor(account, context).prewarm();
+    }
+
 
     public OwnCloudClient removeClientFor(OwnCloudAccount account) {
 
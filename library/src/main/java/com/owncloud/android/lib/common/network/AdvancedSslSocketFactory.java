@@ -9,7 +9,6 @@
 
 package com.owncloud.android.lib.common.network;
 
-import com.nextcloud.common.DNSCache;
 import com.owncloud.android.lib.common.utils.Log_OC;
 
 import org.apache.commons.httpclient.ConnectTimeoutException;
@@ -20,13 +19,10 @@ import org.apache.http.conn.ssl.X509HostnameVerifier;
 
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.net.SocketAddress;
 import java.net.UnknownHostException;
 import java.security.cert.X509Certificate;
 
-import javax.net.SocketFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLHandshakeException;
@@ -80,11 +76,7 @@ public class AdvancedSslSocketFactory implements SecureProtocolSocketFactory {
     public Socket createSocket(String host, int port, InetAddress clientHost, int clientPort)
             throws IOException {
 
-        Socket socket = mSslContext.getSocketFactory().createSocket(getInetAddressForHost(host), port, clientHost,
-                clientPort);
-        enableSecureProtocols(socket);
-        verifyPeerIdentity(host, port, socket);
-        return socket;
+        return connectSecure(host, port, clientHost, clientPort, 0, 0);
     }
 
     /*
@@ -153,36 +145,37 @@ public class AdvancedSslSocketFactory implements SecureProtocolSocketFactory {
 
         //logSslInfo();
 
-        SocketFactory socketfactory = mSslContext.getSocketFactory();
         Log_OC.d(TAG, " ... with connection timeout " + timeout + " and socket timeout " + params.getSoTimeout());
-        Socket socket = socketfactory.createSocket();
-        enableSecureProtocols(socket);
-        SocketAddress localaddr = new InetSocketAddress(localAddress, localPort);
-
+        return connectSecure(host, port, localAddress, localPort, timeout, params.getSoTimeout() * 5);
+    }
 
-        SocketAddress remoteaddr = new InetSocketAddress(getInetAddressForHost(host), port);
-        socket.setSoTimeout(params.getSoTimeout() * 5);
-        socket.bind(localaddr);
+    /**
+     * Connects to the host, racing its IPv6 and IPv4 addresses, and establishes TLS over the winning connection.
+     */
+    private Socket connectSecure(String host, int port, InetAddress localAddress, int localPort, int timeout,
+                                 int soTimeout) throws IOException {
+        Socket plainSocket = HappyEyeballsConnector.connect(host, port, localAddress, localPort, timeout);
+        Socket socket;
+        try {
+            socket = mSslContext.getSocketFactory().createSocket(plainSocket, host, port, true);
+        } catch (IOException e) {
+            plainSocket.close();
+            throw e;
+        }
+        enableSecureProtocols(socket);
+        socket.setSoTimeout(soTimeout);
         ServerNameIndicator.setServerNameIndication(host, (SSLSocket) socket);
-        socket.connect(remoteaddr, timeout);
         verifyPeerIdentity(host, port, socket);
         return socket;
     }
 
-    private InetAddress getInetAddressForHost(String host) throws UnknownHostException {
-        return DNSCache.lookup(host).get(0);
-    }
-
     /**
      * @see ProtocolSocketFactory#createSocket(java.lang.String, int)
      */
     @Override
     public Socket createSocket(String host, int port) throws IOException {
         Log_OC.d(TAG, "Creating SSL Socket with remote " + host + ":" + port);
-        Socket socket = mSslContext.getSocketFactory().createSocket(getInetAddressForHost(host), port);
-        enableSecureProtocols(socket);
-        verifyPeerIdentity(host, port, socket);
-        return socket;
+        return connectSecure(host, port, null, 0, 0, 0);
     }
 
 
@@ -0,0 +1,37 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+/**
+ * Checksum algorithms for the `OC-Checksum` header, whose value is one or more space separated `TYPE:checksum`
+ * entries, e.g. `SHA256:9f86d08...`, with the checksum in lowercase hex.
+ *
+ * @property headerName type of the algorithm in the header
+ */
+enum class ChecksumAlgorithm(
+    val headerName: String,
+    internal val digestName: String?
+) {
+    SHA256("SHA256", "SHA-256"),
+    MD5("MD5", "MD5"),
+    ADLER32("Adler32", null);
+
+    /**
+     * @return checksum of this algorithm in the `OC-Checksum` header [header], or null if it has none
+     */
+    fun findIn(header: String?): String? =
+        header
+            ?.split(' ')
+            ?.map { it.split(':', limit = 2) }
+            ?.firstOrNull { it.size == 2 && it[0].equals(headerName, ignoreCase = true) }
+            ?.get(1)
+            ?.lowercase()
+
+    companion object {
+        const val HEADER = "OC-Checksum"
+    }
+}
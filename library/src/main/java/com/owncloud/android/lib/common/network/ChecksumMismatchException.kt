@@ -0,0 +1,17 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import java.io.IOException
+
+/**
+ * The checksum of transferred content differs from the one given by the server.
+ */
+class ChecksumMismatchException(
+    val expected: String,
+    val actual: String
+) : IOException("Expected checksum $expected, got $actual")
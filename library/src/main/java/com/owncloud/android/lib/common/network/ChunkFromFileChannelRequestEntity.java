@@ -11,17 +11,15 @@
  */
 package com.owncloud.android.lib.common.network;
 
+import com.nextcloud.common.BandwidthLimiter;
+
 import org.apache.commons.httpclient.methods.RequestEntity;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 
 /**
@@ -36,7 +34,10 @@ public class ChunkFromFileChannelRequestEntity implements RequestEntity, Progres
     private final File mFile;
     private long mOffset;
     private long mTransferred;
-    private final Set<OnDatatransferProgressListener> mDataTransferListeners = new HashSet<>();
+    private final ProgressDispatcher mProgressDispatcher;
+    private BandwidthLimiter mBandwidthLimiter = BandwidthLimiter.GLOBAL;
+    private FileUploadWriter mUploadWriter = FileUploadWriter.DEFAULT;
+    private StreamingChecksum mChecksum;
 
     public ChunkFromFileChannelRequestEntity(final FileChannel channel, final String contentType, long offset, 
                                              long chunkSize, final File file) {
@@ -53,6 +54,7 @@ public class ChunkFromFileChannelRequestEntity implements RequestEntity, Progres
         mFile = file;
         mOffset = offset;
         mTransferred = offset;
+        mProgressDispatcher = new ProgressDispatcher(file.getAbsolutePath());
     }
     
     public long getContentLength() {
@@ -70,73 +72,55 @@ public class ChunkFromFileChannelRequestEntity implements RequestEntity, Progres
     public boolean isRepeatable() {
         return true;
     }
+
+    /**
+     * Limiter throttling the upload, {@link BandwidthLimiter#GLOBAL} by default.
+     */
+    public void setBandwidthLimiter(BandwidthLimiter bandwidthLimiter) {
+        mBandwidthLimiter = bandwidthLimiter;
+    }
+
+    /**
+     * Writer copying the chunk into the request, {@link FileUploadWriter#DEFAULT} by default.
+     */
+    public void setUploadWriter(FileUploadWriter uploadWriter) {
+        mUploadWriter = uploadWriter;
+    }
+
+    /**
+     * Checksum of the whole file the chunk is hashed into while it is written, none by default.
+     */
+    public void setChecksum(StreamingChecksum checksum) {
+        mChecksum = checksum;
+    }
     
     @Override
     public void addDataTransferProgressListener(OnDatatransferProgressListener listener) {
-        synchronized (mDataTransferListeners) {
-            mDataTransferListeners.add(listener);
-        }
+        mProgressDispatcher.addDataTransferProgressListener(listener);
     }
     
     @Override
     public void addDataTransferProgressListeners(Collection<OnDatatransferProgressListener> listeners) {
-        synchronized (mDataTransferListeners) {
-            mDataTransferListeners.addAll(listeners);
-        }
+        mProgressDispatcher.addDataTransferProgressListeners(listeners);
     }
     
     @Override
     public void removeDataTransferProgressListener(OnDatatransferProgressListener listener) {
-        synchronized (mDataTransferListeners) {
-            mDataTransferListeners.remove(listener);
-        }
+        mProgressDispatcher.removeDataTransferProgressListener(listener);
     }
 
     public void writeRequest(final OutputStream out) throws IOException {
-        mChannel.position(mOffset);
-        long maxCount = Math.min(mOffset + length, mChannel.size());
-        long remaining = maxCount - mOffset;
-
         long rawSize = mFile.length();
         long fileSize = rawSize > 0 ? rawSize : -1;
 
-        byte[] buffer = new byte[4096];
-        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
-
-        while (remaining > 0) {
-            int toRead = (int) Math.min(buffer.length, remaining);
-            int bytesRead;
-
-            byteBuffer.position(0);
-            byteBuffer.limit(toRead);
-
-            try {
-                bytesRead = mChannel.read(byteBuffer);
-            } catch (IOException e) {
-                FileNotFoundException fnf = new FileNotFoundException("Exception reading source file");
-                fnf.initCause(e);
-                throw fnf;
-            }
-
-            if (bytesRead <= 0) {
-                break;
-            }
-
-            out.write(buffer, 0, bytesRead);
-            remaining -= bytesRead;
-
-            if (mTransferred < maxCount) {
-                mTransferred += bytesRead;
-            }
-            notifyTransferProgress(bytesRead, fileSize);
-        }
-    }
-
-    private void notifyTransferProgress(int bytesRead, long fileSize) {
-        synchronized (mDataTransferListeners) {
-            for (OnDatatransferProgressListener listener : mDataTransferListeners) {
-                listener.onTransferProgress(bytesRead, mTransferred, fileSize, mFile.getAbsolutePath());
-            }
+        try {
+            FileUploadWriter.WriteListener listener = (written, totalWritten) -> {
+                mTransferred = mOffset + totalWritten;
+                mProgressDispatcher.onProgress(written, mTransferred, fileSize);
+            };
+            mUploadWriter.write(mChannel, mOffset, length, out, mBandwidthLimiter, mChecksum, listener);
+        } finally {
+            mProgressDispatcher.flush();
         }
     }
 }
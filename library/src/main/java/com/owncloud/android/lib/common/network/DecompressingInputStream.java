@@ -0,0 +1,160 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import org.apache.commons.httpclient.HttpMethod;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streaming decompression of a gzip or deflate encoded response body.
+ * <p>
+ * The decoder is created on first read, so that empty bodies (e.g. HEAD requests or 304 responses) do not fail
+ * while looking for a gzip header. Compressed and uncompressed byte counts are reported once the body is exhausted
+ * or closed.
+ */
+public class DecompressingInputStream extends InputStream {
+
+    public static final String GZIP = "gzip";
+    public static final String X_GZIP = "x-gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CountingInputStream compressed;
+    private final String encoding;
+    private final HttpMethod method;
+    private final OnResponseCompressionListener listener;
+    private InputStream decoder;
+    private long uncompressedBytes = 0;
+    private boolean reported = false;
+
+    public DecompressingInputStream(InputStream compressed,
+                                    String encoding,
+                                    HttpMethod method,
+                                    OnResponseCompressionListener listener) {
+        this.compressed = new CountingInputStream(compressed);
+        this.encoding = encoding;
+        this.method = method;
+        this.listener = listener;
+    }
+
+    /**
+     * @return true if the given Content-Encoding can be decoded by this stream
+     */
+    public static boolean isSupported(String encoding) {
+        if (encoding == null) {
+            return false;
+        }
+        String normalized = encoding.trim().toLowerCase(Locale.ROOT);
+        return GZIP.equals(normalized) || X_GZIP.equals(normalized) || DEFLATE.equals(normalized);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = getDecoder().read(buffer, offset, length);
+        if (read == -1) {
+            report();
+        } else {
+            uncompressedBytes += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return decoder == null ? 0 : decoder.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (decoder != null) {
+                decoder.close();
+            } else {
+                compressed.close();
+            }
+        } finally {
+            report();
+        }
+    }
+
+    private InputStream getDecoder() throws IOException {
+        if (decoder == null) {
+            if (DEFLATE.equals(encoding.trim().toLowerCase(Locale.ROOT))) {
+                decoder = new InflaterInputStream(compressed);
+            } else {
+                try {
+                    decoder = new GZIPInputStream(compressed, BUFFER_SIZE);
+                } catch (EOFException e) {
+                    if (compressed.count > 0) {
+                        throw e;
+                    }
+                    // empty body despite the Content-Encoding header
+                    decoder = new ByteArrayInputStream(new byte[0]);
+                }
+            }
+        }
+        return decoder;
+    }
+
+    private void report() {
+        if (!reported) {
+            reported = true;
+            if (listener != null) {
+                listener.onResponseDecompressed(method, encoding, compressed.count, uncompressedBytes);
+            }
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
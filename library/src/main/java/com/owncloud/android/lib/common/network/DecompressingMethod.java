@@ -0,0 +1,18 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import org.apache.commons.httpclient.HttpMethod;
+
+/**
+ * A method decoding a compressed response body with {@link ResponseCompression#decode} as soon as it is received.
+ * <p>
+ * WebDAV methods parse their multistatus body while they are executed, so the body cannot be decoded once the
+ * execution returns; OwnCloudClient advertises compression for such methods only.
+ */
+public interface DecompressingMethod extends HttpMethod {
+}
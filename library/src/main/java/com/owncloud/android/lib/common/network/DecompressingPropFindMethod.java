@@ -0,0 +1,31 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import org.apache.commons.httpclient.HttpConnection;
+import org.apache.commons.httpclient.HttpException;
+import org.apache.commons.httpclient.HttpState;
+import org.apache.jackrabbit.webdav.client.methods.PropFindMethod;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+
+import java.io.IOException;
+
+/**
+ * PROPFIND whose multistatus body may be compressed by the server.
+ */
+public class DecompressingPropFindMethod extends PropFindMethod implements DecompressingMethod {
+
+    public DecompressingPropFindMethod(String uri, DavPropertyNameSet propNameSet, int depth) throws IOException {
+        super(uri, propNameSet, depth);
+    }
+
+    @Override
+    protected void readResponseBody(HttpState state, HttpConnection conn) throws IOException, HttpException {
+        super.readResponseBody(state, conn);
+        setResponseStream(ResponseCompression.decode(this, getResponseStream()));
+    }
+}
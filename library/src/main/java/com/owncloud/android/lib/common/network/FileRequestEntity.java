@@ -10,19 +10,16 @@
  */
 package com.owncloud.android.lib.common.network;
 
+import com.nextcloud.common.BandwidthLimiter;
+
 import org.apache.commons.httpclient.methods.RequestEntity;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
 
 /**
  * A RequestEntity that represents a File.
@@ -31,7 +28,10 @@ public class FileRequestEntity implements RequestEntity, ProgressiveDataTransfer
 
     private final File file;
     private final String contentType;
-    private final Set<OnDatatransferProgressListener> dataTransferListeners = new HashSet<>();
+    private final ProgressDispatcher progressDispatcher;
+    private BandwidthLimiter bandwidthLimiter = BandwidthLimiter.GLOBAL;
+    private FileUploadWriter uploadWriter = FileUploadWriter.DEFAULT;
+    private StreamingChecksum checksum;
 
     public FileRequestEntity(final File file, final String contentType) {
         super();
@@ -40,6 +40,7 @@ public class FileRequestEntity implements RequestEntity, ProgressiveDataTransfer
         if (file == null) {
             throw new IllegalArgumentException("File may not be null");
         }
+        progressDispatcher = new ProgressDispatcher(file.getAbsolutePath());
     }
     
     @Override
@@ -57,71 +58,54 @@ public class FileRequestEntity implements RequestEntity, ProgressiveDataTransfer
         return true;
     }
 
+    /**
+     * Limiter throttling the upload, {@link BandwidthLimiter#GLOBAL} by default.
+     */
+    public void setBandwidthLimiter(BandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    /**
+     * Writer copying the file into the request, {@link FileUploadWriter#DEFAULT} by default.
+     */
+    public void setUploadWriter(FileUploadWriter uploadWriter) {
+        this.uploadWriter = uploadWriter;
+    }
+
+    /**
+     * Checksum the file is hashed into while it is written, none by default.
+     */
+    public void setChecksum(StreamingChecksum checksum) {
+        this.checksum = checksum;
+    }
+
     @Override
     public void addDataTransferProgressListener(OnDatatransferProgressListener listener) {
-        synchronized (dataTransferListeners) {
-            dataTransferListeners.add(listener);
-        }
+        progressDispatcher.addDataTransferProgressListener(listener);
     }
     
     @Override
     public void addDataTransferProgressListeners(Collection<OnDatatransferProgressListener> listeners) {
-        synchronized (dataTransferListeners) {
-            dataTransferListeners.addAll(listeners);
-        }
+        progressDispatcher.addDataTransferProgressListeners(listeners);
     }
     
     @Override
     public void removeDataTransferProgressListener(OnDatatransferProgressListener listener) {
-        synchronized (dataTransferListeners) {
-            dataTransferListeners.remove(listener);
-        }
+        progressDispatcher.removeDataTransferProgressListener(listener);
     }
     
     
     @Override
     public void writeRequest(final OutputStream out) throws IOException {
-        ByteBuffer tmp = ByteBuffer.allocate(4096);
-        int readResult;
-
         RandomAccessFile raf = new RandomAccessFile(file, "r");
         FileChannel channel = raf.getChannel();
-        Iterator<OnDatatransferProgressListener> it;
-        long transferred = 0;
         long size = file.length();
-        if (size == 0) size = -1;
+        long reportedSize = size == 0 ? -1 : size;
         try {
-            while ((readResult = channel.read(tmp)) >= 0) {
-                try {
-                    out.write(tmp.array(), 0, readResult);
-                } catch (IOException io) {
-                    // work-around try catch to filter exception in writing
-                    throw new WriteException(io);
-                }
-                tmp.clear();
-                transferred += readResult;
-                synchronized (dataTransferListeners) {
-                    it = dataTransferListeners.iterator();
-                    while (it.hasNext()) {
-                        it.next().onTransferProgress(readResult, transferred, size, file.getAbsolutePath());
-                    }
-                }
-            }
-
-        } catch (IOException io) {
-            // any read problem will be handled as if the file is not there
-            if (io instanceof FileNotFoundException) {
-                throw io;
-            } else {
-                FileNotFoundException fnf = new FileNotFoundException("Exception reading source file");
-                fnf.initCause(io);
-                throw fnf;
-            }
-
-        } catch (WriteException we) {
-            throw we.getWrapped();
-
+            uploadWriter.write(channel, 0, size, out, bandwidthLimiter, checksum, (written, transferred) ->
+                    progressDispatcher.onProgress(written, transferred, reportedSize));
         } finally {
+            progressDispatcher.flush();
             try {
                 channel.close();
                 raf.close();
@@ -130,17 +114,4 @@ public class FileRequestEntity implements RequestEntity, ProgressiveDataTransfer
             }
         }
     }
-
-    static class WriteException extends Exception {
-        IOException mWrapped;
-
-        WriteException(IOException wrapped) {
-            mWrapped = wrapped;
-        }
-
-        IOException getWrapped() {
-            return mWrapped;
-        }
-    }
-
 }
@@ -0,0 +1,156 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import com.nextcloud.common.BandwidthLimiter
+import java.io.FileNotFoundException
+import java.io.IOException
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.channels.WritableByteChannel
+
+/**
+ * Copies a region of a file into an upload body. It is used by [FileRequestEntity] and
+ * [ChunkFromFileChannelRequestEntity] for [com.owncloud.android.lib.common.OwnCloudClient], and by
+ * [com.nextcloud.common.FileRequestBody] for [com.nextcloud.common.NextcloudClient].
+ *
+ * Streams are written through a heap buffer of [bufferSize] bytes, channels such as OkHttp sinks through a buffer of
+ * the same size, direct if [directBuffer] is set. Every buffer is throttled by the given [BandwidthLimiter], hashed
+ * into the [StreamingChecksum] if given, and then reported to the [WriteListener].
+ *
+ * The file is read with positional reads, so the position of the source channel is not changed.
+ */
+@Suppress("LongParameterList")
+class FileUploadWriter
+    @JvmOverloads
+    constructor(
+        val bufferSize: Int = DEFAULT_BUFFER_SIZE,
+        val directBuffer: Boolean = false
+    ) {
+        companion object {
+            const val DEFAULT_BUFFER_SIZE = 64 * 1024
+
+            @JvmField
+            val DEFAULT = FileUploadWriter()
+        }
+
+        fun interface WriteListener {
+            /**
+             * @param bytes bytes just written
+             * @param totalWritten bytes written so far by this write
+             */
+            fun onWritten(
+                bytes: Long,
+                totalWritten: Long
+            )
+        }
+
+        init {
+            require(bufferSize > 0) { "bufferSize must be greater than zero" }
+        }
+
+        @Throws(IOException::class)
+        fun write(
+            source: FileChannel,
+            offset: Long,
+            length: Long,
+            out: OutputStream,
+            bandwidthLimiter: BandwidthLimiter,
+            listener: WriteListener
+        ) = write(source, offset, length, out, bandwidthLimiter, null, listener)
+
+        /**
+         * Writes [length] bytes of [source] from [offset] to [out], fewer if the file ends before, hashing them into
+         * [checksum] if given.
+         *
+         * @throws FileNotFoundException if the file cannot be read
+         * @throws IOException if [out] cannot be written
+         */
+        @Throws(IOException::class)
+        fun write(
+            source: FileChannel,
+            offset: Long,
+            length: Long,
+            out: OutputStream,
+            bandwidthLimiter: BandwidthLimiter,
+            checksum: StreamingChecksum?,
+            listener: WriteListener
+        ) {
+            val buffer = ByteBuffer.allocate(bufferSize)
+            var written = 0L
+            while (written < length) {
+                buffer.clear().limit(minOf(bufferSize.toLong(), length - written).toInt())
+                val read = read(source, buffer, offset + written)
+                if (read <= 0) {
+                    break
+                }
+                bandwidthLimiter.acquire(read.toLong())
+                checksum?.update(offset + written, buffer.array(), 0, read)
+                out.write(buffer.array(), 0, read)
+                written += read
+                listener.onWritten(read.toLong(), written)
+            }
+        }
+
+        @Throws(IOException::class)
+        fun write(
+            source: FileChannel,
+            offset: Long,
+            length: Long,
+            target: WritableByteChannel,
+            bandwidthLimiter: BandwidthLimiter,
+            listener: WriteListener
+        ) = write(source, offset, length, target, bandwidthLimiter, null, listener)
+
+        /**
+         * Writes [length] bytes of [source] from [offset] to [target], fewer if the file ends before, hashing them
+         * into [checksum] if given.
+         *
+         * @throws FileNotFoundException if the file cannot be read
+         * @throws IOException if [target] cannot be written
+         */
+        @Throws(IOException::class)
+        fun write(
+            source: FileChannel,
+            offset: Long,
+            length: Long,
+            target: WritableByteChannel,
+            bandwidthLimiter: BandwidthLimiter,
+            checksum: StreamingChecksum?,
+            listener: WriteListener
+        ) {
+            val buffer = if (directBuffer) ByteBuffer.allocateDirect(bufferSize) else ByteBuffer.allocate(bufferSize)
+            var written = 0L
+            while (written < length) {
+                buffer.clear().limit(minOf(bufferSize.toLong(), length - written).toInt())
+                val read = read(source, buffer, offset + written)
+                if (read <= 0) {
+                    break
+                }
+                bandwidthLimiter.acquire(read.toLong())
+                buffer.flip()
+                checksum?.update(offset + written, buffer)
+                while (buffer.hasRemaining()) {
+                    target.write(buffer)
+                }
+                written += read
+                listener.onWritten(read.toLong(), written)
+            }
+        }
+
+        private fun read(
+            source: FileChannel,
+            buffer: ByteBuffer,
+            position: Long
+        ): Int =
+            try {
+                source.read(buffer, position)
+            } catch (e: IOException) {
+                throw FileNotFoundException("Exception reading source file").apply { initCause(e) }
+            }
+    }
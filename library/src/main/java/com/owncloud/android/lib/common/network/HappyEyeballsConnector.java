@@ -0,0 +1,208 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import com.nextcloud.common.DNSCache;
+import com.owncloud.android.lib.common.utils.Log_OC;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens TCP connections by racing the addresses of a host, as described in RFC 8305 ("Happy Eyeballs").
+ * <p>
+ * Addresses are tried alternating IPv6 and IPv4, starting with the family preferred by {@link DNSCache}. A new
+ * attempt starts every {@link #STAGGER_MILLIS}, or as soon as the previous one failed; the first connected socket
+ * wins and all others are closed. If the winning family is not the preferred one, the preference is updated, so
+ * that the next connections to the host try it first.
+ */
+final class HappyEyeballsConnector {
+
+    private static final String TAG = HappyEyeballsConnector.class.getSimpleName();
+
+    static final long STAGGER_MILLIS = 250;
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private final List<InetAddress> addresses;
+    private final Socket[] sockets;
+    private final int port;
+    private final InetAddress localAddress;
+    private final int localPort;
+    private final int timeout;
+    private boolean finished = false;
+
+    private HappyEyeballsConnector(List<InetAddress> addresses,
+                                   int port,
+                                   InetAddress localAddress,
+                                   int localPort,
+                                   int timeout) {
+        this.addresses = addresses;
+        this.sockets = new Socket[addresses.size()];
+        this.port = port;
+        this.localAddress = localAddress;
+        this.localPort = localPort;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param timeout connection timeout of each attempt in milliseconds, 0 for none
+     * @return a connected plain socket
+     */
+    static Socket connect(String host, int port, InetAddress localAddress, int localPort, int timeout)
+            throws IOException {
+        List<InetAddress> resolved = DNSCache.lookup(host);
+        List<InetAddress> addresses = interleave(resolved);
+        HappyEyeballsConnector connector = new HappyEyeballsConnector(addresses, port, localAddress, localPort,
+                                                                      timeout);
+        Socket socket = addresses.size() == 1 ? connector.attempt(0) : connector.race();
+
+        InetAddress winner = socket.getInetAddress();
+        boolean winnerIsIPv4 = winner instanceof Inet4Address;
+        if (winnerIsIPv4 != (resolved.get(0) instanceof Inet4Address)) {
+            Log_OC.d(TAG, "Connected to " + host + " over " + (winnerIsIPv4 ? "IPv4" : "IPv6") + ", preferring it");
+            DNSCache.setIPVersionPreference(host, winnerIsIPv4);
+        }
+        return socket;
+    }
+
+    /**
+     * Reorders addresses so that families alternate, keeping the first family and the order within each family.
+     */
+    static List<InetAddress> interleave(List<InetAddress> addresses) {
+        boolean firstIsIPv4 = addresses.get(0) instanceof Inet4Address;
+        List<InetAddress> first = new ArrayList<>();
+        List<InetAddress> second = new ArrayList<>();
+        for (InetAddress address : addresses) {
+            if ((address instanceof Inet4Address) == firstIsIPv4) {
+                first.add(address);
+            } else {
+                second.add(address);
+            }
+        }
+
+        List<InetAddress> result = new ArrayList<>(addresses.size());
+        for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+            if (i < first.size()) {
+                result.add(first.get(i));
+            }
+            if (i < second.size()) {
+                result.add(second.get(i));
+            }
+        }
+        return result;
+    }
+
+    private Socket race() throws IOException {
+        CompletionService<Socket> attempts = new ExecutorCompletionService<>(EXECUTOR);
+        int started = 0;
+        int failed = 0;
+        IOException lastFailure = null;
+
+        try {
+            attempts.submit(attemptTask(started++));
+            while (failed < addresses.size()) {
+                Future<Socket> done = started < addresses.size()
+                    ? attempts.poll(STAGGER_MILLIS, TimeUnit.MILLISECONDS)
+                    : attempts.take();
+                if (done != null) {
+                    try {
+                        Socket socket = done.get();
+                        finish(socket);
+                        return socket;
+                    } catch (ExecutionException e) {
+                        failed++;
+                        lastFailure = asIOException(e.getCause());
+                    }
+                }
+                if (started < addresses.size()) {
+                    attempts.submit(attemptTask(started++));
+                }
+            }
+        } catch (InterruptedException e) {
+            finish(null);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while connecting");
+        }
+        throw lastFailure;
+    }
+
+    private Callable<Socket> attemptTask(int index) {
+        return () -> attempt(index);
+    }
+
+    private Socket attempt(int index) throws IOException {
+        Socket socket = new Socket();
+        synchronized (lock) {
+            if (finished) {
+                socket.close();
+                throw new SocketException("Connection race already finished");
+            }
+            sockets[index] = socket;
+        }
+
+        try {
+            if (localAddress != null || localPort != 0) {
+                socket.bind(new InetSocketAddress(localAddress, localPort));
+            }
+            socket.connect(new InetSocketAddress(addresses.get(index), port), timeout);
+            return socket;
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    /**
+     * Ends the race, closing all sockets but the winner.
+     */
+    private void finish(Socket winner) {
+        synchronized (lock) {
+            finished = true;
+            for (Socket socket : sockets) {
+                if (socket != null && socket != winner) {
+                    closeQuietly(socket);
+                }
+            }
+        }
+    }
+
+    private static IOException asIOException(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException(cause);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // irrelevant for the caller
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import com.nextcloud.common.CallMetrics;
+import com.nextcloud.common.EndpointFamily;
+import com.nextcloud.common.NetworkMetrics;
+import com.nextcloud.common.NetworkMetricsListener;
+import com.nextcloud.common.OkHttpMethodBase;
+
+import org.apache.commons.httpclient.EntityEnclosingMethod;
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.URIException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the {@link CallMetrics} of a method executed by an OwnCloudClient.
+ * <p>
+ * commons-httpclient does not expose DNS resolution, connection and TLS handshake; these phases are reported as
+ * {@link CallMetrics#NOT_MEASURED} and included in the time to first byte. The metrics are reported once the
+ * connection is released, i.e. when the operation has consumed or discarded the response body; the body size is
+ * taken from its Content-Length, so a chunked body is not counted.
+ */
+public class HttpMethodMetrics {
+
+    private static final String PARAM_METRICS_ACTIVE = "nc.metrics.active";
+    private static final int HEADER_SEPARATORS_LENGTH = 4;
+    private static final String CONTENT_LENGTH_HEADER = "Content-Length";
+
+    private final HttpMethod method;
+    private final List<NetworkMetricsListener> listeners;
+    private final String operation;
+    private final long start;
+    private long headersReceived;
+    private int status = OkHttpMethodBase.UNKNOWN_STATUS_CODE;
+    private long responseHeadersBytes;
+    private Boolean connectionReused;
+    private boolean leased = false;
+    private boolean released = false;
+    private boolean reported = false;
+
+    private final ManagedHttpConnectionManager.LeaseListener leaseListener =
+        new ManagedHttpConnectionManager.LeaseListener() {
+            @Override
+            public void onLeased() {
+                onConnectionLeased();
+            }
+
+            @Override
+            public void onReleased() {
+                onConnectionReleased();
+            }
+        };
+
+    private HttpMethodMetrics(HttpMethod method, List<NetworkMetricsListener> listeners) {
+        this.method = method;
+        this.listeners = listeners;
+        this.operation = NetworkMetrics.getCurrentOperation();
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Starts collecting the metrics of a method about to be executed.
+     *
+     * @return null if nobody listens, or if the method is already metered by an outer execution
+     */
+    public static HttpMethodMetrics start(HttpMethod method, Collection<NetworkMetricsListener> clientListeners) {
+        List<NetworkMetricsListener> listeners = NetworkMetrics.listenersFor(clientListeners);
+        if (listeners.isEmpty() || method.getParams().getBooleanParameter(PARAM_METRICS_ACTIVE, false)) {
+            return null;
+        }
+
+        method.getParams().setBooleanParameter(PARAM_METRICS_ACTIVE, true);
+        ManagedHttpConnectionManager.clearLastLeaseReused();
+        HttpMethodMetrics metrics = new HttpMethodMetrics(method, listeners);
+        ManagedHttpConnectionManager.setLeaseListener(metrics.leaseListener);
+        return metrics;
+    }
+
+    /**
+     * To be called once the response headers are received; the metrics are reported when the body is consumed, or
+     * right away if the connection was already released or is not pooled by a {@link ManagedHttpConnectionManager}.
+     */
+    public synchronized void onResponse(int status) {
+        connectionReused = ManagedHttpConnectionManager.getLastLeaseReused();
+        this.status = status;
+        headersReceived = System.nanoTime();
+        responseHeadersBytes = headersLength(method.getResponseHeaders());
+
+        if (!leased || released) {
+            report(getResponseBodyLength(), null);
+        }
+    }
+
+    public void onFailure(IOException failure) {
+        connectionReused = ManagedHttpConnectionManager.getLastLeaseReused();
+        report(0, failure);
+    }
+
+    /**
+     * To be called once the execution of the method is over, whatever its outcome, so that the method may be metered
+     * again when executed anew.
+     */
+    public void onExecuted() {
+        method.getParams().setBooleanParameter(PARAM_METRICS_ACTIVE, false);
+        ManagedHttpConnectionManager.clearLeaseListener();
+    }
+
+    /**
+     * Every attempt to execute the method leases a connection, so only the release of the last one counts.
+     */
+    private synchronized void onConnectionLeased() {
+        leased = true;
+        released = false;
+    }
+
+    private synchronized void onConnectionReleased() {
+        released = true;
+        if (headersReceived > 0) {
+            report(getResponseBodyLength(), null);
+        }
+    }
+
+    private synchronized void report(long bodyBytes, IOException failure) {
+        if (reported) {
+            return;
+        }
+        reported = true;
+
+        long end = System.nanoTime();
+        String url = getUrl();
+        boolean hasResponse = failure == null && headersReceived > 0;
+        long timeToFirstByte = hasResponse ? toMillis(headersReceived - start) : CallMetrics.NOT_MEASURED;
+        long transfer = hasResponse ? toMillis(end - headersReceived) : CallMetrics.NOT_MEASURED;
+        CallMetrics metrics = new CallMetrics(method.getName(),
+                                              url,
+                                              EndpointFamily.of(method.getName(), url),
+                                              operation,
+                                              failure == null ? status : OkHttpMethodBase.UNKNOWN_STATUS_CODE,
+                                              CallMetrics.NOT_MEASURED,
+                                              CallMetrics.NOT_MEASURED,
+                                              CallMetrics.NOT_MEASURED,
+                                              timeToFirstByte,
+                                              transfer,
+                                              toMillis(end - start),
+                                              getBytesSent(),
+                                              responseHeadersBytes + bodyBytes,
+                                              connectionReused,
+                                              failure);
+        NetworkMetrics.dispatch(listeners, metrics);
+    }
+
+    private String getUrl() {
+        try {
+            return method.getURI().toString();
+        } catch (URIException e) {
+            return method.getPath();
+        }
+    }
+
+    private long getBytesSent() {
+        long bytes = headersLength(method.getRequestHeaders());
+        if (method instanceof EntityEnclosingMethod) {
+            EntityEnclosingMethod entityMethod = (EntityEnclosingMethod) method;
+            if (entityMethod.getRequestEntity() != null && entityMethod.getRequestEntity().getContentLength() > 0) {
+                bytes += entityMethod.getRequestEntity().getContentLength();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return length of the response body as sent, before any decompression; 0 if unknown
+     */
+    private long getResponseBodyLength() {
+        Header contentLength = method.getResponseHeader(CONTENT_LENGTH_HEADER);
+        if (contentLength != null) {
+            try {
+                return Math.max(0, Long.parseLong(contentLength.getValue().trim()));
+            } catch (NumberFormatException e) {
+                // unknown length
+            }
+        }
+        return 0;
+    }
+
+    private static long headersLength(Header[] headers) {
+        long length = 0;
+        if (headers != null) {
+            for (Header header : headers) {
+                length += header.getName().length() + header.getValue().length() + HEADER_SEPARATORS_LENGTH;
+            }
+        }
+        return length;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
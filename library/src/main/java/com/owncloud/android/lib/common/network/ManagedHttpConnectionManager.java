@@ -0,0 +1,294 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import com.owncloud.android.lib.common.utils.Log_OC;
+
+import org.apache.commons.httpclient.ConnectionPoolTimeoutException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.apache.commons.httpclient.HttpConnection;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionParams;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection manager shared by all OwnCloudClients.
+ * <p>
+ * On top of {@link MultiThreadedHttpConnectionManager} it validates pooled connections before reusing them,
+ * periodically closes connections idle for too long, and keeps track of leased and pending connections.
+ * <p>
+ * Connection and socket timeouts can be set per request with {@link #setRequestTimeouts(int, int)}; they are
+ * applied to the connection leased by the calling thread only, so concurrent requests do not interfere. In the
+ * same way a {@link LeaseListener} learns when the connection leased by the calling thread is released, i.e. once
+ * the response body was consumed or discarded.
+ */
+public class ManagedHttpConnectionManager extends MultiThreadedHttpConnectionManager {
+
+    private static final String TAG = ManagedHttpConnectionManager.class.getSimpleName();
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 64;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30 * 1000;
+    public static final long DEFAULT_REAPER_INTERVAL_MILLIS = 15 * 1000;
+
+    private static final ThreadLocal<int[]> requestTimeouts = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> lastLeaseReused = new ThreadLocal<>();
+    private static final ThreadLocal<LeaseListener> leaseListener = new ThreadLocal<>();
+
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<String, AtomicInteger> leasedPerHost = new ConcurrentHashMap<>();
+    private final Map<HttpConnectionParams, LeaseListener> releaseListeners =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+    private final ScheduledExecutorService reaper;
+    private ScheduledFuture<?> reaperTask;
+    private volatile long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+    public ManagedHttpConnectionManager(int maxConnections) {
+        super();
+        getParams().setDefaultMaxConnectionsPerHost(maxConnections);
+        getParams().setMaxTotalConnections(maxConnections);
+        getParams().setStaleCheckingEnabled(true);
+
+        reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HttpConnectionReaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleReaper(DEFAULT_REAPER_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Changes how long a pooled connection may stay unused, and how often idle connections are looked for.
+     */
+    public synchronized void setIdleEviction(long idleTimeoutMillis, long intervalMillis) {
+        if (idleTimeoutMillis <= 0 || intervalMillis <= 0) {
+            throw new IllegalArgumentException("Idle timeout and interval must be positive");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        scheduleReaper(intervalMillis);
+    }
+
+    /**
+     * Closes idle connections and drops closed ones from the pool, e.g. after a network change.
+     */
+    public void evictIdleConnections() {
+        closeIdleConnections(0);
+        deleteClosedConnections();
+    }
+
+    /**
+     * Sets the timeouts for connections leased by the current thread until {@link #clearRequestTimeouts()}.
+     *
+     * @param connectionTimeout timeout in milliseconds to establish a connection; < 0 to keep the default
+     * @param soTimeout         timeout in milliseconds waiting for data, including the TLS handshake; < 0 to keep
+     *                          the default
+     */
+    public static void setRequestTimeouts(int connectionTimeout, int soTimeout) {
+        requestTimeouts.set(new int[]{connectionTimeout, soTimeout});
+    }
+
+    public static void clearRequestTimeouts() {
+        requestTimeouts.remove();
+    }
+
+    /**
+     * @return whether the last connection leased by the current thread was already open, or null if no connection
+     * was leased since {@link #clearLastLeaseReused()}
+     */
+    public static Boolean getLastLeaseReused() {
+        return lastLeaseReused.get();
+    }
+
+    public static void clearLastLeaseReused() {
+        lastLeaseReused.remove();
+    }
+
+    /**
+     * Sets the listener of the connections leased by the current thread until {@link #clearLeaseListener()}.
+     */
+    public static void setLeaseListener(LeaseListener listener) {
+        leaseListener.set(listener);
+    }
+
+    public static void clearLeaseListener() {
+        leaseListener.remove();
+    }
+
+    @Override
+    public HttpConnection getConnectionWithTimeout(HostConfiguration hostConfiguration, long timeout)
+        throws ConnectionPoolTimeoutException {
+        pending.incrementAndGet();
+        HttpConnection connection;
+        try {
+            connection = super.getConnectionWithTimeout(hostConfiguration, timeout);
+        } finally {
+            pending.decrementAndGet();
+        }
+
+        applyRequestTimeouts(connection);
+        lastLeaseReused.set(connection.isOpen());
+        leased.incrementAndGet();
+        hostCounter(hostConfiguration.getHost()).incrementAndGet();
+
+        LeaseListener listener = leaseListener.get();
+        if (listener != null) {
+            releaseListeners.put(connection.getParams(), listener);
+            listener.onLeased();
+        }
+        return connection;
+    }
+
+    /**
+     * Pooled connections keep their parameters, so defaults are restored when no timeouts are requested. The socket
+     * timeout is set before a new connection is opened, so it applies to the TLS handshake too.
+     */
+    private void applyRequestTimeouts(HttpConnection connection) {
+        int[] timeouts = requestTimeouts.get();
+        int connectionTimeout = timeouts != null && timeouts[0] >= 0 ? timeouts[0] : getParams().getConnectionTimeout();
+        int soTimeout = timeouts != null && timeouts[1] >= 0 ? timeouts[1] : getParams().getSoTimeout();
+
+        HttpConnectionParams params = connection.getParams();
+        params.setConnectionTimeout(connectionTimeout);
+        params.setSoTimeout(soTimeout);
+    }
+
+    /**
+     * The connection handed out by {@link #getConnectionWithTimeout} wraps the pooled one released here; both share
+     * their parameters, which therefore identify the lease.
+     */
+    @Override
+    public void releaseConnection(HttpConnection connection) {
+        LeaseListener listener = releaseListeners.remove(connection.getParams());
+        super.releaseConnection(connection);
+
+        leased.decrementAndGet();
+        hostCounter(connection.getHost()).decrementAndGet();
+        if (listener != null) {
+            listener.onReleased();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (reaperTask != null) {
+                reaperTask.cancel(false);
+            }
+        }
+        reaper.shutdownNow();
+        super.shutdown();
+    }
+
+    public Stats getStats() {
+        int leasedNow = leased.get();
+        Map<String, Integer> perHost = new HashMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : leasedPerHost.entrySet()) {
+            int count = entry.getValue().get();
+            if (count > 0) {
+                perHost.put(entry.getKey(), count);
+            }
+        }
+        return new Stats(leasedNow,
+                         Math.max(0, getConnectionsInPool() - leasedNow),
+                         pending.get(),
+                         getParams().getMaxTotalConnections(),
+                         Collections.unmodifiableMap(perHost));
+    }
+
+    private synchronized void scheduleReaper(long intervalMillis) {
+        if (reaperTask != null) {
+            reaperTask.cancel(false);
+        }
+        reaperTask = reaper.scheduleWithFixedDelay(this::reap, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reap() {
+        try {
+            closeIdleConnections(idleTimeoutMillis);
+            deleteClosedConnections();
+        } catch (RuntimeException e) {
+            Log_OC.e(TAG, "Failed to evict idle connections", e);
+        }
+    }
+
+    private AtomicInteger hostCounter(String host) {
+        String key = host == null ? "" : host;
+        AtomicInteger counter = leasedPerHost.get(key);
+        if (counter == null) {
+            leasedPerHost.putIfAbsent(key, new AtomicInteger());
+            counter = leasedPerHost.get(key);
+        }
+        return counter;
+    }
+
+    /**
+     * Notified of the connections leased by a thread, see {@link #setLeaseListener(LeaseListener)}.
+     */
+    public interface LeaseListener {
+        void onLeased();
+
+        /**
+         * Called on the thread releasing the connection, which may differ from the one that leased it.
+         */
+        void onReleased();
+    }
+
+    /**
+     * Snapshot of the pool usage.
+     */
+    public static final class Stats {
+        private final int leased;
+        private final int idle;
+        private final int pending;
+        private final int maxTotal;
+        private final Map<String, Integer> leasedPerHost;
+
+        Stats(int leased, int idle, int pending, int maxTotal, Map<String, Integer> leasedPerHost) {
+            this.leased = leased;
+            this.idle = idle;
+            this.pending = pending;
+            this.maxTotal = maxTotal;
+            this.leasedPerHost = leasedPerHost;
+        }
+
+        public int getLeased() {
+            return leased;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public Map<String, Integer> getLeasedPerHost() {
+            return leasedPerHost;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{leased=" + leased + ", idle=" + idle + ", pending=" + pending + ", maxTotal=" + maxTotal +
+                ", leasedPerHost=" + leasedPerHost + "}";
+        }
+    }
+}
@@ -15,7 +15,6 @@ import android.content.Context;
 
 import com.owncloud.android.lib.common.utils.Log_OC;
 
-import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.protocol.Protocol;
 import org.apache.http.conn.ssl.BrowserCompatHostnameVerifier;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
@@ -55,7 +54,7 @@ public class NetworkUtils {
     /**
      * Connection manager for all the OwnCloudClients
      */
-    private static MultiThreadedHttpConnectionManager mConnManager = null;
+    private static ManagedHttpConnectionManager mConnManager = null;
 
     private static Protocol mDefaultHttpsProtocol = null;
 
@@ -187,15 +186,20 @@ public class NetworkUtils {
     }
     
     
-    static public MultiThreadedHttpConnectionManager getMultiThreadedConnManager() {
+    static public synchronized ManagedHttpConnectionManager getMultiThreadedConnManager() {
         if (mConnManager == null) {
-            mConnManager = new MultiThreadedHttpConnectionManager();
-            mConnManager.getParams().setDefaultMaxConnectionsPerHost(64);
-            mConnManager.getParams().setMaxTotalConnections(64);
+            mConnManager = new ManagedHttpConnectionManager(ManagedHttpConnectionManager.DEFAULT_MAX_CONNECTIONS);
         }
         return mConnManager;
     }
 
+    /**
+     * @return usage of the connection pool shared by all OwnCloudClients
+     */
+    public static ManagedHttpConnectionManager.Stats getConnectionPoolStats() {
+        return getMultiThreadedConnManager().getStats();
+    }
+
     public static boolean isCertInKnownServersStore(Certificate cert, Context context) 
     		throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException {
     	
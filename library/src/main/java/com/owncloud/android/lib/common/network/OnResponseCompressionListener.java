@@ -0,0 +1,19 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import org.apache.commons.httpclient.HttpMethod;
+
+/**
+ * Notified once the compressed response body of a method has been read completely, or closed.
+ */
+public interface OnResponseCompressionListener {
+    void onResponseDecompressed(HttpMethod method,
+                                String contentEncoding,
+                                long compressedBytes,
+                                long uncompressedBytes);
+}
@@ -0,0 +1,159 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Delivers the progress of one transfer to its [OnDatatransferProgressListener]s, coalescing the progress of many
+ * buffers into few events.
+ *
+ * The transfer thread reports every buffer with [onProgress]. An event is delivered at most once per
+ * [minIntervalMillis], and only once at least [minBytes] were transferred since the previous one. Its progress rate
+ * is the number of bytes since the previous event. Events are delivered on [executor], by default a single thread
+ * shared by all dispatchers, so slow listeners do not stall the transfer; [onProgress] takes no lock.
+ *
+ * [flush] delivers what is left at the end of the transfer on the calling thread, after any delivery in progress,
+ * so that no event arrives once the transfer returned. Deliveries still queued then find nothing left to deliver.
+ */
+class ProgressDispatcher
+    @JvmOverloads
+    constructor(
+        private val fileAbsoluteName: String,
+        private val minIntervalMillis: Long = defaultMinIntervalMillis,
+        private val minBytes: Long = defaultMinBytes,
+        private val executor: Executor = DEFAULT_EXECUTOR,
+        private val nanoClock: () -> Long = System::nanoTime
+    ) : ProgressiveDataTransfer {
+        companion object {
+            const val DEFAULT_MIN_INTERVAL_MILLIS = 250L
+            const val DEFAULT_MIN_BYTES = 64L * 1024
+
+            /**
+             * Interval used by dispatchers created without one.
+             */
+            @Volatile
+            @JvmStatic
+            var defaultMinIntervalMillis = DEFAULT_MIN_INTERVAL_MILLIS
+
+            /**
+             * Byte delta used by dispatchers created without one.
+             */
+            @Volatile
+            @JvmStatic
+            var defaultMinBytes = DEFAULT_MIN_BYTES
+
+            private const val NO_RESUME = -1L
+
+            private val DEFAULT_EXECUTOR: Executor =
+                Executors.newSingleThreadExecutor { runnable ->
+                    Thread(runnable, "ProgressDispatcher").apply { isDaemon = true }
+                }
+        }
+
+        private val listeners = CopyOnWriteArraySet<OnDatatransferProgressListener>()
+        private val pendingBytes = AtomicLong()
+        private val lastDelivery = AtomicLong(nanoClock())
+        private val pendingResumedBytes = AtomicLong(NO_RESUME)
+        private val scheduled = AtomicBoolean(false)
+        private val deliveryLock = Any()
+        private val minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis)
+
+        @Volatile
+        private var totalTransferred = 0L
+
+        @Volatile
+        private var totalToTransfer = -1L
+
+        /**
+         * Reports [bytes] just transferred, called by the transfer thread.
+         */
+        fun onProgress(
+            bytes: Long,
+            totalTransferred: Long,
+            totalToTransfer: Long
+        ) {
+            this.totalTransferred = totalTransferred
+            this.totalToTransfer = totalToTransfer
+            val pending = pendingBytes.addAndGet(bytes)
+            val now = nanoClock()
+            if (pending >= minBytes && now - lastDelivery.get() >= minIntervalNanos) {
+                schedule(now)
+            }
+        }
+
+        /**
+         * Reports that the transfer continues after [resumedBytes] transferred earlier, delivered right away as an
+         * event with a progress rate of 0, so that listeners can tell them from the bytes transferred now.
+         */
+        fun onResumed(
+            resumedBytes: Long,
+            totalToTransfer: Long
+        ) {
+            totalTransferred = resumedBytes
+            this.totalToTransfer = totalToTransfer
+            pendingResumedBytes.set(resumedBytes)
+            enqueue()
+        }
+
+        /**
+         * Delivers the progress not delivered yet on the calling thread, called when the transfer ends.
+         */
+        fun flush() {
+            synchronized(deliveryLock) {
+                deliverPending()
+            }
+        }
+
+        private fun schedule(now: Long) {
+            lastDelivery.set(now)
+            enqueue()
+        }
+
+        private fun enqueue() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(::deliver)
+            }
+        }
+
+        private fun deliver() {
+            scheduled.set(false)
+            synchronized(deliveryLock) {
+                deliverPending()
+            }
+        }
+
+        private fun deliverPending() {
+            val resumed = pendingResumedBytes.getAndSet(NO_RESUME)
+            if (resumed != NO_RESUME) {
+                listeners.forEach { it.onTransferProgress(0, resumed, totalToTransfer, fileAbsoluteName) }
+            }
+            val bytes = pendingBytes.getAndSet(0)
+            if (bytes > 0) {
+                val transferred = totalTransferred
+                val total = totalToTransfer
+                listeners.forEach { it.onTransferProgress(bytes, transferred, total, fileAbsoluteName) }
+            }
+        }
+
+        override fun addDataTransferProgressListener(listener: OnDatatransferProgressListener) {
+            listeners.add(listener)
+        }
+
+        override fun addDataTransferProgressListeners(listeners: Collection<OnDatatransferProgressListener>) {
+            this.listeners.addAll(listeners)
+        }
+
+        override fun removeDataTransferProgressListener(listener: OnDatatransferProgressListener) {
+            listeners.remove(listener)
+        }
+    }
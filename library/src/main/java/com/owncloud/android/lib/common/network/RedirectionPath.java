@@ -26,6 +26,8 @@ import java.util.Arrays;
  */
 public class RedirectionPath {
 
+    public static final int SC_PERMANENT_REDIRECT = 308;
+
     private int[] mStatuses = null;
 
     private int mLastStatus = -1;
@@ -84,17 +86,24 @@ public class RedirectionPath {
     }
 
     /**
-     * @return      Last location followed corresponding to a permanent redirection (status code 301).
+     * @return      Last location followed corresponding to a permanent redirection (status code 301 or 308).
      */
     public String getLastPermanentLocation() {
         for (int i = mLastStatus; i >= 0; i--) {
-            if (mStatuses[i] == HttpStatus.SC_MOVED_PERMANENTLY && i <= mLastLocation) {
+            if (isPermanentRedirection(mStatuses[i]) && i <= mLastLocation) {
                 return mLocations[i];
             }
         }
         return null;
     }
 
+    /**
+     * @return      'true' if the status code is a permanent redirection (301 or 308).
+     */
+    public static boolean isPermanentRedirection(int status) {
+        return status == HttpStatus.SC_MOVED_PERMANENTLY || status == SC_PERMANENT_REDIRECT;
+    }
+
     /**
      * @return      Count of locations.
      */
@@ -0,0 +1,71 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.params.HttpMethodParams;
+
+import java.io.InputStream;
+
+/**
+ * Negotiates gzip and deflate for the methods able to decode their response body, see {@link DecompressingMethod}.
+ */
+public final class ResponseCompression {
+
+    public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    public static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
+    private static final String ACCEPT_ENCODING_VALUE =
+        DecompressingInputStream.GZIP + ", " + DecompressingInputStream.DEFLATE;
+    private static final String PARAM_NEGOTIATED = "nc.compression.negotiated";
+    private static final String PARAM_LISTENER = "nc.compression.listener";
+
+    private ResponseCompression() {
+        // utility class
+    }
+
+    /**
+     * Advertises gzip and deflate if the method decodes its response body and sets no Accept-Encoding of its own.
+     *
+     * @param listener notified of the compressed and uncompressed size of the body, may be null
+     * @return true if compression was advertised
+     */
+    public static boolean negotiate(HttpMethod method, OnResponseCompressionListener listener) {
+        if (!(method instanceof DecompressingMethod) || method.getRequestHeader(ACCEPT_ENCODING_HEADER) != null) {
+            return false;
+        }
+
+        method.setRequestHeader(ACCEPT_ENCODING_HEADER, ACCEPT_ENCODING_VALUE);
+        HttpMethodParams params = method.getParams();
+        params.setBooleanParameter(PARAM_NEGOTIATED, true);
+        params.setParameter(PARAM_LISTENER, listener);
+        return true;
+    }
+
+    /**
+     * To be called by a {@link DecompressingMethod} once it received the response body, before parsing it.
+     *
+     * @return a decompressing stream if compression was negotiated and the server made use of it, else the body
+     */
+    public static InputStream decode(HttpMethod method, InputStream body) {
+        Header contentEncoding = method.getResponseHeader(CONTENT_ENCODING_HEADER);
+        HttpMethodParams params = method.getParams();
+        if (body == null ||
+            body instanceof DecompressingInputStream ||
+            contentEncoding == null ||
+            !params.getBooleanParameter(PARAM_NEGOTIATED, false) ||
+            !DecompressingInputStream.isSupported(contentEncoding.getValue())) {
+            return body;
+        }
+
+        return new DecompressingInputStream(body,
+                                            contentEncoding.getValue(),
+                                            method,
+                                            (OnResponseCompressionListener) params.getParameter(PARAM_LISTENER));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+import java.util.zip.Adler32
+
+/**
+ * Checksum of a file computed from the bytes of its transfer as they flow, so that the file is not read again.
+ *
+ * Bytes are given with their position in the file. Bytes hashed already, e.g. sent again by a retried request, are
+ * skipped. Bytes after a gap, e.g. because the start of the file was transferred by an earlier upload, leave the
+ * checksum incomplete, and [getValue] returns null. Updates are synchronized, so concurrent transfers of parts of the
+ * same file may share a checksum, though it is complete only if the parts were written in order.
+ */
+class StreamingChecksum(
+    val algorithm: ChecksumAlgorithm
+) {
+    private val digest = algorithm.digestName?.let { MessageDigest.getInstance(it) }
+    private val adler32 = if (digest == null) Adler32() else null
+    private var gap = false
+    private var value: String? = null
+
+    /**
+     * Bytes hashed from the start of the file.
+     */
+    @get:Synchronized
+    var hashedBytes = 0L
+        private set
+
+    @Synchronized
+    fun update(
+        position: Long,
+        buffer: ByteArray,
+        offset: Int,
+        length: Int
+    ) {
+        val skip = skip(position, length)
+        if (skip < length) {
+            digest?.update(buffer, offset + skip, length - skip)
+            adler32?.update(buffer, offset + skip, length - skip)
+            hashedBytes += length - skip
+        }
+    }
+
+    /**
+     * Hashes the remaining bytes of [buffer], without changing its position.
+     */
+    @Synchronized
+    fun update(
+        position: Long,
+        buffer: ByteBuffer
+    ) {
+        val length = buffer.remaining()
+        val skip = skip(position, length)
+        if (skip < length) {
+            val slice = buffer.duplicate()
+            slice.position(slice.position() + skip)
+            digest?.update(slice)
+            adler32?.update(slice)
+            hashedBytes += length - skip
+        }
+    }
+
+    /**
+     * @return bytes to skip, all of them after a gap
+     */
+    private fun skip(
+        position: Long,
+        length: Int
+    ): Int {
+        if (position > hashedBytes) {
+            gap = true
+        }
+        if (gap) {
+            return length
+        }
+        val skip = minOf(hashedBytes - position, length.toLong()).toInt()
+        check(skip == length || value == null) { "Checksum already computed" }
+        return skip
+    }
+
+    /**
+     * @return checksum in lowercase hex, or null unless exactly the first [size] bytes of the file were hashed
+     */
+    @Synchronized
+    fun getValue(size: Long): String? {
+        if (gap || hashedBytes != size) {
+            return null
+        }
+        return value ?: toHex().also { value = it }
+    }
+
+    /**
+     * @return value of the `OC-Checksum` header, or null unless exactly the first [size] bytes were hashed
+     */
+    fun getHeaderValue(size: Long): String? = getValue(size)?.let { algorithm.headerName + ":" + it }
+
+    private fun toHex(): String =
+        digest?.digest()?.joinToString("") { "%02x".format(it) } ?: "%08x".format(adler32?.value ?: 0L)
+}
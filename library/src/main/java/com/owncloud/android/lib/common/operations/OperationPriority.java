@@ -0,0 +1,27 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.operations;
+
+/**
+ * Priority classes of the {@link RemoteOperationScheduler}, from most to least urgent.
+ */
+public enum OperationPriority {
+    /**
+     * Operations a user is actively waiting for, e.g. opening a folder.
+     */
+    INTERACTIVE,
+
+    /**
+     * Background metadata work, e.g. synchronization of folders, shares or capabilities.
+     */
+    METADATA,
+
+    /**
+     * Uploads and downloads of file contents.
+     */
+    BULK_TRANSFER
+}
@@ -15,11 +15,15 @@ import android.accounts.AccountManager;
 import android.accounts.AccountsException;
 import android.app.Activity;
 import android.content.Context;
+import android.net.Uri;
 import android.os.Handler;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.gson.Gson;
+import com.nextcloud.common.CallTracker;
+import com.nextcloud.common.NetworkMetrics;
 import com.nextcloud.common.NextcloudClient;
 import com.nextcloud.common.User;
 import com.owncloud.android.lib.common.OwnCloudAccount;
@@ -32,6 +36,8 @@ import com.owncloud.android.lib.common.operations.RemoteOperationResult.ResultCo
 import com.owncloud.android.lib.common.utils.Log_OC;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * Operation which execution involves one or several interactions with an ownCloud server.
@@ -99,6 +105,27 @@ public abstract class RemoteOperation<T> implements Runnable {
     }
 	
 
+    /**
+     * Runs the operation, attributing the network calls it issues to it in the {@link NetworkMetrics}.
+     */
+    private RemoteOperationResult<T> runAttributed(OwnCloudClient client) {
+        String previousOperation = NetworkMetrics.enterOperation(getClass().getName());
+        try {
+            return run(client);
+        } finally {
+            NetworkMetrics.exitOperation(previousOperation);
+        }
+    }
+
+    private RemoteOperationResult<T> runAttributed(NextcloudClient client) {
+        String previousOperation = NetworkMetrics.enterOperation(getClass().getName());
+        try {
+            return run(client);
+        } finally {
+            NetworkMetrics.exitOperation(previousOperation);
+        }
+    }
+
     /**
      * Synchronously executes the remote operation on the received ownCloud account.
      * 
@@ -129,7 +156,7 @@ public abstract class RemoteOperation<T> implements Runnable {
             Log_OC.e(TAG, "Error while trying to access to " + mAccount.name, e);
             return new RemoteOperationResult<T>(e);
         }
-        return run(mClient);
+        return runAttributed(mClient);
     }
 
     /**
@@ -164,7 +191,7 @@ public abstract class RemoteOperation<T> implements Runnable {
             Log_OC.e(TAG, "Error while trying to access to " + mAccount.name, e);
             return new RemoteOperationResult<T>(e);
         }
-        return run(clientNew);
+        return runAttributed(clientNew);
     }
 
     /**
@@ -190,7 +217,7 @@ public abstract class RemoteOperation<T> implements Runnable {
         }
         mClient = client;
 
-        return run(client);
+        return runAttributed(client);
     }
 
     /**
@@ -205,7 +232,148 @@ public abstract class RemoteOperation<T> implements Runnable {
     public RemoteOperationResult<T> execute(@NonNull NextcloudClient client) {
         clientNew = client;
 
-        return run(client);
+        return runAttributed(client);
+    }
+
+    /**
+     * Asynchronously executes the remote operation without binding a thread to it for the whole execution.
+     * <p>
+     * Operations overriding {@link #runAsync(NextcloudClient, OperationPriority)} ride on OkHttp's
+     * {@code Call.enqueue}; all others run their blocking implementation on the {@link RemoteOperationScheduler}
+     * with the priority returned by {@link #getPriority()}.
+     * <p>
+     * Cancelling the returned future cancels the network calls issued by the operation.
+     *
+     * @param client Client object to reach an ownCloud server during the execution of the operation.
+     * @return Future completing with the result of the operation.
+     */
+    public CompletableFuture<RemoteOperationResult<T>> executeAsync(@NonNull NextcloudClient client) {
+        return executeAsync(client, getPriority());
+    }
+
+    /**
+     * Same as {@link #executeAsync(NextcloudClient)}, queued with the given priority.
+     */
+    public CompletableFuture<RemoteOperationResult<T>> executeAsync(@NonNull NextcloudClient client,
+                                                                    @NonNull OperationPriority priority) {
+        clientNew = client;
+
+        CallTracker tracker = new CallTracker();
+        String previousOperation = NetworkMetrics.enterOperation(getClass().getName());
+        CompletableFuture<RemoteOperationResult<T>> future;
+        try {
+            future = runAsync(client.withCallTracker(tracker), priority);
+        } finally {
+            NetworkMetrics.exitOperation(previousOperation);
+        }
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                tracker.cancelAll();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #run(NextcloudClient)}.
+     * <p>
+     * Default implementation submits {@link #run(NextcloudClient)} to the {@link RemoteOperationScheduler};
+     * operations able to chain on {@link com.nextcloud.common.OkHttpMethodBase#executeAsync(NextcloudClient)}
+     * should override it.
+     */
+    protected CompletableFuture<RemoteOperationResult<T>> runAsync(NextcloudClient client,
+                                                                   OperationPriority priority) {
+        String host = client.getBaseUri().getHost();
+        return RemoteOperationScheduler.getDefault().submit(() -> runAttributed(client),
+                                                            client.getUserIdPlain() + "@" + host,
+                                                            host,
+                                                            priority);
+    }
+
+    /**
+     * Priority used when the operation is queued without an explicit one. Transfers of file contents should
+     * return {@link OperationPriority#BULK_TRANSFER}.
+     */
+    protected OperationPriority getPriority() {
+        return OperationPriority.METADATA;
+    }
+
+    /**
+     * Queues the remote operation on the {@link RemoteOperationScheduler}.
+     * <p>
+     * Replaces {@link #execute(Account, Context, OnRemoteOperationListener, Handler)}, which starts a new thread
+     * per operation.
+     *
+     * @param account         ownCloud account in remote ownCloud server to reach during the execution of the
+     *                        operation.
+     * @param context         Android context for the component calling the method.
+     * @param listener        Listener to be notified about the execution of the operation.
+     * @param listenerHandler Handler associated to the thread where the methods of the listener objects must be
+     *                        called.
+     * @param priority        Priority class of the operation.
+     * @return Future of the execution; cancelling it drops the operation if it did not start yet.
+     */
+    public Future<?> schedule(@NonNull Account account,
+                              @NonNull Context context,
+                              OnRemoteOperationListener listener,
+                              Handler listenerHandler,
+                              @NonNull OperationPriority priority) {
+        mAccount = account;
+        mContext = context.getApplicationContext();
+        mCallerActivity = null;
+        mClient = null;     // the client instance will be created from mAccount and mContext on the worker
+        mListener = listener;
+        mListenerHandler = listenerHandler;
+
+        String host = getHost(account, mContext);
+        return RemoteOperationScheduler.getDefault().submit(() -> {
+            run();
+            return null;
+        }, account.name, host, priority);
+    }
+
+    /**
+     * Queues the remote operation on the {@link RemoteOperationScheduler}.
+     * <p>
+     * Replaces {@link #execute(OwnCloudClient, OnRemoteOperationListener, Handler)}, which starts a new thread
+     * per operation.
+     *
+     * @param client          Client object to reach an ownCloud server during the execution of the operation.
+     * @param listener        Listener to be notified about the execution of the operation.
+     * @param listenerHandler Handler associated to the thread where the methods of the listener objects must be
+     *                        called.
+     * @param priority        Priority class of the operation.
+     * @return Future of the execution; cancelling it drops the operation if it did not start yet.
+     */
+    public Future<?> schedule(@NonNull OwnCloudClient client,
+                              @NonNull OnRemoteOperationListener listener,
+                              @NonNull Handler listenerHandler,
+                              @NonNull OperationPriority priority) {
+        mClient = client;
+        mListener = listener;
+        mListenerHandler = listenerHandler;
+
+        String host = client.getBaseUri().getHost();
+        return RemoteOperationScheduler.getDefault().submit(() -> {
+            run();
+            return null;
+        }, client.getUserIdPlain() + "@" + host, host, priority);
+    }
+
+    /**
+     * Extracts the server host from the base URL of the account, as {@link #schedule(OwnCloudClient,
+     * OnRemoteOperationListener, Handler, OperationPriority)} does from the client.
+     *
+     * @return null if the account is unknown
+     */
+    @Nullable
+    private static String getHost(Account account, Context context) {
+        try {
+            return Uri.parse(AccountUtils.getBaseUrlForAccount(context, account)).getHost();
+        } catch (AccountUtils.AccountNotFoundException e) {
+            Log_OC.w(TAG, "No base URL for account " + account.name + ", scheduling without host");
+            return null;
+        }
     }
 
     /**
@@ -214,9 +382,8 @@ public abstract class RemoteOperation<T> implements Runnable {
      * This method should be used whenever an ownCloud account is available, instead of
      * {@link #execute(OwnCloudClient)}.
      * 
-     * @deprecated 	This method will be removed in version 1.0.
-     *  			Use {@link #execute(Account, Context, OnRemoteOperationListener,
-     *  			Handler)} instead.
+     * @deprecated Starts an unbounded thread per operation; use
+     *             {@link #schedule(Account, Context, OnRemoteOperationListener, Handler, OperationPriority)}.
      * 
      * @param account           ownCloud account in remote ownCloud server to reach during
      *                          the execution of the operation.
@@ -249,7 +416,8 @@ public abstract class RemoteOperation<T> implements Runnable {
     }
 
     /**
-     * This is a transitional wrapper around {@link #execute(Account, Context, OnRemoteOperationListener, Handler, Activity)}
+     * This is a transitional wrapper around
+     * {@link #execute(Account, Context, OnRemoteOperationListener, Handler, Activity)}
      * using modern {@link User} interface instead of platform {@link Account}
      */
     @Deprecated
@@ -271,7 +439,10 @@ public abstract class RemoteOperation<T> implements Runnable {
      * @param listenerHandler   Handler associated to the thread where the methods of the listener 
      * 							objects must be called.
      * @return                  Thread were the remote operation is executed.
+     * @deprecated Starts an unbounded thread per operation; use
+     *             {@link #schedule(Account, Context, OnRemoteOperationListener, Handler, OperationPriority)}.
      */
+    @Deprecated
     public Thread execute(Account account, Context context,
                           OnRemoteOperationListener listener, Handler listenerHandler) {
 
@@ -301,6 +472,7 @@ public abstract class RemoteOperation<T> implements Runnable {
      * {@link #execute(Account, Context, OnRemoteOperationListener, Handler)}
      * using modern {@link User} interface instead of platform {@link Account}
      */
+    @Deprecated
     public Thread execute(User user, Context context,
                           OnRemoteOperationListener listener, Handler listenerHandler) {
         return execute(user.toPlatformAccount(), context, listener, listenerHandler);
@@ -315,7 +487,10 @@ public abstract class RemoteOperation<T> implements Runnable {
 	 * @param listenerHandler	Handler associated to the thread where the methods of
      *                          the listener objects must be called.
 	 * @return					Thread were the remote operation is executed.
+	 * @deprecated Starts an unbounded thread per operation; use
+	 *             {@link #schedule(OwnCloudClient, OnRemoteOperationListener, Handler, OperationPriority)}.
 	 */
+    @Deprecated
     public Thread execute(OwnCloudClient client, OnRemoteOperationListener listener, Handler listenerHandler) {
 		if (client == null) {
             throw new IllegalArgumentException("Trying to execute a remote operation with a NULL OwnCloudClient");
@@ -384,7 +559,7 @@ public abstract class RemoteOperation<T> implements Runnable {
             }
     	
             if (result == null)
-                result = run(mClient);
+                result = runAttributed(mClient);
         
             repeat = false;
         	/** DEPRECATED BLOCK - will be removed at version 1.0 ; don't trust in this code 
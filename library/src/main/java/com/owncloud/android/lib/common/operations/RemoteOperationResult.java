@@ -25,6 +25,8 @@ import android.system.OsConstants;
 import androidx.annotation.NonNull;
 
 import com.nextcloud.common.OkHttpMethodBase;
+import com.nextcloud.common.PermanentRedirects;
+import com.nextcloud.common.RetryPolicy;
 import com.owncloud.android.lib.R;
 import com.owncloud.android.lib.common.accounts.AccountUtils.AccountNotFoundException;
 import com.owncloud.android.lib.common.network.CertificateCombinedException;
@@ -140,6 +142,7 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
         LOCKED,
         SIGNING_TOS_NEEDED,
         OUT_OF_MEMORY,
+        CHECKSUM_MISMATCH,
 
         // Cancelled by user
         USER_CANCELLED
@@ -154,6 +157,7 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
     private String mRedirectedLocation;
     private ArrayList<String> mAuthenticateHeaders = new ArrayList<>();
     private String mLastPermanentLocation = null;
+    private int mRetryCount = 0;
 
     private ArrayList<Object> mData;
     private T resultData;
@@ -322,6 +326,8 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
 
     public RemoteOperationResult(boolean success, OkHttpMethodBase httpMethod) {
         this(success, httpMethod.getStatusCode(), httpMethod.getStatusText(), httpMethod.getResponseHeaders());
+        mRetryCount = httpMethod.getRetryCount();
+        mLastPermanentLocation = httpMethod.getLastPermanentLocation();
     }
 
     /**
@@ -339,6 +345,13 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
      */
     public RemoteOperationResult(boolean success, HttpMethod httpMethod) {
         this(success, httpMethod.getStatusCode(), httpMethod.getStatusText(), httpMethod.getResponseHeaders());
+        if (httpMethod.getParams() != null) {
+            mRetryCount = httpMethod.getParams().getIntParameter(RetryPolicy.PARAM_RETRY_COUNT, 0);
+            Object permanentLocation = httpMethod.getParams().getParameter(PermanentRedirects.PARAM_PERMANENT_LOCATION);
+            if (permanentLocation instanceof String) {
+                mLastPermanentLocation = (String) permanentLocation;
+            }
+        }
 
         if (mHttpCode == HttpStatus.SC_BAD_REQUEST || 
             mHttpCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE ||
@@ -690,6 +703,8 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
             return "File is currently locked by another user or process";
         } else if (mCode == ResultCode.OUT_OF_MEMORY) {
             return "Not enough memory to read the content";
+        } else if (mCode == ResultCode.CHECKSUM_MISMATCH) {
+            return "Checksum of the transferred file does not match";
         }
 
         return "Operation finished with HTTP status code " + mHttpCode + " (" +
@@ -787,6 +802,8 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
             return context.getString(R.string.file_locked);
         } else if (mCode == ResultCode.OUT_OF_MEMORY) {
             return context.getString(R.string.out_of_memory);
+        } else if (mCode == ResultCode.CHECKSUM_MISMATCH) {
+            return context.getString(R.string.checksum_mismatch);
         }
 
         return context.getString(R.string.operation_finished_http_code, mHttpCode, isSuccess() ? "success" : "fail");
@@ -828,6 +845,10 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
         return mAuthenticateHeaders;
     }
 
+    /**
+     * @return last permanent location (301 or 308) the request was redirected to, or sent to because of an earlier
+     * permanent redirection; apps may use it to update the stored server URL
+     */
     public String getLastPermanentLocation() {
         return mLastPermanentLocation;
     }
@@ -836,6 +857,13 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
         mLastPermanentLocation = lastPermanentLocation;
     }
 
+    /**
+     * @return number of times the request behind this result was retried by the retry policy of the client
+     */
+    public int getRetryCount() {
+        return mRetryCount;
+    }
+
     public void setMessage(String message) {
         this.message = message;
     }
@@ -857,6 +885,7 @@ public class RemoteOperationResult<T extends Object> implements Serializable {
             ", mHttpPhrase='" + mHttpPhrase + '\'' +
             ", mException=" + mException +
             ", mCode=" + mCode +
+            ", mRetryCount=" + mRetryCount +
             ", message='" + message + '\'' +
             ", getLogMessage='" + getLogMessage() + '\'' +
             '}';
@@ -0,0 +1,322 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.operations;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.owncloud.android.lib.common.utils.Log_OC;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded, prioritized executor for asynchronous remote operations.
+ * <p>
+ * Operations wait in a queue ordered by {@link OperationPriority} and submission order. One is started as soon as
+ * a worker is free and neither its account nor its host already run their maximum number of operations, so a
+ * large transfer queue of one account never starves the others.
+ */
+public class RemoteOperationScheduler {
+
+    private static final String TAG = RemoteOperationScheduler.class.getSimpleName();
+
+    public static final int DEFAULT_MAX_WORKERS = 8;
+    public static final int DEFAULT_MAX_PER_ACCOUNT = 4;
+    public static final int DEFAULT_MAX_PER_HOST = 6;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static RemoteOperationScheduler defaultScheduler;
+
+    private final Object lock = new Object();
+    private final TreeSet<ScheduledTask<?>> pending = new TreeSet<>();
+    private final Map<String, Integer> runningPerAccount = new HashMap<>();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private final Map<OperationPriority, WaitStats> waitStats = new EnumMap<>(OperationPriority.class);
+    private final ExecutorService executor;
+    private final int maxWorkers;
+    private final int maxPerAccount;
+    private final int maxPerHost;
+    private long sequence = 0;
+    private int running = 0;
+
+    public RemoteOperationScheduler(int maxWorkers, int maxPerAccount, int maxPerHost) {
+        if (maxWorkers <= 0 || maxPerAccount <= 0 || maxPerHost <= 0) {
+            throw new IllegalArgumentException("Scheduler limits must be positive");
+        }
+        this.maxWorkers = maxWorkers;
+        this.maxPerAccount = maxPerAccount;
+        this.maxPerHost = maxPerHost;
+
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(maxWorkers,
+                                                               maxWorkers,
+                                                               KEEP_ALIVE_SECONDS,
+                                                               TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<>(),
+                                                               new WorkerThreadFactory());
+        threadPool.allowCoreThreadTimeOut(true);
+        executor = threadPool;
+
+        for (OperationPriority priority : OperationPriority.values()) {
+            waitStats.put(priority, new WaitStats());
+        }
+    }
+
+    public static synchronized RemoteOperationScheduler getDefault() {
+        if (defaultScheduler == null) {
+            defaultScheduler = new RemoteOperationScheduler(DEFAULT_MAX_WORKERS,
+                                                            DEFAULT_MAX_PER_ACCOUNT,
+                                                            DEFAULT_MAX_PER_HOST);
+        }
+        return defaultScheduler;
+    }
+
+    /**
+     * Replaces the scheduler used by {@link RemoteOperation}. Already submitted operations keep running on the
+     * previous one.
+     */
+    public static synchronized void setDefault(@NonNull RemoteOperationScheduler scheduler) {
+        defaultScheduler = scheduler;
+    }
+
+    /**
+     * Queues a task.
+     *
+     * @param task     work to execute
+     * @param account  account the work is done for; null if unknown
+     * @param host     host the work talks to; null if unknown
+     * @param priority priority class of the work
+     * @return future completing with the outcome of the task; cancelling it removes a task that did not start yet
+     */
+    public <V> CompletableFuture<V> submit(@NonNull Callable<V> task,
+                                           @Nullable String account,
+                                           @Nullable String host,
+                                           @NonNull OperationPriority priority) {
+        ScheduledTask<V> scheduledTask;
+        synchronized (lock) {
+            scheduledTask = new ScheduledTask<>(task, account, host, priority, sequence++);
+            pending.add(scheduledTask);
+        }
+
+        scheduledTask.future.whenComplete((result, throwable) -> {
+            if (scheduledTask.future.isCancelled()) {
+                synchronized (lock) {
+                    pending.remove(scheduledTask);
+                }
+            }
+        });
+
+        dispatch();
+        return scheduledTask.future;
+    }
+
+    public Stats getStats() {
+        synchronized (lock) {
+            Map<OperationPriority, Integer> queued = new EnumMap<>(OperationPriority.class);
+            for (OperationPriority priority : OperationPriority.values()) {
+                queued.put(priority, 0);
+            }
+            for (ScheduledTask<?> task : pending) {
+                queued.put(task.priority, queued.get(task.priority) + 1);
+            }
+
+            Map<OperationPriority, WaitStats> waits = new EnumMap<>(OperationPriority.class);
+            for (Map.Entry<OperationPriority, WaitStats> entry : waitStats.entrySet()) {
+                waits.put(entry.getKey(), entry.getValue().copy());
+            }
+            return new Stats(queued, waits, running);
+        }
+    }
+
+    private void dispatch() {
+        synchronized (lock) {
+            Iterator<ScheduledTask<?>> iterator = pending.iterator();
+            while (running < maxWorkers && iterator.hasNext()) {
+                ScheduledTask<?> task = iterator.next();
+                if (task.future.isDone()) {
+                    iterator.remove();
+                } else if (count(runningPerAccount, task.account) < maxPerAccount &&
+                    count(runningPerHost, task.host) < maxPerHost) {
+                    iterator.remove();
+                    start(task);
+                }
+            }
+        }
+    }
+
+    private void start(ScheduledTask<?> task) {
+        running++;
+        increment(runningPerAccount, task.account, 1);
+        increment(runningPerHost, task.host, 1);
+        waitStats.get(task.priority).record(System.currentTimeMillis() - task.enqueuedAt);
+        executor.execute(task);
+    }
+
+    private void onFinished(ScheduledTask<?> task) {
+        synchronized (lock) {
+            running--;
+            increment(runningPerAccount, task.account, -1);
+            increment(runningPerHost, task.host, -1);
+        }
+        dispatch();
+    }
+
+    private static int count(Map<String, Integer> counts, @Nullable String key) {
+        if (key == null) {
+            return 0;
+        }
+        Integer count = counts.get(key);
+        return count == null ? 0 : count;
+    }
+
+    private static void increment(Map<String, Integer> counts, @Nullable String key, int delta) {
+        if (key == null) {
+            return;
+        }
+        int count = count(counts, key) + delta;
+        if (count <= 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count);
+        }
+    }
+
+    private final class ScheduledTask<V> implements Runnable, Comparable<ScheduledTask<?>> {
+        final Callable<V> callable;
+        final String account;
+        final String host;
+        final OperationPriority priority;
+        final long sequence;
+        final long enqueuedAt = System.currentTimeMillis();
+        final CompletableFuture<V> future = new CompletableFuture<>();
+
+        ScheduledTask(Callable<V> callable, String account, String host, OperationPriority priority, long sequence) {
+            this.callable = callable;
+            this.account = account;
+            this.host = host;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!future.isDone()) {
+                    future.complete(callable.call());
+                }
+            } catch (Exception e) {
+                Log_OC.e(TAG, "Scheduled operation failed", e);
+                future.completeExceptionally(e);
+            } finally {
+                onFinished(this);
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledTask<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "RemoteOperation-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Time operations of one priority class waited in the queue before being started.
+     */
+    public static final class WaitStats {
+        private long started;
+        private long totalWaitMillis;
+        private long maxWaitMillis;
+
+        void record(long waitMillis) {
+            started++;
+            totalWaitMillis += waitMillis;
+            maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        }
+
+        WaitStats copy() {
+            WaitStats copy = new WaitStats();
+            copy.started = started;
+            copy.totalWaitMillis = totalWaitMillis;
+            copy.maxWaitMillis = maxWaitMillis;
+            return copy;
+        }
+
+        public long getStarted() {
+            return started;
+        }
+
+        public long getAverageWaitMillis() {
+            return started == 0 ? 0 : totalWaitMillis / started;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+    }
+
+    /**
+     * Snapshot of queue depths, running operations and wait times.
+     */
+    public static final class Stats {
+        private final Map<OperationPriority, Integer> queued;
+        private final Map<OperationPriority, WaitStats> waits;
+        private final int running;
+
+        Stats(Map<OperationPriority, Integer> queued, Map<OperationPriority, WaitStats> waits, int running) {
+            this.queued = queued;
+            this.waits = waits;
+            this.running = running;
+        }
+
+        public int getQueueDepth(OperationPriority priority) {
+            return queued.get(priority);
+        }
+
+        public int getQueueDepth() {
+            int total = 0;
+            for (int depth : queued.values()) {
+                total += depth;
+            }
+            return total;
+        }
+
+        public WaitStats getWaitStats(OperationPriority priority) {
+            return waits.get(priority);
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{queued=" + queued + ", running=" + running + "}";
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.operations
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Supplier
+
+/**
+ * Single-flight execution of identical idempotent read requests.
+ *
+ * While a request identified by a key is in flight, further callers with the same key wait for it and receive
+ * the very same result instead of issuing their own round trip. Results are shared, so callers must not modify
+ * the data they receive.
+ *
+ * Disabled by default; see [isEnabled].
+ */
+object RequestCoalescer {
+    private val inFlight = ConcurrentHashMap<String, CompletableFuture<Any?>>()
+    private val executedCalls = AtomicLong()
+    private val savedCalls = AtomicLong()
+
+    /**
+     * If false, [execute] always runs its call.
+     */
+    @JvmStatic
+    @Volatile
+    var isEnabled = false
+
+    data class Stats(
+        val executedCalls: Long,
+        val savedCalls: Long,
+        val inFlightCalls: Int
+    )
+
+    /**
+     * Builds the key of a request.
+     *
+     * @param account account the request is sent for, e.g. user id and base URI
+     * @param method  HTTP method; only GET and PROPFIND should be coalesced
+     * @param uri     full request URI, including query
+     * @param headers request headers affecting the response, e.g. Depth or If-None-Match
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun key(
+        account: String,
+        method: String,
+        uri: String,
+        headers: Map<String, String> = emptyMap()
+    ): String =
+        buildString {
+            append(method).append(' ').append(account).append(' ').append(uri)
+            headers.toSortedMap(String.CASE_INSENSITIVE_ORDER).forEach { (name, value) ->
+                append('\n').append(name.lowercase()).append(':').append(value)
+            }
+        }
+
+    /**
+     * Runs [call], or waits for the in-flight call with the same [key] and returns its result.
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun <T> execute(
+        key: String,
+        call: Supplier<T>
+    ): T {
+        if (!isEnabled) {
+            return call.get()
+        }
+
+        val own = CompletableFuture<Any?>()
+        val existing = inFlight.putIfAbsent(key, own)
+        if (existing != null) {
+            savedCalls.incrementAndGet()
+            try {
+                return existing.join() as T
+            } catch (e: CompletionException) {
+                throw e.cause ?: e
+            }
+        }
+
+        executedCalls.incrementAndGet()
+        try {
+            return call.get().also { own.complete(it) }
+        } catch (e: Throwable) {
+            own.completeExceptionally(e)
+            throw e
+        } finally {
+            inFlight.remove(key, own)
+        }
+    }
+
+    @JvmStatic
+    fun getStats(): Stats = Stats(executedCalls.get(), savedCalls.get(), inFlight.size)
+
+    @JvmStatic
+    fun resetStats() {
+        executedCalls.set(0)
+        savedCalls.set(0)
+    }
+}
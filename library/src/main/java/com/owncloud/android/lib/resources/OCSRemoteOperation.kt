@@ -12,10 +12,13 @@ import com.google.gson.JsonElement
 import com.google.gson.JsonParser
 import com.google.gson.JsonSyntaxException
 import com.google.gson.reflect.TypeToken
+import com.nextcloud.common.ConditionalRequestCache
+import com.nextcloud.common.NextcloudClient
 import com.nextcloud.common.OkHttpMethodBase
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import org.apache.commons.httpclient.HttpMethodBase
 import java.io.IOException
+import java.util.function.Function
 
 /**
  * Base class for OCS remote operations with convenient methods
@@ -49,4 +52,18 @@ abstract class OCSRemoteOperation<T> : RemoteOperation<T>() {
         } catch (syntaxException: JsonSyntaxException) {
             null
         }
+
+    /**
+     * Executes [method] through the [ConditionalRequestCache]: an unchanged resource is answered with 304 and
+     * served from the cache, otherwise the response is parsed with [parser] and cached along with its ETag.
+     */
+    @Throws(IOException::class)
+    fun <D : Any> executeConditionally(
+        client: NextcloudClient,
+        method: OkHttpMethodBase,
+        parser: Function<OkHttpMethodBase, D?>
+    ): ConditionalRequestCache.Response<D> {
+        val request = ConditionalRequestCache.prepare(client, method)
+        return request.resolve(client.execute(method), parser)
+    }
 }
@@ -10,6 +10,7 @@ package com.owncloud.android.lib.resources.albums
 import com.nextcloud.common.SessionTimeOut
 import com.nextcloud.common.defaultSessionTimeOut
 import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod
 import com.owncloud.android.lib.common.network.WebdavUtils
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
@@ -32,7 +33,7 @@ class ReadAlbumItemsRemoteOperation
             val result =
                 try {
                     propFind =
-                        PropFindMethod(
+                        DecompressingPropFindMethod(
                             client.albumUri(remotePath),
                             WebdavUtils.getAlbumItemPropSet(),
                             DavConstants.DEPTH_1
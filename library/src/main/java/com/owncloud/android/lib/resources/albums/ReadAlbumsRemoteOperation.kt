@@ -10,6 +10,7 @@ package com.owncloud.android.lib.resources.albums
 import com.nextcloud.common.SessionTimeOut
 import com.nextcloud.common.defaultSessionTimeOut
 import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod
 import com.owncloud.android.lib.common.network.WebdavUtils
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
@@ -38,7 +39,7 @@ class ReadAlbumsRemoteOperation
                     } else {
                         client.albumUri(albumRemotePath)
                     }
-                propFind = PropFindMethod(url, WebdavUtils.getAlbumPropSet(), DavConstants.DEPTH_1)
+                propFind = DecompressingPropFindMethod(url, WebdavUtils.getAlbumPropSet(), DavConstants.DEPTH_1)
                 val status =
                     client.executeMethod(propFind, sessionTimeOut.readTimeOut, sessionTimeOut.connectionTimeOut)
 
@@ -56,26 +56,23 @@ class GetTaskTypesRemoteOperationV2 : OCSRemoteOperation<List<TaskTypeData>>() {
         try {
             getMethod =
                 GetMethod(client.baseUri.toString() + DIRECT_ENDPOINT + JSON_FORMAT, true)
-            val status = client.execute(getMethod)
-            if (status == HttpStatus.SC_OK) {
-                val response =
+            val response =
+                executeConditionally(client, getMethod) { method ->
                     getServerResponse(
-                        getMethod,
+                        method,
                         object : TypeToken<ServerResponse<TaskTypes>>() {}
-                    )
-
-                val taskTypeList =
-                    response
-                        ?.ocs
+                    )?.ocs
                         ?.data
                         ?.types
                         ?.map { (key, value) -> value.copy(id = value.id ?: key) }
                         ?.filter { taskType ->
                             isSingleTextInputOutput(taskType) || taskType.isChat() || taskType.isTranslate()
                         }?.sortedByDescending { it.isChat() }
+                }
 
+            if (response.status == HttpStatus.SC_OK || response.isFromCache) {
                 result = RemoteOperationResult(true, getMethod)
-                result.resultData = taskTypeList
+                result.resultData = response.data
             } else {
                 result = RemoteOperationResult(false, getMethod)
             }
@@ -0,0 +1,95 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+/**
+ * Picks the size of upload chunks from the throughput and failure rate of previous chunks.
+ *
+ * Chunks are sized to take about [targetMillis] at the measured throughput, so fast connections pay less per-chunk
+ * overhead, and shrunk by the failure rate, so flaky connections lose less data when a chunk fails. Both are moving
+ * averages; chunk sizes stay within [minChunkSize] and [maxChunkSize] and grow at most twofold between two chunks.
+ *
+ * Chunks are assembled by the server, which may store them as parts of an S3 multipart upload: all parts but the
+ * last must be at least [MIN_CHUNK_SIZE], and a file has at most [MAX_CHUNKS] parts. [minChunkSize] cannot be set
+ * lower, and chunks grow beyond [maxChunkSize] if the file would need more parts otherwise.
+ *
+ * One instance may be shared by several uploads, e.g. per account and network, so that retries start from what
+ * was learned before.
+ */
+class AdaptiveChunkSizer
+    @JvmOverloads
+    constructor(
+        private val initialChunkSize: Long = ChunkedFileUploadRemoteOperation.CHUNK_SIZE_MOBILE,
+        private val minChunkSize: Long = MIN_CHUNK_SIZE,
+        private val maxChunkSize: Long = MAX_CHUNK_SIZE,
+        private val targetMillis: Long = DEFAULT_TARGET_MILLIS
+    ) {
+        companion object {
+            const val MIN_CHUNK_SIZE = 5L * 1024 * 1024
+            const val MAX_CHUNKS = 10_000
+            const val MAX_CHUNK_SIZE = 100L * 1024 * 1024
+            const val DEFAULT_TARGET_MILLIS = 20_000L
+
+            private const val ALPHA = 0.3
+            private const val MAX_GROWTH = 2
+            private const val MILLIS_PER_SECOND = 1000.0
+        }
+
+        init {
+            require(minChunkSize in MIN_CHUNK_SIZE..maxChunkSize) { "Invalid chunk size bounds" }
+            require(targetMillis > 0) { "targetMillis must be greater than zero" }
+        }
+
+        /**
+         * Moving average of the throughput in bytes per second, or null before the first chunk.
+         */
+        var throughput: Double? = null
+            @Synchronized get
+            private set
+
+        /**
+         * Moving average of the share of failed chunks, between 0 and 1.
+         */
+        var failureRate: Double = 0.0
+            @Synchronized get
+            private set
+
+        private var lastChunkSize = initialChunkSize.coerceIn(minChunkSize, maxChunkSize)
+
+        @Synchronized
+        fun onChunkUploaded(
+            bytes: Long,
+            elapsedMillis: Long
+        ) {
+            val sample = bytes * MILLIS_PER_SECOND / elapsedMillis.coerceAtLeast(1)
+            throughput = throughput?.let { ALPHA * sample + (1 - ALPHA) * it } ?: sample
+            failureRate *= 1 - ALPHA
+        }
+
+        @Synchronized
+        fun onChunkFailed() {
+            failureRate = ALPHA + (1 - ALPHA) * failureRate
+        }
+
+        /**
+         * @param fileSize size of the uploaded file, 0 if unknown
+         * @return size of the next chunk to upload
+         */
+        @JvmOverloads
+        @Synchronized
+        fun nextChunkSize(fileSize: Long = 0): Long {
+            val base = throughput?.let { it * targetMillis / MILLIS_PER_SECOND } ?: initialChunkSize.toDouble()
+            val size =
+                (base * (1 - failureRate))
+                    .toLong()
+                    .coerceAtMost(lastChunkSize * MAX_GROWTH)
+                    .coerceIn(minChunkSize, maxChunkSize)
+                    .coerceAtLeast((fileSize + MAX_CHUNKS - 1) / MAX_CHUNKS)
+            lastChunkSize = size
+            return size
+        }
+    }
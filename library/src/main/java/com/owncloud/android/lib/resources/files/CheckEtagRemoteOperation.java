@@ -10,6 +10,7 @@ package com.owncloud.android.lib.resources.files;
 import com.nextcloud.common.SessionTimeOut;
 import com.nextcloud.common.SessionTimeOutKt;
 import com.owncloud.android.lib.common.OwnCloudClient;
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod;
 import com.owncloud.android.lib.common.network.WebdavUtils;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
@@ -56,7 +57,7 @@ public class CheckEtagRemoteOperation extends RemoteOperation {
             DavPropertyNameSet propSet = new DavPropertyNameSet();
             propSet.add(DavPropertyName.GETETAG);
 
-            propfind = new PropFindMethod(client.getFilesDavUri(path),
+            propfind = new DecompressingPropFindMethod(client.getFilesDavUri(path),
                     propSet,
                     0);
             int status = client.executeMethod(propfind, sessionTimeOut.getReadTimeOut(), sessionTimeOut.getConnectionTimeOut());
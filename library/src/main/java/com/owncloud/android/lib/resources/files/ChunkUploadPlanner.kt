@@ -0,0 +1,96 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+/**
+ * Chunk found in the upload folder on the server.
+ */
+data class RemoteChunk(
+    val id: Int,
+    val length: Long
+)
+
+/**
+ * @property missing chunks still to upload, in order
+ * @property obsoleteIds chunks on the server that are not kept and must be deleted before uploading the missing ones
+ * @property uploadedBytes bytes of the file already on the server
+ * @property tailStart index in [missing] of the first chunk after the last chunk on the server; chunks from there
+ * on may be laid out again with another size
+ */
+data class ChunkUploadPlan(
+    val missing: List<Chunk>,
+    val obsoleteIds: List<Int>,
+    val uploadedBytes: Long,
+    val tailStart: Int
+)
+
+/**
+ * Decides which chunks of a file to upload, given the chunks already on the server.
+ *
+ * Chunks are numbered from 1 and assembled by the server in the order of their ids. Chunks 1 to n present without
+ * gap form a prefix whose offsets are known, even if uploaded with another chunk size. The remaining chunks are laid
+ * out with the current chunk size after that prefix. Chunks on the server after the prefix are kept only if they
+ * were uploaded with the same chunk size, as left behind by an interrupted parallel upload, and their length matches
+ * that layout; a chunk of another layout may have the right length at the wrong offset, so all others are obsolete
+ * and uploaded again.
+ *
+ * With a resizable tail, no chunk after the prefix is kept, so the caller can choose other sizes for the chunks from
+ * [ChunkUploadPlan.tailStart] on.
+ */
+object ChunkUploadPlanner {
+    /**
+     * @param remoteChunkSize chunk size the chunks on the server after the prefix were uploaded with, or null if
+     * unknown
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun plan(
+        fileSize: Long,
+        chunkSize: Long,
+        remoteChunks: List<RemoteChunk>,
+        resizableTail: Boolean = false,
+        remoteChunkSize: Long? = null
+    ): ChunkUploadPlan {
+        require(chunkSize > 0) { "Chunk size must be greater than zero" }
+        val remoteLengths = remoteChunks.associate { it.id to it.length }
+        val keptIds = mutableSetOf<Int>()
+
+        var id = 1
+        var offset = 0L
+        while (offset < fileSize && isUsablePrefixChunk(remoteLengths[id], offset, fileSize)) {
+            keptIds += id
+            offset += remoteLengths.getValue(id)
+            id++
+        }
+
+        val reuseChunks = !resizableTail && remoteChunkSize == chunkSize
+        val missing = mutableListOf<Chunk>()
+        var uploadedBytes = offset
+        var tailStart = 0
+        while (offset < fileSize) {
+            val chunk = ChunkedFileUploadRemoteOperation.calcNextChunk(fileSize, id, offset, chunkSize)
+            if (reuseChunks && remoteLengths[id] == chunk.length) {
+                keptIds += id
+                uploadedBytes += chunk.length
+                tailStart = missing.size
+            } else {
+                missing += chunk
+            }
+            offset += chunk.length
+            id++
+        }
+
+        val obsoleteIds = remoteChunks.map { it.id }.filter { it !in keptIds }.sorted()
+        return ChunkUploadPlan(missing, obsoleteIds, uploadedBytes, tailStart)
+    }
+
+    private fun isUsablePrefixChunk(
+        length: Long?,
+        offset: Long,
+        fileSize: Long
+    ): Boolean = length != null && length > 0 && offset + length <= fileSize
+}
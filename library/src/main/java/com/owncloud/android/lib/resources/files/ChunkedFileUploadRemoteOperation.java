@@ -8,21 +8,28 @@ package com.owncloud.android.lib.resources.files;
 
 import android.text.TextUtils;
 
+import com.nextcloud.common.BandwidthLimiter;
 import com.owncloud.android.lib.common.OwnCloudClient;
+import com.owncloud.android.lib.common.network.ChecksumAlgorithm;
 import com.owncloud.android.lib.common.network.ChunkFromFileChannelRequestEntity;
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod;
+import com.owncloud.android.lib.common.network.OnDatatransferProgressListener;
 import com.owncloud.android.lib.common.network.ProgressiveDataTransfer;
+import com.owncloud.android.lib.common.network.StreamingChecksum;
 import com.owncloud.android.lib.common.network.WebdavEntry;
 import com.owncloud.android.lib.common.network.WebdavUtils;
 import com.owncloud.android.lib.common.operations.OperationCancelledException;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
 import com.owncloud.android.lib.common.utils.Log_OC;
 
-import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
+import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.methods.PutMethod;
-import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.jackrabbit.webdav.DavConstants;
+import org.apache.jackrabbit.webdav.DavException;
 import org.apache.jackrabbit.webdav.MultiStatus;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
+import org.apache.jackrabbit.webdav.client.methods.DeleteMethod;
 import org.apache.jackrabbit.webdav.client.methods.MkColMethod;
 import org.apache.jackrabbit.webdav.client.methods.MoveMethod;
 import org.apache.jackrabbit.webdav.client.methods.PropFindMethod;
@@ -31,9 +38,21 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 
@@ -44,12 +63,20 @@ public class ChunkedFileUploadRemoteOperation extends UploadFileRemoteOperation
     public static final String DESTINATION_HEADER = "Destination";
     public static final int CHUNK_NAME_LENGTH = 6;
     private static final String TAG = ChunkedFileUploadRemoteOperation.class.getSimpleName();
+    private static final long CHUNK_WORKERS_TIMEOUT_SECONDS = 10;
     public final int ASSEMBLE_TIME_MIN = 30 * 1000; // 30s
     public final int ASSEMBLE_TIME_MAX = 30 * 60 * 1000; // 30min
     public final int ASSEMBLE_TIME_PER_GB = 3 * 60 * 1000; // 3 min
     private final boolean onWifiConnection;
+    private String uploadId;
     private String uploadFolderUri;
     private String destinationUri;
+    private int parallelChunks = 1;
+    private AdaptiveChunkSizer chunkSizer;
+    private ChunkedUploadJournal journal;
+    private StreamingChecksum uploadChecksum;
+    private final Set<PutMethod> activeChunkMethods = ConcurrentHashMap.newKeySet();
+    private volatile boolean chunksStopped = false;
 
     public ChunkedFileUploadRemoteOperation(String storagePath,
                                             String remotePath,
@@ -130,91 +157,91 @@ public class ChunkedFileUploadRemoteOperation extends UploadFileRemoteOperation
     @Override
     protected RemoteOperationResult run(OwnCloudClient client) {
         RemoteOperationResult result;
-        DefaultHttpMethodRetryHandler oldRetryHandler = (DefaultHttpMethodRetryHandler) client.getParams()
-                .getParameter(HttpMethodParams.RETRY_HANDLER);
         File file = new File(localPath);
         MoveMethod moveMethod = null;
         try {
-            if (disableRetries) {
-                // prevent that uploads are retried automatically by network library
-                client.getParams()
-                        .setParameter(HttpMethodParams.RETRY_HANDLER, new DefaultHttpMethodRetryHandler(0, false));
-            }
-
             // chunk length
             long chunkSize;
-            if (onWifiConnection) {
+            if (chunkSizer != null) {
+                chunkSize = chunkSizer.nextChunkSize(file.length());
+            } else if (onWifiConnection) {
                 chunkSize = CHUNK_SIZE_WIFI;
             } else {
                 chunkSize = CHUNK_SIZE_MOBILE;
             }
 
-            uploadFolderUri = client.getUploadUri() + "/" + client.getUserId() + "/" + FileUtils.md5Sum(file);
+            uploadId = FileUtils.md5Sum(file);
+            uploadFolderUri = client.getUploadUri() + "/" + client.getUserId() + "/" + uploadId;
 
             destinationUri = client.getDavUri() + "/files/" + client.getUserId() + WebdavUtils.encodePath(remotePath);
 
-            // create folder
-            MkColMethod createFolder = new MkColMethod(uploadFolderUri);
-
-            createFolder.addRequestHeader(DESTINATION_HEADER, destinationUri);
-
-            client.executeMethod(createFolder, 30000, 5000);
-
-            // list chunks
-            PropFindMethod listChunks = new PropFindMethod(uploadFolderUri,
-                                                           WebdavUtils.getChunksPropSet(),
-                                                           DavConstants.DEPTH_1);
-
-            client.executeMethod(listChunks);
-
-            if (!listChunks.succeeded()) {
-                return new RemoteOperationResult(listChunks.succeeded(), listChunks);
+            // chunks already on server, from the journal if possible
+            ChunkedUploadJournal.Upload journaled = journal != null ? journal.read(uploadId, uploadFolderUri) : null;
+            boolean resumedFromJournal = journaled != null;
+            List<RemoteChunk> remoteChunks;
+            Long remoteChunkSize = null;
+            if (resumedFromJournal) {
+                remoteChunks = journaled.getChunks();
+                remoteChunkSize = journaled.getChunkSize();
+            } else {
+                remoteChunks = new ArrayList<>();
+                RemoteOperationResult listResult = listRemoteChunks(client, remoteChunks);
+                if (listResult != null) {
+                    return listResult;
+                }
             }
 
-            MultiStatus dataInServer = listChunks.getResponseBodyAsMultiStatus();
-
-            // determine chunks already on server
-            // chunks are assumed to be uploaded linearly, starting at 0B
-            long nextByte = 0;
-            int lastId = 0;
-            for (MultiStatusResponse response : dataInServer.getResponses()) {
-                WebdavEntry we = new WebdavEntry(response, Objects.requireNonNull(client.getUploadUri().getPath()));
-                String name = we.getName();
-
-                // filter out any objects not matching expected chunk name
-                if (!we.isDirectory() && name != null && (name.length() <= CHUNK_NAME_LENGTH) &&
-                        TextUtils.isDigitsOnly(name)) {
-                    // is part of upload
-                    int id = Integer.parseInt(name);
-                    if (id > lastId) {
-                        lastId = id;
+            // parallel chunks are laid out in advance, sequential ones can be resized as the upload goes
+            boolean resizeTail = chunkSizer != null && parallelChunks == 1;
+            ChunkUploadPlan plan = ChunkUploadPlanner.plan(file.length(),
+                                                           chunkSize,
+                                                           remoteChunks,
+                                                           resizeTail,
+                                                           remoteChunkSize);
+
+            if (journal != null) {
+                // before deleting, so that a resumed upload never counts on a deleted chunk
+                List<RemoteChunk> keptChunks = new ArrayList<>();
+                for (RemoteChunk chunk : remoteChunks) {
+                    if (!plan.getObsoleteIds().contains(chunk.getId())) {
+                        keptChunks.add(chunk);
                     }
-                    nextByte += we.getContentLength();
                 }
+                journal.start(uploadId, uploadFolderUri, resizeTail ? null : chunkSize, keptChunks);
             }
 
-            // iteratively upload remaining chunks
-            while (nextByte + 1 < file.length()) {
-                // determine size of next chunk
-                Chunk chunk = calcNextChunk(file.length(), ++lastId, nextByte, chunkSize);
-
-                RemoteOperationResult chunkResult = uploadChunk(client, chunk);
-                if (!chunkResult.isSuccess()) {
-                    return chunkResult;
+            for (int id : plan.getObsoleteIds()) {
+                RemoteOperationResult deleteResult = deleteChunk(client, id);
+                if (!deleteResult.isSuccess()) {
+                    return deleteResult;
                 }
+            }
 
-                if (cancellationRequested.get()) {
-                    return new RemoteOperationResult(new OperationCancelledException());
-                }
+            // complete only if the whole file is uploaded in order by this run
+            checksum = null;
+            uploadChecksum = checksumAlgorithm != null ? new StreamingChecksum(checksumAlgorithm) : null;
 
-                nextByte += chunk.getLength();
+            RemoteOperationResult chunksResult;
+            if (parallelChunks > 1 && plan.getMissing().size() > 1) {
+                if (uploadChecksum != null) {
+                    Log_OC.w(TAG, "Chunks uploaded in parallel are not hashed, no checksum for " + remotePath);
+                }
+                chunksResult = uploadChunksInParallel(client, plan.getMissing(), plan.getUploadedBytes());
+            } else {
+                chunksResult = uploadChunks(client, plan, resizeTail);
+            }
+            if (chunksResult != null) {
+                return retryWithoutJournal(client, chunksResult, resumedFromJournal);
             }
 
             // assemble
             String originUri = uploadFolderUri + "/.file";
 
             moveMethod = new MoveMethod(originUri, destinationUri, true);
+            applyRetryPolicy(moveMethod);
             moveMethod.addRequestHeader(OC_X_OC_MTIME_HEADER, String.valueOf(lastModificationTimestamp));
+            // the server refuses to assemble chunks that do not add up to the file
+            moveMethod.addRequestHeader(OC_TOTAL_LENGTH_HEADER, String.valueOf(file.length()));
 
             if (creationTimestamp != null && creationTimestamp > 0) {
                 moveMethod.addRequestHeader(OC_X_OC_CTIME_HEADER, String.valueOf(creationTimestamp));
@@ -224,12 +251,25 @@ public class ChunkedFileUploadRemoteOperation extends UploadFileRemoteOperation
                 moveMethod.addRequestHeader(E2E_TOKEN, token);
             }
 
+            String checksumHeader = uploadChecksum != null ? uploadChecksum.getHeaderValue(file.length()) : null;
+            if (checksumHeader != null) {
+                moveMethod.addRequestHeader(ChecksumAlgorithm.HEADER, checksumHeader);
+            }
+
             final int DO_NOT_CHANGE_DEFAULT = -1;
             int moveResult = client.executeMethod(moveMethod, calculateAssembleTimeout(file), DO_NOT_CHANGE_DEFAULT);
 
             result = new RemoteOperationResult(isSuccess(moveResult), moveMethod);
+            if (result.isSuccess()) {
+                checksum = checksumHeader;
+                if (journal != null) {
+                    journal.delete(uploadId);
+                }
+            } else {
+                result = retryWithoutJournal(client, result, resumedFromJournal);
+            }
         } catch (Exception e) {
-            if (putMethod != null && putMethod.isAborted()) {
+            if ((putMethod != null && putMethod.isAborted()) || (parallelChunks > 1 && cancellationRequested.get())) {
                 if (cancellationRequested.get() && cancellationReason != null) {
                     result = new RemoteOperationResult(cancellationReason);
                 } else {
@@ -244,58 +284,249 @@ public class ChunkedFileUploadRemoteOperation extends UploadFileRemoteOperation
             } else {
                 result = new RemoteOperationResult(e);
             }
+        }
+        return result;
+    }
+
+    /**
+     * Creates the upload folder and lists the chunks in it.
+     *
+     * @return null if the chunks were listed, the failed result otherwise
+     */
+    private RemoteOperationResult listRemoteChunks(OwnCloudClient client, List<RemoteChunk> remoteChunks)
+            throws IOException, DavException {
+        // create folder
+        MkColMethod createFolder = new MkColMethod(uploadFolderUri);
+
+        createFolder.addRequestHeader(DESTINATION_HEADER, destinationUri);
+        applyRetryPolicy(createFolder);
+
+        client.executeMethod(createFolder, 30000, 5000);
+
+        // list chunks
+        PropFindMethod listChunks = new DecompressingPropFindMethod(uploadFolderUri,
+                                                                    WebdavUtils.getChunksPropSet(),
+                                                                    DavConstants.DEPTH_1);
+        applyRetryPolicy(listChunks);
+
+        client.executeMethod(listChunks);
+
+        if (!listChunks.succeeded()) {
+            return new RemoteOperationResult(listChunks.succeeded(), listChunks);
+        }
+
+        MultiStatus dataInServer = listChunks.getResponseBodyAsMultiStatus();
+
+        // determine chunks already on server, possibly with gaps left by an interrupted parallel upload
+        for (MultiStatusResponse response : dataInServer.getResponses()) {
+            WebdavEntry we = new WebdavEntry(response, Objects.requireNonNull(client.getUploadUri().getPath()));
+            String name = we.getName();
+
+            // filter out any objects not matching expected chunk name
+            if (!we.isDirectory() && name != null && (name.length() <= CHUNK_NAME_LENGTH) &&
+                    TextUtils.isDigitsOnly(name)) {
+                // is part of upload
+                remoteChunks.add(new RemoteChunk(Integer.parseInt(name), we.getContentLength()));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Retries the upload from a listing of the upload folder if it failed because the upload folder does not match
+     * the journal, e.g. because the server cleaned it up.
+     */
+    private RemoteOperationResult retryWithoutJournal(OwnCloudClient client,
+                                                      RemoteOperationResult result,
+                                                      boolean resumedFromJournal) {
+        int code = result.getHttpCode();
+        boolean folderMismatch = code == HttpStatus.SC_BAD_REQUEST ||
+                code == HttpStatus.SC_NOT_FOUND ||
+                code == HttpStatus.SC_CONFLICT;
+        if (!resumedFromJournal || !folderMismatch) {
+            return result;
+        }
+
+        Log_OC.w(TAG, "Upload folder " + uploadFolderUri + " does not match journal, listing it");
+        journal.delete(uploadId);
+        return run(client);
+    }
+
+    /**
+     * Uploads the missing chunks one after the other.
+     *
+     * @param resizeTail true to size the chunks after the last one on the server with {@link #chunkSizer}, right
+     *                   before uploading each of them
+     * @return null if all chunks were uploaded, the failed result otherwise
+     */
+    private RemoteOperationResult uploadChunks(OwnCloudClient client, ChunkUploadPlan plan, boolean resizeTail)
+            throws IOException {
+        List<Chunk> missing = plan.getMissing();
+        int fixedChunks = resizeTail ? plan.getTailStart() : missing.size();
+        for (int i = 0; i < fixedChunks; i++) {
+            RemoteOperationResult chunkResult = uploadNextChunk(client, missing.get(i));
+            if (chunkResult != null) {
+                return chunkResult;
+            }
+        }
+
+        if (fixedChunks < missing.size()) {
+            long fileSize = new File(localPath).length();
+            int id = missing.get(fixedChunks).getId();
+            long nextByte = missing.get(fixedChunks).getStart();
+            while (nextByte < fileSize) {
+                Chunk chunk = calcNextChunk(fileSize, id++, nextByte, chunkSizer.nextChunkSize(fileSize));
+                RemoteOperationResult chunkResult = uploadNextChunk(client, chunk);
+                if (chunkResult != null) {
+                    return chunkResult;
+                }
+                nextByte += chunk.getLength();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return null if the chunk was uploaded, the failed result otherwise
+     */
+    private RemoteOperationResult uploadNextChunk(OwnCloudClient client, Chunk chunk) throws IOException {
+        RemoteOperationResult chunkResult = uploadChunk(client, chunk, null);
+        if (!chunkResult.isSuccess()) {
+            return chunkResult;
+        }
+
+        if (cancellationRequested.get()) {
+            return new RemoteOperationResult(new OperationCancelledException());
+        }
+        return null;
+    }
+
+    /**
+     * Uploads up to {@link #parallelChunks} chunks at the same time. Progress of all chunks is reported to the
+     * listeners as a single transfer of the whole file. The first failure stops the upload.
+     *
+     * @param uploadedBytes bytes of the file already on the server
+     * @return null if all chunks were uploaded, the failed result otherwise
+     */
+    private RemoteOperationResult uploadChunksInParallel(OwnCloudClient client,
+                                                         List<Chunk> chunks,
+                                                         long uploadedBytes) throws Exception {
+        final long totalToTransfer = new File(localPath).length();
+        final AtomicLong transferred = new AtomicLong(uploadedBytes);
+        OnDatatransferProgressListener progressListener = (progressRate, ignored, ignoredTotal, fileName) -> {
+            long totalTransferred = transferred.addAndGet(progressRate);
+            synchronized (dataTransferListeners) {
+                for (OnDatatransferProgressListener listener : dataTransferListeners) {
+                    listener.onTransferProgress(progressRate, totalTransferred, totalToTransfer, fileName);
+                }
+            }
+        };
+
+        chunksStopped = false;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelChunks, chunks.size()));
+        CompletionService<RemoteOperationResult> completionService = new ExecutorCompletionService<>(executor);
+        try {
+            for (Chunk chunk : chunks) {
+                completionService.submit(() -> uploadChunk(client, chunk, progressListener));
+            }
+
+            for (int i = 0; i < chunks.size(); i++) {
+                RemoteOperationResult chunkResult;
+                try {
+                    chunkResult = completionService.take().get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+
+                if (!chunkResult.isSuccess()) {
+                    return chunkResult;
+                }
+
+                if (cancellationRequested.get()) {
+                    return new RemoteOperationResult(new OperationCancelledException());
+                }
+            }
+            return null;
         } finally {
-            if (disableRetries) {
-                // reset previous retry handler
-                client.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, oldRetryHandler);
+            stopParallelChunks(executor);
+        }
+    }
+
+    /**
+     * Aborts the chunks still uploading and keeps workers from starting others, then waits for the workers, so that
+     * no chunk is uploaded after the upload returned.
+     */
+    private void stopParallelChunks(ExecutorService executor) {
+        synchronized (cancellationRequested) {
+            chunksStopped = true;
+        }
+        executor.shutdownNow();
+        abortActiveChunks();
+        try {
+            if (!executor.awaitTermination(CHUNK_WORKERS_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Log_OC.w(TAG, "Chunk uploads of " + localPath + " still running after abort");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        return result;
     }
 
-    private RemoteOperationResult uploadChunk(OwnCloudClient client, Chunk chunk) throws IOException {
+    /**
+     * @param progressListener listener of the chunk, or null to report to the listeners of the operation directly
+     */
+    private RemoteOperationResult uploadChunk(OwnCloudClient client,
+                                              Chunk chunk,
+                                              OnDatatransferProgressListener progressListener) throws IOException {
         int status;
         RemoteOperationResult result;
 
         FileChannel channel = null;
         RandomAccessFile raf = null;
+        PutMethod chunkMethod = null;
+        boolean uploaded = false;
+        long startNanos = System.nanoTime();
 
         File file = new File(localPath);
 
         try {
             raf = new RandomAccessFile(file, "r");
             channel = raf.getChannel();
-            entity = new ChunkFromFileChannelRequestEntity(channel,
-                                                           mimeType,
-                                                           chunk.getStart(),
-                                                           chunk.getLength(),
-                                                           file);
-
-            synchronized (dataTransferListeners) {
-                ((ProgressiveDataTransfer) entity).addDataTransferProgressListeners(dataTransferListeners);
-            }
-
-            // pad chunk name to 6 digits
-            String chunkUri =
-                    uploadFolderUri + "/" + String.format(Locale.ROOT, "%0" + CHUNK_NAME_LENGTH + "d", chunk.getId());
-
-            if (putMethod != null) {
-                putMethod.releaseConnection(); // let the connection available for other methods
+            ChunkFromFileChannelRequestEntity chunkEntity = new ChunkFromFileChannelRequestEntity(channel,
+                                                                                                  mimeType,
+                                                                                                  chunk.getStart(),
+                                                                                                  chunk.getLength(),
+                                                                                                  file);
+            chunkEntity.setBandwidthLimiter(BandwidthLimiter.forAccount(client.getUserIdPlain(),
+                                                                      client.getBaseUri()));
+            chunkEntity.setChecksum(uploadChecksum);
+
+            if (progressListener == null) {
+                entity = chunkEntity;
+                synchronized (dataTransferListeners) {
+                    ((ProgressiveDataTransfer) entity).addDataTransferProgressListeners(dataTransferListeners);
+                }
+            } else {
+                chunkEntity.addDataTransferProgressListener(progressListener);
             }
 
-            putMethod = createPutMethod(chunkUri);
+            chunkMethod = createPutMethod(chunkUri(chunk.getId()), chunkEntity, progressListener == null);
 
-            putMethod.addRequestHeader(DESTINATION_HEADER, destinationUri);
+            chunkMethod.addRequestHeader(DESTINATION_HEADER, destinationUri);
 
             if (token != null) {
-                putMethod.addRequestHeader(E2E_TOKEN, token);
+                chunkMethod.addRequestHeader(E2E_TOKEN, token);
             }
 
-            status = client.executeMethod(putMethod);
+            status = client.executeMethod(chunkMethod);
 
-            result = new RemoteOperationResult(isSuccess(status), putMethod);
+            uploaded = isSuccess(status);
+            result = new RemoteOperationResult(uploaded, chunkMethod);
+            if (uploaded && journal != null) {
+                journal.record(uploadId, chunk.getId(), chunk.getLength());
+            }
 
-            client.exhaustResponse(putMethod.getResponseBodyAsStream());
+            client.exhaustResponse(chunkMethod.getResponseBodyAsStream());
             Log_OC.d(TAG,
                      "Upload of " + localPath + " to " + remotePath + ", chunk id: " + chunk.getId() + " from " +
                              chunk.getStart() + " size: " + chunk.getLength() + ", HTTP result status " + status);
@@ -314,21 +545,117 @@ public class ChunkedFileUploadRemoteOperation extends UploadFileRemoteOperation
                     Log_OC.e(TAG, "Error closing file access!", e);
                 }
             }
-            if (putMethod != null) {
-                putMethod.releaseConnection(); // let the connection available for other methods
+            if (chunkMethod != null) {
+                activeChunkMethods.remove(chunkMethod);
+                chunkMethod.releaseConnection(); // let the connection available for other methods
             }
+            measureChunk(chunk, uploaded, startNanos);
         }
         return result;
     }
 
-    private PutMethod createPutMethod(String uriPrefix) {
-        putMethod = new PutMethod(uriPrefix);
-        putMethod.setRequestEntity(entity);
-        if (cancellationRequested.get()) {
-            putMethod.abort(); // next method will throw an exception
+    private void measureChunk(Chunk chunk, boolean uploaded, long startNanos) {
+        if (chunkSizer == null) {
+            return;
+        }
+
+        if (uploaded) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            chunkSizer.onChunkUploaded(chunk.getLength(), elapsedMillis);
+        } else if (!cancellationRequested.get() && !chunksStopped) {
+            chunkSizer.onChunkFailed();
+        }
+    }
+
+    private RemoteOperationResult deleteChunk(OwnCloudClient client, int id) throws IOException {
+        DeleteMethod deleteMethod = new DeleteMethod(chunkUri(id));
+        try {
+            applyRetryPolicy(deleteMethod);
+            int status = client.executeMethod(deleteMethod);
+            client.exhaustResponse(deleteMethod.getResponseBodyAsStream());
+            Log_OC.d(TAG, "Delete of obsolete chunk " + id + " of " + localPath + ", HTTP result status " + status);
+
+            return new RemoteOperationResult(deleteMethod.succeeded() || status == HttpStatus.SC_NOT_FOUND,
+                                             deleteMethod);
+        } finally {
+            deleteMethod.releaseConnection();
         }
+    }
+
+    private String chunkUri(int id) {
+        // pad chunk name to 6 digits
+        return uploadFolderUri + "/" + String.format(Locale.ROOT, "%0" + CHUNK_NAME_LENGTH + "d", id);
+    }
 
-        return putMethod;
+    /**
+     * @param primary true if the method is the only one running, and so kept in {@link #putMethod}
+     */
+    private PutMethod createPutMethod(String uri, RequestEntity chunkEntity, boolean primary) {
+        PutMethod method = new PutMethod(uri);
+        method.setRequestEntity(chunkEntity);
+        applyRetryPolicy(method);
+
+        synchronized (cancellationRequested) {
+            if (cancellationRequested.get() || chunksStopped) {
+                method.abort(); // next method will throw an exception
+            }
+            if (primary) {
+                putMethod = method;
+            }
+            activeChunkMethods.add(method);
+        }
+
+        return method;
+    }
+
+    private void abortActiveChunks() {
+        for (PutMethod method : activeChunkMethods) {
+            method.abort();
+        }
+    }
+
+    /**
+     * Sets how many chunks are uploaded at the same time. With the default of 1, chunks are uploaded one after the
+     * other.
+     * <p>
+     * Chunks uploaded in parallel are not written in order, so no checksum is computed for the file even if
+     * {@link #setChecksumAlgorithm(ChecksumAlgorithm)} is set: {@link #getChecksum()} returns null, and no
+     * {@code OC-Checksum} header is sent when assembling the file.
+     */
+    public void setParallelChunks(int parallelChunks) {
+        if (parallelChunks < 1) {
+            throw new IllegalArgumentException("parallelChunks must be at least 1");
+        }
+        this.parallelChunks = parallelChunks;
+    }
+
+    /**
+     * Sizes chunks from the measured throughput and failure rate instead of the fixed {@link #CHUNK_SIZE_WIFI} and
+     * {@link #CHUNK_SIZE_MOBILE}. Chunks uploaded one after the other are resized between chunks; parallel chunks
+     * all get the size picked when the upload starts.
+     *
+     * @param chunkSizer sizer, possibly shared with other uploads, or null for fixed chunk sizes
+     */
+    public void setChunkSizer(@Nullable AdaptiveChunkSizer chunkSizer) {
+        this.chunkSizer = chunkSizer;
+    }
+
+    /**
+     * Resumes uploads from the chunks recorded in the journal, without listing the upload folder; the folder is
+     * listed only if the journal of the upload is missing or does not match the server.
+     *
+     * @param journal journal, possibly shared with other uploads, or null to always list the upload folder
+     */
+    public void setJournal(@Nullable ChunkedUploadJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void cancel(RemoteOperationResult.ResultCode cancellationReason) {
+        synchronized (cancellationRequested) {
+            super.cancel(cancellationReason);
+            abortActiveChunks();
+        }
     }
 
     @VisibleForTesting
@@ -0,0 +1,152 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+import com.owncloud.android.lib.common.utils.Log_OC
+import java.io.File
+import java.io.FileWriter
+import java.io.IOException
+
+/**
+ * Local record of the chunks acknowledged by the server for chunked uploads, so that a resumed upload needs
+ * neither to create nor to list its upload folder.
+ *
+ * Uploads are keyed by the id of their upload folder, see [FileUtils.md5Sum]. Each upload is one file in
+ * [directory]: the first line is the upload folder URI, the second one the chunk size of the upload, 0 if unknown,
+ * and every following line an acknowledged chunk as `id length`. Chunks are appended as they are acknowledged, so
+ * the journal survives process death. A journal which cannot be read, or which belongs to another upload folder, is
+ * treated as missing.
+ */
+class ChunkedUploadJournal(
+    private val directory: File
+) {
+    companion object {
+        private val TAG = ChunkedUploadJournal::class.java.simpleName
+        private const val SEPARATOR = " "
+        private const val UNKNOWN_CHUNK_SIZE = 0L
+        private const val TEMP_SUFFIX = ".tmp"
+    }
+
+    /**
+     * Chunks of an upload on the server.
+     *
+     * @property chunkSize chunk size the chunks were uploaded with, or null if unknown
+     */
+    data class Upload(
+        val chunkSize: Long?,
+        val chunks: List<RemoteChunk>
+    )
+
+    /**
+     * Starts the journal of an upload, once its upload folder exists on the server, replacing any earlier journal
+     * of the upload. The journal is replaced as a whole, so it lists either the earlier chunks or [chunks], even if
+     * the process dies meanwhile; chunks to delete from the server must be left out before they are deleted.
+     *
+     * @param chunkSize chunk size of the chunks uploaded from now on, or null if they have different sizes
+     * @param chunks chunks on the server that are kept
+     */
+    @JvmOverloads
+    @Synchronized
+    fun start(
+        uploadId: String,
+        uploadFolderUri: String,
+        chunkSize: Long? = null,
+        chunks: List<RemoteChunk> = emptyList()
+    ) {
+        val text =
+            buildString {
+                append(uploadFolderUri).append('\n')
+                append(chunkSize ?: UNKNOWN_CHUNK_SIZE).append('\n')
+                chunks.forEach { append(it.id).append(SEPARATOR).append(it.length).append('\n') }
+            }
+        val temp = File(directory, uploadId + TEMP_SUFFIX)
+        try {
+            directory.mkdirs()
+            temp.writeText(text)
+            if (!temp.renameTo(journalFile(uploadId))) {
+                throw IOException("Cannot rename $temp")
+            }
+        } catch (e: IOException) {
+            // without journal, the upload is resumed from a listing of the upload folder
+            Log_OC.e(TAG, "Error writing upload journal $uploadId", e)
+            temp.delete()
+            journalFile(uploadId).delete()
+        }
+    }
+
+    /**
+     * Records a chunk acknowledged by the server; a chunk recorded again replaces the earlier record.
+     */
+    @Synchronized
+    fun record(
+        uploadId: String,
+        id: Int,
+        length: Long
+    ) {
+        append(uploadId, "$id$SEPARATOR$length\n")
+    }
+
+    /**
+     * @return chunks on the server, or null if the journal of the upload is missing or inconsistent
+     */
+    @Synchronized
+    fun read(
+        uploadId: String,
+        uploadFolderUri: String
+    ): Upload? {
+        val lines =
+            try {
+                journalFile(uploadId).takeIf { it.isFile }?.readLines()
+            } catch (e: IOException) {
+                Log_OC.e(TAG, "Error reading upload journal $uploadId", e)
+                null
+            }
+
+        val chunkSize = lines?.getOrNull(1)?.toLongOrNull()
+        if (lines.isNullOrEmpty() || lines.first() != uploadFolderUri || chunkSize == null) {
+            return null
+        }
+
+        val chunks = lines.drop(2).filter { it.isNotBlank() }.map { parse(it) ?: return null }
+        return Upload(
+            chunkSize.takeIf { it != UNKNOWN_CHUNK_SIZE },
+            chunks.associateBy(RemoteChunk::id).values.toList()
+        )
+    }
+
+    @Synchronized
+    fun delete(uploadId: String) {
+        journalFile(uploadId).delete()
+    }
+
+    private fun parse(line: String): RemoteChunk? {
+        val parts = line.split(SEPARATOR)
+        val id = parts.getOrNull(0)?.toIntOrNull()
+        val length = parts.getOrNull(1)?.toLongOrNull()
+        return if (parts.size == 2 && id != null && length != null) RemoteChunk(id, length) else null
+    }
+
+    private fun append(
+        uploadId: String,
+        text: String
+    ) {
+        val journalFile = journalFile(uploadId)
+        if (!journalFile.isFile) {
+            // not started, or dropped after an error
+            return
+        }
+        try {
+            FileWriter(journalFile, true).use { it.write(text) }
+        } catch (e: IOException) {
+            // without journal, the upload is resumed from a listing of the upload folder
+            Log_OC.e(TAG, "Error writing upload journal $uploadId", e)
+            journalFile.delete()
+        }
+    }
+
+    private fun journalFile(uploadId: String) = File(directory, uploadId)
+}
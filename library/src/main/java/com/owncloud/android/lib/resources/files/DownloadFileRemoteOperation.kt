@@ -6,13 +6,19 @@
  */
 package com.owncloud.android.lib.resources.files
 
+import com.nextcloud.common.BandwidthLimiter
 import com.nextcloud.common.NextcloudClient
 import com.nextcloud.common.SessionTimeOut
 import com.nextcloud.common.defaultSessionTimeOut
 import com.nextcloud.operations.GetMethod
+import com.owncloud.android.lib.common.network.ChecksumAlgorithm
+import com.owncloud.android.lib.common.network.ChecksumMismatchException
 import com.owncloud.android.lib.common.network.OnDatatransferProgressListener
+import com.owncloud.android.lib.common.network.ProgressDispatcher
+import com.owncloud.android.lib.common.network.StreamingChecksum
 import com.owncloud.android.lib.common.network.WebdavUtils
 import com.owncloud.android.lib.common.operations.OperationCancelledException
+import com.owncloud.android.lib.common.operations.OperationPriority
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import com.owncloud.android.lib.common.utils.Log_OC
@@ -22,7 +28,8 @@ import java.io.IOException
 import java.nio.file.Files
 import java.nio.file.Path
 import java.nio.file.Paths
-import java.util.concurrent.ConcurrentHashMap
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
 import java.util.concurrent.atomic.AtomicBoolean
 
 @Suppress("NestedBlockDepth", "TooGenericExceptionCaught", "ThrowsCount")
@@ -33,23 +40,64 @@ class DownloadFileRemoteOperation
         private val temporalFolderPath: String?,
         private val fileSizeInBytes: Long? = null
     ) : RemoteOperation<Any>() {
-        private val dataTransferListeners = ConcurrentHashMap.newKeySet<OnDatatransferProgressListener>()
+        private val progressDispatcher = ProgressDispatcher(tmpPath)
         private val cancellationRequested = AtomicBoolean(false)
         var modificationTimestamp: Long = 0
             private set
         var etag: String = ""
             private set
 
+        /**
+         * Bytes kept from an earlier, interrupted download of the file instead of being downloaded again.
+         */
+        var resumedBytes: Long = 0
+            private set
+
+        /**
+         * Number of byte ranges downloaded concurrently for files of at least [segmentedMinSize] bytes; 1, the
+         * default, downloads files in one piece. Segments need the size of the file, given to the constructor.
+         */
+        var segments: Int = 1
+            set(value) {
+                require(value >= 1) { "segments must be at least 1" }
+                field = value
+            }
+
+        /**
+         * Size from which files are downloaded in [segments].
+         */
+        var segmentedMinSize: Long = DEFAULT_SEGMENTED_MIN_SIZE
+
+        /**
+         * Algorithm the download is hashed with while it is written, and verified against the checksum of the same
+         * algorithm in the `OC-Checksum` header of the server, if it sends one; null, the default, does not hash the
+         * download. Resumed and segmented downloads are not hashed, as that would read the file on disk again.
+         */
+        var checksumAlgorithm: ChecksumAlgorithm? = null
+
+        /**
+         * Checksum of the downloaded file as `TYPE:checksum`, or null if it was not hashed.
+         */
+        var checksum: String? = null
+            private set
+
+        override fun getPriority(): OperationPriority = OperationPriority.BULK_TRANSFER
+
         @Suppress("DEPRECATION")
         override fun run(client: NextcloudClient): RemoteOperationResult<Any> {
             val targetPath = Paths.get(tmpPath)
+            resumedBytes = 0
+            checksum = null
             return try {
                 val parent = targetPath.parent ?: throw IOException("No parent directory for: $targetPath")
                 Files.createDirectories(parent)
-                val getMethod = GetMethod(client.getFilesDavUri(remotePath), false)
-                val status = downloadFile(getMethod, client, targetPath)
-                RemoteOperationResult<Any>(isSuccess(status), getMethod).also {
-                    Log_OC.i(TAG, "Download of $remotePath to $targetPath: ${it.logMessage}")
+                val getMethod = downloadFile(client, targetPath)
+                RemoteOperationResult<Any>(isSuccess(getMethod.getStatusCode()), getMethod).also {
+                    Log_OC.i(TAG, "Download of $remotePath to $targetPath, resumed $resumedBytes B: ${it.logMessage}")
+                }
+            } catch (e: ChecksumMismatchException) {
+                RemoteOperationResult<Any>(RemoteOperationResult.ResultCode.CHECKSUM_MISMATCH).also {
+                    Log_OC.e(TAG, "Download of $remotePath to $targetPath: ${e.message}", e)
                 }
             } catch (e: Exception) {
                 RemoteOperationResult<Any>(e).also {
@@ -59,30 +107,184 @@ class DownloadFileRemoteOperation
         }
 
         // region private methods
+
+        /**
+         * Downloads the file to a partial file next to [targetPath], moved to [targetPath] once complete. A partial
+         * file left by an interrupted download is resumed with a range request, if the file did not change since.
+         *
+         * @return method of the last request
+         */
+        @Suppress("ReturnCount")
         @Throws(IOException::class, OperationCancelledException::class, CreateLocalFileException::class)
         private fun downloadFile(
-            getMethod: GetMethod,
             client: NextcloudClient,
             targetPath: Path
-        ): Int {
+        ): GetMethod {
+            val partPath = Paths.get(targetPath.toString() + PART_SUFFIX)
+            val partEtagPath = Paths.get(targetPath.toString() + PART_ETAG_SUFFIX)
+            val partEtag = readPartEtag(partPath, partEtagPath)
+            val offset = if (partEtag != null) Files.size(partPath) else 0L
+
+            val fileSize = fileSizeInBytes ?: 0L
+            if (partEtag == null && segments > 1 && fileSize > 0 && fileSize >= segmentedMinSize) {
+                try {
+                    return downloadSegmented(client, targetPath, partPath, fileSize)
+                } catch (e: SegmentedDownload.UnusableRangeException) {
+                    Log_OC.w(TAG, "Segmented download of $remotePath not possible, downloading in one piece", e)
+                }
+            }
+
+            val getMethod = GetMethod(client.getFilesDavUri(remotePath), false)
+            if (partEtag != null) {
+                // the server sends the whole file instead if it changed since
+                getMethod.addRequestHeader(RANGE_HEADER, "bytes=$offset-")
+                getMethod.addRequestHeader(IF_RANGE_HEADER, partEtag)
+            }
+
             val sessionTimeOut = calculateSessionTimeOut(fileSizeInBytes)
             val downloadClient = client.withSessionTimeOut(sessionTimeOut)
             val status = downloadClient.execute(getMethod)
+            if (status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE && partEtag != null) {
+                getMethod.releaseConnection()
+                Log_OC.w(TAG, "Partial download of $remotePath does not match the file, starting over")
+                deletePart(partPath, partEtagPath)
+                return downloadFile(client, targetPath)
+            }
             if (!isSuccess(status)) {
                 getMethod.releaseConnection()
-                return status
+                return getMethod
             }
 
             try {
-                writeResponseToFile(getMethod, targetPath)
+                // a full response replaces the partial file
+                resumedBytes = if (status == HttpStatus.SC_PARTIAL_CONTENT) contentRangeStart(getMethod) else 0
+                if (status == HttpStatus.SC_PARTIAL_CONTENT && resumedBytes != offset) {
+                    throw IOException("Unexpected range ${getMethod.getResponseHeader(CONTENT_RANGE_HEADER)}")
+                }
+                writePartEtag(getMethod, partEtagPath)
+
+                val bandwidthLimiter = BandwidthLimiter.forAccount(client.delegate.userId, client.baseUri)
+                val fileChecksum = checksumAlgorithm?.takeIf { resumedBytes == 0L }?.let { StreamingChecksum(it) }
+                writeResponseToFile(getMethod, partPath, bandwidthLimiter, fileChecksum)
+                fileChecksum?.let { verifyChecksum(getMethod, it, partPath, partEtagPath) }
+                Files.move(partPath, targetPath, StandardCopyOption.REPLACE_EXISTING)
+                Files.deleteIfExists(partEtagPath)
                 readMetadata(getMethod)
             } finally {
                 getMethod.releaseConnection()
             }
 
-            return status
+            return getMethod
+        }
+
+        /**
+         * Downloads the file in [segments]. The partial file is deleted if the download fails, as it has holes.
+         *
+         * @return method of the first segment
+         */
+        @Throws(IOException::class, OperationCancelledException::class)
+        private fun downloadSegmented(
+            client: NextcloudClient,
+            targetPath: Path,
+            partPath: Path,
+            fileSize: Long
+        ): GetMethod {
+            val segmentedDownload =
+                SegmentedDownload(
+                    client.withSessionTimeOut(calculateSessionTimeOut(fileSize / segments)),
+                    client.getFilesDavUri(remotePath),
+                    fileSize,
+                    segments,
+                    partPath,
+                    BandwidthLimiter.forAccount(client.delegate.userId, client.baseUri),
+                    progressDispatcher,
+                    cancellationRequested
+                )
+            val getMethod =
+                try {
+                    segmentedDownload.download()
+                } catch (e: Exception) {
+                    Files.deleteIfExists(partPath)
+                    throw e
+                }
+            Files.move(partPath, targetPath, StandardCopyOption.REPLACE_EXISTING)
+            readMetadata(getMethod)
+            return getMethod
+        }
+
+        /**
+         * Compares the checksum of the downloaded file with the one sent by the server. The partial file is deleted if
+         * they differ, so that it is not resumed.
+         */
+        @Throws(ChecksumMismatchException::class)
+        private fun verifyChecksum(
+            getMethod: GetMethod,
+            fileChecksum: StreamingChecksum,
+            partPath: Path,
+            partEtagPath: Path
+        ) {
+            val actual = fileChecksum.getValue(Files.size(partPath)) ?: return
+            checksum = fileChecksum.algorithm.headerName + ":" + actual
+
+            val expected = fileChecksum.algorithm.findIn(getMethod.getResponseHeader(ChecksumAlgorithm.HEADER))
+            if (expected != null && expected != actual) {
+                deletePart(partPath, partEtagPath)
+                throw ChecksumMismatchException(expected, actual)
+            }
+        }
+
+        /**
+         * @return ETag of the download the partial file belongs to, or null if there is no partial file to resume
+         */
+        private fun readPartEtag(
+            partPath: Path,
+            partEtagPath: Path
+        ): String? {
+            val partEtag =
+                if (Files.isRegularFile(partPath) && Files.size(partPath) > 0 && Files.isRegularFile(partEtagPath)) {
+                    String(Files.readAllBytes(partEtagPath), Charsets.UTF_8).trim().ifEmpty { null }
+                } else {
+                    null
+                }
+
+            if (partEtag == null) {
+                deletePart(partPath, partEtagPath)
+            }
+            return partEtag
         }
 
+        /**
+         * Keeps the strong ETag of the response, needed to resume the download with If-Range.
+         */
+        private fun writePartEtag(
+            getMethod: GetMethod,
+            partEtagPath: Path
+        ) {
+            val responseEtag = getMethod.getResponseHeader(ETAG_HEADER)
+            if (responseEtag.isNullOrBlank() || responseEtag.startsWith(WEAK_ETAG_PREFIX)) {
+                Files.deleteIfExists(partEtagPath)
+            } else {
+                Files.write(partEtagPath, responseEtag.toByteArray(Charsets.UTF_8))
+            }
+        }
+
+        private fun deletePart(
+            partPath: Path,
+            partEtagPath: Path
+        ) {
+            Files.deleteIfExists(partPath)
+            Files.deleteIfExists(partEtagPath)
+        }
+
+        private fun contentRangeStart(getMethod: GetMethod): Long =
+            getMethod
+                .getResponseHeader(CONTENT_RANGE_HEADER)
+                ?.let { CONTENT_RANGE.find(it) }
+                ?.groupValues
+                ?.get(1)
+                ?.toLongOrNull()
+                ?: throw IOException("Missing Content-Range in partial response for $remotePath")
+
         @Suppress("ReturnCount")
         private fun calculateSessionTimeOut(fileSizeInBytes: Long?): SessionTimeOut {
             fileSizeInBytes ?: return defaultSessionTimeOut
@@ -96,15 +298,23 @@ class DownloadFileRemoteOperation
 
         private fun writeResponseToFile(
             getMethod: GetMethod,
-            targetPath: Path
+            targetPath: Path,
+            bandwidthLimiter: BandwidthLimiter,
+            fileChecksum: StreamingChecksum?
         ) {
             val responseStream =
                 getMethod.getResponseBodyAsStream()
                     ?: throw IOException("Empty response body for $remotePath")
 
+            val openOptions =
+                if (resumedBytes > 0) {
+                    arrayOf(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                } else {
+                    arrayOf(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                }
             val outputStream =
                 try {
-                    Files.newOutputStream(targetPath)
+                    Files.newOutputStream(targetPath, *openOptions)
                 } catch (ex: IOException) {
                     Log_OC.e(TAG, "Error creating file $targetPath", ex)
                     throw CreateLocalFileException(targetPath.toString(), ex)
@@ -114,26 +324,28 @@ class DownloadFileRemoteOperation
                 }
 
             val totalToTransfer = fileSizeInBytes ?: 0L
-            var totalBytesRead = 0L
-
-            BufferedInputStream(responseStream).use { bis ->
-                outputStream.use { fos ->
-                    val buffer = ByteArray(BUFFER_SIZE)
-                    var bytesRead: Int
-                    while (bis.read(buffer).also { bytesRead = it } != -1) {
-                        if (cancellationRequested.get()) throw OperationCancelledException()
-                        fos.write(buffer, 0, bytesRead)
-                        totalBytesRead += bytesRead
-                        dataTransferListeners.forEach { listener ->
-                            listener.onTransferProgress(
-                                bytesRead.toLong(),
-                                totalBytesRead,
-                                totalToTransfer,
-                                targetPath.toString()
-                            )
+            var totalBytesRead = resumedBytes
+            if (resumedBytes > 0) {
+                progressDispatcher.onResumed(resumedBytes, totalToTransfer)
+            }
+
+            try {
+                BufferedInputStream(responseStream).use { bis ->
+                    outputStream.use { fos ->
+                        val buffer = ByteArray(BUFFER_SIZE)
+                        var bytesRead: Int
+                        while (bis.read(buffer).also { bytesRead = it } != -1) {
+                            if (cancellationRequested.get()) throw OperationCancelledException()
+                            bandwidthLimiter.acquire(bytesRead.toLong())
+                            fileChecksum?.update(totalBytesRead, buffer, 0, bytesRead)
+                            fos.write(buffer, 0, bytesRead)
+                            totalBytesRead += bytesRead
+                            progressDispatcher.onProgress(bytesRead.toLong(), totalBytesRead, totalToTransfer)
                         }
                     }
                 }
+            } finally {
+                progressDispatcher.flush()
             }
         }
 
@@ -154,7 +366,7 @@ class DownloadFileRemoteOperation
             }
         }
 
-        private fun isSuccess(status: Int) = (status == HttpStatus.SC_OK)
+        private fun isSuccess(status: Int) = status == HttpStatus.SC_OK || status == HttpStatus.SC_PARTIAL_CONTENT
 
         private val tmpPath: String
             get() = temporalFolderPath + remotePath
@@ -162,11 +374,11 @@ class DownloadFileRemoteOperation
 
         // region public methods
         fun addProgressListener(listener: OnDatatransferProgressListener) {
-            dataTransferListeners.add(listener)
+            progressDispatcher.addDataTransferProgressListener(listener)
         }
 
         fun removeProgressListener(listener: OnDatatransferProgressListener) {
-            dataTransferListeners.remove(listener)
+            progressDispatcher.removeDataTransferProgressListener(listener)
         }
 
         fun cancel() {
@@ -178,6 +390,17 @@ class DownloadFileRemoteOperation
             private val TAG = DownloadFileRemoteOperation::class.java.simpleName
             private const val BUFFER_SIZE = 4096
 
+            const val DEFAULT_SEGMENTED_MIN_SIZE = 64L * 1024 * 1024
+
+            private const val PART_SUFFIX = ".part"
+            private const val PART_ETAG_SUFFIX = ".part.etag"
+            private const val RANGE_HEADER = "Range"
+            private const val IF_RANGE_HEADER = "If-Range"
+            private const val CONTENT_RANGE_HEADER = "Content-Range"
+            private const val ETAG_HEADER = "ETag"
+            private const val WEAK_ETAG_PREFIX = "W/"
+            private val CONTENT_RANGE = Regex("bytes (\\d+)-\\d+/")
+
             private const val BYTES_PER_GB_LONG = 1_000_000_000L
             private const val READ_TIMEOUT_MIN = 60 * 1000L // 1 min
             private const val READ_TIMEOUT_PER_GB = 3 * 60 * 1000L // 3 min per GB
@@ -7,9 +7,14 @@
  */
 package com.owncloud.android.lib.resources.files;
 
+import com.owncloud.android.lib.common.network.DecompressingMethod;
+import com.owncloud.android.lib.common.network.ResponseCompression;
 import com.owncloud.android.lib.resources.status.NextcloudVersion;
 import com.owncloud.android.lib.resources.status.OCCapability;
 
+import org.apache.commons.httpclient.HttpConnection;
+import org.apache.commons.httpclient.HttpException;
+import org.apache.commons.httpclient.HttpState;
 import org.apache.jackrabbit.webdav.search.SearchInfo;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -58,7 +63,8 @@ import static com.owncloud.android.lib.common.network.WebdavEntry.EXTENDED_PROPE
 import static com.owncloud.android.lib.common.network.WebdavEntry.NAMESPACE_NC;
 import static com.owncloud.android.lib.common.network.WebdavEntry.NAMESPACE_OC;
 
-public class NcSearchMethod extends org.apache.jackrabbit.webdav.client.methods.SearchMethod {
+public class NcSearchMethod extends org.apache.jackrabbit.webdav.client.methods.SearchMethod
+    implements DecompressingMethod {
     private static final String HEADER_CONTENT_TYPE_VALUE = "text/xml";
     private static final String DAV_NAMESPACE = "DAV:";
 
@@ -96,6 +102,12 @@ public class NcSearchMethod extends org.apache.jackrabbit.webdav.client.methods.
         setRequestBody(createQuery(searchInfo.getQuery()));
     }
 
+    @Override
+    protected void readResponseBody(HttpState state, HttpConnection conn) throws IOException, HttpException {
+        super.readResponseBody(state, conn);
+        setResponseStream(ResponseCompression.decode(this, getResponseStream()));
+    }
+
     private Document createQuery(String searchQuery) {
         String internalSearchString = searchQuery;
 
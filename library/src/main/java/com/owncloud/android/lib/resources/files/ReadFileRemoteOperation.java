@@ -9,6 +9,7 @@ package com.owncloud.android.lib.resources.files;
 import com.nextcloud.common.SessionTimeOut;
 import com.nextcloud.common.SessionTimeOutKt;
 import com.owncloud.android.lib.common.OwnCloudClient;
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod;
 import com.owncloud.android.lib.common.network.WebdavEntry;
 import com.owncloud.android.lib.common.network.WebdavUtils;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
@@ -65,7 +66,7 @@ public class ReadFileRemoteOperation extends RemoteOperation {
         /// take the duty of check the server for the current state of the file there
         try {
             // remote request
-            propfind = new PropFindMethod(client.getFilesDavUri(mRemotePath),
+            propfind = new DecompressingPropFindMethod(client.getFilesDavUri(mRemotePath),
                     WebdavUtils.getFilePropSet(),    // PropFind Properties
                     DavConstants.DEPTH_0);
             int status;
@@ -8,6 +8,7 @@
 package com.owncloud.android.lib.resources.files;
 
 import com.owncloud.android.lib.common.OwnCloudClient;
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod;
 import com.owncloud.android.lib.common.network.WebdavEntry;
 import com.owncloud.android.lib.common.network.WebdavUtils;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
@@ -58,7 +59,7 @@ public class ReadFileVersionsRemoteOperation extends RemoteOperation<ArrayList<F
             String uri = client.getDavUri() + "/versions/" + client.getUserId() + "/versions/" + localId;
             DavPropertyNameSet propSet = WebdavUtils.getFileVersionPropSet();
 
-            query = new PropFindMethod(uri, propSet, DavConstants.DEPTH_1);
+            query = new DecompressingPropFindMethod(uri, propSet, DavConstants.DEPTH_1);
             int status = client.executeMethod(query);
 
             // check and process response
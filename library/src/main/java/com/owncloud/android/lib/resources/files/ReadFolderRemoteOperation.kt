@@ -8,14 +8,17 @@
 package com.owncloud.android.lib.resources.files
 
 import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod
 import com.owncloud.android.lib.common.network.WebdavEntry
 import com.owncloud.android.lib.common.network.WebdavUtils
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
+import com.owncloud.android.lib.common.operations.RequestCoalescer
 import com.owncloud.android.lib.common.utils.Log_OC
 import com.owncloud.android.lib.resources.files.model.RemoteFile
 import org.apache.commons.httpclient.HttpStatus
 import org.apache.jackrabbit.webdav.DavConstants
+import org.apache.jackrabbit.webdav.DavMethods
 import org.apache.jackrabbit.webdav.MultiStatus
 import org.apache.jackrabbit.webdav.client.methods.PropFindMethod
 
@@ -23,15 +26,31 @@ class ReadFolderRemoteOperation(
     private val remotePath: String
 ) : RemoteOperation<Any>() {
     @Deprecated("Deprecated in Java")
-    @Suppress("TooGenericExceptionCaught", "DEPRECATION")
     override fun run(client: OwnCloudClient): RemoteOperationResult<Any> {
+        val uri = client.getFilesDavUri(remotePath)
+        val key =
+            RequestCoalescer.key(
+                "${client.userIdPlain}@${client.baseUri}",
+                DavMethods.METHOD_PROPFIND,
+                uri,
+                mapOf(DavConstants.HEADER_DEPTH to DavConstants.DEPTH_1.toString())
+            )
+
+        return RequestCoalescer.execute(key) { fetch(client, uri) }
+    }
+
+    @Suppress("TooGenericExceptionCaught", "DEPRECATION")
+    private fun fetch(
+        client: OwnCloudClient,
+        uri: String
+    ): RemoteOperationResult<Any> {
         var query: PropFindMethod? = null
 
         val result =
             try {
                 query =
-                    PropFindMethod(
-                        client.getFilesDavUri(remotePath),
+                    DecompressingPropFindMethod(
+                        uri,
                         WebdavUtils.getAllPropSet(),
                         DavConstants.DEPTH_1
                     )
@@ -0,0 +1,254 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+import com.nextcloud.common.BandwidthLimiter
+import com.nextcloud.common.NextcloudClient
+import com.nextcloud.operations.GetMethod
+import com.owncloud.android.lib.common.network.ProgressDispatcher
+import com.owncloud.android.lib.common.operations.OperationCancelledException
+import com.owncloud.android.lib.common.utils.Log_OC
+import org.apache.commons.httpclient.HttpStatus
+import java.io.IOException
+import java.io.InputStream
+import java.io.InterruptedIOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorCompletionService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Downloads a file of known size as [segments] byte ranges fetched concurrently over the connection pool of
+ * [client], written with positional writes into [partPath], preallocated to the size of the file.
+ *
+ * A segment which fails is retried alone, from the last byte written, up to [MAX_SEGMENT_ATTEMPTS] times. All
+ * segments must come from the same version of the file: the other segments are requested once the response to the
+ * first one is received, the ETag of the first partial response is sent as `If-Match` by all later requests, and
+ * the ETag and the size in the Content-Range of every response are checked. If the file changed, or if the server
+ * ignores ranges, [UnusableRangeException] is thrown and the file should be downloaded in one piece. Progress of all
+ * segments is reported to [progressDispatcher] as one transfer.
+ */
+@Suppress("ThrowsCount", "LongParameterList")
+internal class SegmentedDownload(
+    private val client: NextcloudClient,
+    private val uri: String,
+    private val fileSize: Long,
+    private val segments: Int,
+    private val partPath: Path,
+    private val bandwidthLimiter: BandwidthLimiter,
+    private val progressDispatcher: ProgressDispatcher,
+    private val cancellationRequested: AtomicBoolean
+) {
+    companion object {
+        private val TAG = SegmentedDownload::class.java.simpleName
+        private const val MAX_SEGMENT_ATTEMPTS = 3
+        private const val BUFFER_SIZE = 64 * 1024
+        private const val RANGE_HEADER = "Range"
+        private const val CONTENT_RANGE_HEADER = "Content-Range"
+        private const val ETAG_HEADER = "ETag"
+        private const val IF_MATCH_HEADER = "If-Match"
+        private const val WEAK_ETAG_PREFIX = "W/"
+        private val CONTENT_RANGE_SIZE = Regex("/(\\d+)$")
+
+        /**
+         * Splits [fileSize] bytes into at most [segments] ranges of about the same size.
+         */
+        fun split(
+            fileSize: Long,
+            segments: Int
+        ): List<LongRange> {
+            val segmentSize = (fileSize + segments - 1) / segments
+            return (0 until segments)
+                .map { it * segmentSize until minOf((it + 1) * segmentSize, fileSize) }
+                .filter { !it.isEmpty() }
+        }
+    }
+
+    /**
+     * Response to a range request which cannot be used for a segment.
+     */
+    class UnusableRangeException(
+        message: String
+    ) : IOException(message)
+
+    private val transferred = AtomicLong()
+    private val failed = AtomicBoolean(false)
+    private val etagLock = Any()
+    private val firstResponse = CountDownLatch(1)
+
+    @Volatile
+    private var etag: String? = null
+    private var etagKnown = false
+
+    /**
+     * @return method of the first segment, holding the status and headers of the download
+     */
+    @Throws(IOException::class, OperationCancelledException::class)
+    fun download(): GetMethod {
+        val ranges = split(fileSize, segments)
+        val executor = Executors.newFixedThreadPool(ranges.size)
+        val completionService = ExecutorCompletionService<GetMethod>(executor)
+        try {
+            RandomAccessFile(partPath.toFile(), "rw").use { raf ->
+                raf.setLength(fileSize)
+                val channel = raf.channel
+                val futures = ranges.map { range -> completionService.submit { downloadSegment(channel, range) } }
+                repeat(ranges.size) { takeCompleted(completionService) }
+                return futures.first().get()
+            }
+        } finally {
+            failed.set(true)
+            executor.shutdownNow()
+            progressDispatcher.flush()
+        }
+    }
+
+    private fun takeCompleted(completionService: ExecutorCompletionService<GetMethod>) {
+        try {
+            completionService.take().get()
+        } catch (e: ExecutionException) {
+            failed.set(true)
+            throw e.cause as? IOException ?: e.cause as? OperationCancelledException ?: IOException(e.cause)
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw InterruptedIOException("Interrupted while waiting for segments").apply { initCause(e) }
+        }
+    }
+
+    private fun downloadSegment(
+        channel: FileChannel,
+        range: LongRange
+    ): GetMethod {
+        val first = range.first == 0L
+        if (!first) {
+            awaitFirstResponse()
+        }
+        var position = range.first
+        var attempt = 1
+        while (true) {
+            val method = GetMethod(uri, false)
+            method.addRequestHeader(RANGE_HEADER, "bytes=$position-${range.last}")
+            etag?.takeUnless { it.startsWith(WEAK_ETAG_PREFIX) }?.let {
+                method.addRequestHeader(IF_MATCH_HEADER, it)
+            }
+            try {
+                try {
+                    checkResponse(method, client.execute(method))
+                } finally {
+                    if (first) {
+                        firstResponse.countDown()
+                    }
+                }
+                position = copy(method, channel, position, range.last)
+                if (position > range.last) {
+                    return method
+                }
+                throw IOException("Segment $range of $uri ended at $position")
+            } catch (e: IOException) {
+                if (e is UnusableRangeException || failed.get() || attempt >= MAX_SEGMENT_ATTEMPTS) {
+                    throw e
+                }
+                Log_OC.w(TAG, "Retrying segment $range of $uri from $position: ${e.message}")
+                attempt++
+            } finally {
+                method.releaseConnection()
+            }
+        }
+    }
+
+    private fun awaitFirstResponse() {
+        try {
+            firstResponse.await()
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw InterruptedIOException("Interrupted while waiting for first segment").apply { initCause(e) }
+        }
+        if (failed.get()) {
+            throw InterruptedIOException("Other segment of $uri failed")
+        }
+    }
+
+    private fun checkResponse(
+        method: GetMethod,
+        status: Int
+    ) {
+        when (status) {
+            HttpStatus.SC_PARTIAL_CONTENT -> {
+                val size =
+                    method
+                        .getResponseHeader(CONTENT_RANGE_HEADER)
+                        ?.let { CONTENT_RANGE_SIZE.find(it) }
+                        ?.groupValues
+                        ?.get(1)
+                        ?.toLongOrNull()
+                if (size != fileSize) {
+                    throw UnusableRangeException("Size of $uri changed from $fileSize to $size")
+                }
+                checkEtag(method.getResponseHeader(ETAG_HEADER))
+            }
+            HttpStatus.SC_OK -> throw UnusableRangeException("Server ignored range request for $uri")
+            HttpStatus.SC_PRECONDITION_FAILED -> throw UnusableRangeException("File changed during download of $uri")
+            else -> throw IOException("Segment of $uri failed with status $status")
+        }
+    }
+
+    /**
+     * Keeps the ETag of the first partial response, and checks that all others have the same.
+     */
+    private fun checkEtag(responseEtag: String?) {
+        synchronized(etagLock) {
+            if (!etagKnown) {
+                etag = responseEtag
+                etagKnown = true
+            } else if (etag != responseEtag) {
+                throw UnusableRangeException("File changed during download of $uri")
+            }
+        }
+    }
+
+    /**
+     * @return position after the last byte written
+     */
+    private fun copy(
+        method: GetMethod,
+        channel: FileChannel,
+        start: Long,
+        last: Long
+    ): Long {
+        val input: InputStream = method.getResponseBodyAsStream() ?: throw IOException("Empty response for $uri")
+        val buffer = ByteArray(BUFFER_SIZE)
+        var position = start
+        input.use {
+            while (position <= last) {
+                if (cancellationRequested.get()) {
+                    throw OperationCancelledException()
+                }
+                if (failed.get()) {
+                    throw InterruptedIOException("Other segment of $uri failed")
+                }
+                val read = it.read(buffer, 0, minOf(BUFFER_SIZE.toLong(), last - position + 1).toInt())
+                if (read == -1) {
+                    break
+                }
+                bandwidthLimiter.acquire(read.toLong())
+                val byteBuffer = ByteBuffer.wrap(buffer, 0, read)
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer, position + byteBuffer.position())
+                }
+                position += read
+                progressDispatcher.onProgress(read.toLong(), transferred.addAndGet(read.toLong()), fileSize)
+            }
+        }
+        return position
+    }
+}
@@ -9,18 +9,25 @@
  */
 package com.owncloud.android.lib.resources.files;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import com.nextcloud.common.BandwidthLimiter;
+import com.nextcloud.common.RetryPolicy;
 import com.owncloud.android.lib.common.OwnCloudClient;
+import com.owncloud.android.lib.common.network.ChecksumAlgorithm;
 import com.owncloud.android.lib.common.network.FileRequestEntity;
 import com.owncloud.android.lib.common.network.OnDatatransferProgressListener;
 import com.owncloud.android.lib.common.network.ProgressiveDataTransfer;
+import com.owncloud.android.lib.common.network.StreamingChecksum;
 import com.owncloud.android.lib.common.operations.OperationCancelledException;
+import com.owncloud.android.lib.common.operations.OperationPriority;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
 
 import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
 import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.methods.PutMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
@@ -40,7 +47,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 
 public class UploadFileRemoteOperation extends RemoteOperation<String> {
-    private static final String OC_TOTAL_LENGTH_HEADER = "OC-Total-Length";
+    protected static final String OC_TOTAL_LENGTH_HEADER = "OC-Total-Length";
     private static final String IF_MATCH_HEADER = "If-Match";
     protected static final String RESULT_ETAG_HEADER = "etag";
     protected static final String OC_X_OC_MTIME_HEADER = "X-OC-Mtime";
@@ -55,6 +62,8 @@ public class UploadFileRemoteOperation extends RemoteOperation<String> {
     PutMethod putMethod = null;
     private String requiredEtag = null;
     String token = null;
+    ChecksumAlgorithm checksumAlgorithm = null;
+    String checksum = null;
 
     final AtomicBoolean cancellationRequested = new AtomicBoolean(false);
     RemoteOperationResult.ResultCode cancellationReason = null;
@@ -134,20 +143,18 @@ public class UploadFileRemoteOperation extends RemoteOperation<String> {
         this.creationTimestamp = creationTimestamp;
     }
 
+    @Override
+    protected OperationPriority getPriority() {
+        return OperationPriority.BULK_TRANSFER;
+    }
+
     @Override
     protected RemoteOperationResult<String> run(OwnCloudClient client) {
         RemoteOperationResult<String> result;
-        DefaultHttpMethodRetryHandler oldRetryHandler =
-                (DefaultHttpMethodRetryHandler) client.getParams().getParameter(HttpMethodParams.RETRY_HANDLER);
 
         try {
-            if (disableRetries) {
-                // prevent that uploads are retried automatically by network library
-                DefaultHttpMethodRetryHandler noRetryHandler = new DefaultHttpMethodRetryHandler(0, false);
-                client.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, noRetryHandler);
-            }
-
             putMethod = new PutMethod(client.getFilesDavUri(remotePath));
+            applyRetryPolicy(putMethod);
 
             if (token != null) {
                 putMethod.addRequestHeader(E2E_TOKEN, token);
@@ -172,15 +179,24 @@ public class UploadFileRemoteOperation extends RemoteOperation<String> {
             } else {
                 result = new RemoteOperationResult<>(e);
             }
-        } finally {
-            if (disableRetries) {
-                // reset previous retry handler
-                client.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, oldRetryHandler);
-            }
         }
         return result;
     }
 
+    /**
+     * Prevents that the method is retried automatically by the network library or the retry policy of the client,
+     * if retries are disabled.
+     * <p>
+     * Set on the method instead of the client, as the client may be shared with concurrent operations.
+     */
+    protected void applyRetryPolicy(HttpMethod method) {
+        if (disableRetries) {
+            DefaultHttpMethodRetryHandler noRetryHandler = new DefaultHttpMethodRetryHandler(0, false);
+            method.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, noRetryHandler);
+            method.getParams().setBooleanParameter(RetryPolicy.PARAM_RETRY_DISABLED, true);
+        }
+    }
+
     public boolean isSuccess(int status) {
         return ((status == HttpStatus.SC_OK || status == HttpStatus.SC_CREATED ||
                 status == HttpStatus.SC_NO_CONTENT));
@@ -189,10 +205,19 @@ public class UploadFileRemoteOperation extends RemoteOperation<String> {
     protected RemoteOperationResult<String> uploadFile(OwnCloudClient client) throws IOException {
         int status;
         RemoteOperationResult<String> result;
+        checksum = null;
 
         try {
             File f = new File(localPath);
-            entity = new FileRequestEntity(f, mimeType);
+            FileRequestEntity fileEntity = new FileRequestEntity(f, mimeType);
+            fileEntity.setBandwidthLimiter(BandwidthLimiter.forAccount(client.getUserIdPlain(),
+                                                                     client.getBaseUri()));
+            StreamingChecksum fileChecksum = null;
+            if (checksumAlgorithm != null) {
+                fileChecksum = new StreamingChecksum(checksumAlgorithm);
+                fileEntity.setChecksum(fileChecksum);
+            }
+            entity = fileEntity;
             synchronized (dataTransferListeners) {
                 ((ProgressiveDataTransfer) entity)
                         .addDataTransferProgressListeners(dataTransferListeners);
@@ -214,6 +239,9 @@ public class UploadFileRemoteOperation extends RemoteOperation<String> {
             status = client.executeMethod(putMethod);
 
             result = new RemoteOperationResult<>(isSuccess(status), putMethod);
+            if (result.isSuccess() && fileChecksum != null) {
+                checksum = fileChecksum.getHeaderValue(f.length());
+            }
 
             final Header resultEtagHeader = putMethod.getResponseHeader(RESULT_ETAG_HEADER);
             if (resultEtagHeader != null) {
@@ -228,6 +256,30 @@ public class UploadFileRemoteOperation extends RemoteOperation<String> {
         return result;
     }
 
+    /**
+     * Hashes the file with the given algorithm while it is uploaded, see {@link #getChecksum()}. Chunked uploads send
+     * the checksum to the server in the {@code OC-Checksum} header when assembling the file; a single request cannot,
+     * as its headers are sent before the file is read.
+     * <p>
+     * The checksum is only computed if the whole file is sent in order by one run: not when a chunked upload resumes
+     * after chunks uploaded earlier, nor when it uploads chunks in parallel, see
+     * {@link ChunkedFileUploadRemoteOperation#setParallelChunks(int)}.
+     *
+     * @param checksumAlgorithm algorithm, or null to not hash the file
+     */
+    public void setChecksumAlgorithm(@Nullable ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+    }
+
+    /**
+     * @return checksum of the uploaded file as {@code TYPE:checksum}, or null if no checksum algorithm was set or the
+     * file was not hashed as a whole in this upload
+     */
+    @Nullable
+    public String getChecksum() {
+        return checksum;
+    }
+
     public Set<OnDatatransferProgressListener> getDataTransferListeners() {
         return dataTransferListeners;
     }
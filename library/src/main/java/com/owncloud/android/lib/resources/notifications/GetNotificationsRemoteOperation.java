@@ -13,8 +13,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import com.nextcloud.common.ConditionalRequestCache;
 import com.nextcloud.common.NextcloudClient;
 import com.nextcloud.operations.GetMethod;
+import com.owncloud.android.lib.common.operations.OperationPriority;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
 import com.owncloud.android.lib.common.utils.Log_OC;
@@ -22,6 +24,7 @@ import com.owncloud.android.lib.resources.notifications.models.Notification;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides the remote notifications from the server handling the following data structure
@@ -43,43 +46,64 @@ public class GetNotificationsRemoteOperation extends RemoteOperation<List<Notifi
 
     @Override
     public RemoteOperationResult<List<Notification>> run(NextcloudClient client) {
-        RemoteOperationResult<List<Notification>> result;
-        int status;
-        GetMethod get = null;
-        List<Notification> notifications;
-        String url = client.getBaseUri() + OCS_ROUTE_LIST_V12_AND_UP;
+        GetMethod get = new GetMethod(client.getBaseUri() + OCS_ROUTE_LIST_V12_AND_UP, true);
+        ConditionalRequestCache.Request request = ConditionalRequestCache.prepare(client, get);
 
         // get the notifications
         try {
-            get = new GetMethod(url, true);
+            return handleResponse(get, request, client.execute(get));
+        } catch (Exception e) {
+            get.releaseConnection();
+            return handleException(e);
+        }
+    }
 
-            status = client.execute(get);
-            String response = get.getResponseBodyAsString();
+    @Override
+    protected CompletableFuture<RemoteOperationResult<List<Notification>>> runAsync(NextcloudClient client,
+                                                                                    OperationPriority priority) {
+        GetMethod get = new GetMethod(client.getBaseUri() + OCS_ROUTE_LIST_V12_AND_UP, true);
+        ConditionalRequestCache.Request request = ConditionalRequestCache.prepare(client, get);
 
-            if (get.isSuccess()) {
-                result = new RemoteOperationResult<>(true, get);
-                Log_OC.d(TAG, "Successful response: " + response);
+        return get.executeAsync(client).thenApply(status -> handleResponse(get, request, status));
+    }
+
+    private RemoteOperationResult<List<Notification>> handleResponse(GetMethod get,
+                                                                     ConditionalRequestCache.Request request,
+                                                                     int status) {
+        RemoteOperationResult<List<Notification>> result;
+
+        try {
+            ConditionalRequestCache.Response<List<Notification>> response =
+                request.resolve(status, method -> parseResult(method.getResponseBodyAsString()));
 
-                // Parse the response
-                notifications = parseResult(response);
-                result.setResultData(notifications);
+            if (response.isFromCache()) {
+                result = new RemoteOperationResult<>(true, get);
+                Log_OC.d(TAG, "Notifications not modified");
+                result.setResultData(response.getData());
+            } else if (get.isSuccess()) {
+                result = new RemoteOperationResult<>(true, get);
+                Log_OC.d(TAG, "Successful response");
+                result.setResultData(response.getData());
             } else {
                 result = new RemoteOperationResult<>(false, get);
                 Log_OC.e(TAG, "Failed response while getting user notifications ");
-                Log_OC.e(TAG, "*** status code: " + status + " ; response message: " + response);
+                String responseBody = get.getResponseBodyAsString();
+                Log_OC.e(TAG, "*** status code: " + status + " ; response message: " + responseBody);
             }
         } catch (Exception e) {
-            result = new RemoteOperationResult<>(e);
-            Log_OC.e(TAG, "Exception while getting remote notifications", e);
+            result = handleException(e);
         } finally {
-            if (get != null) {
-                get.releaseConnection();
-            }
+            get.releaseConnection();
         }
 
         return result;
     }
 
+    private RemoteOperationResult<List<Notification>> handleException(Exception e) {
+        Log_OC.e(TAG, "Exception while getting remote notifications", e);
+        return new RemoteOperationResult<>(e);
+    }
+
     private List<Notification> parseResult(String response) {
         JsonObject jo = (JsonObject) JsonParser.parseString(response);
         JsonArray jsonDataArray = jo.getAsJsonObject(NODE_OCS).getAsJsonArray(NODE_DATA);
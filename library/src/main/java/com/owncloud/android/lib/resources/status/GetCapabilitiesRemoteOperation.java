@@ -18,6 +18,7 @@ import com.nextcloud.operations.GetMethod;
 import com.owncloud.android.lib.common.OwnCloudClient;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
+import com.owncloud.android.lib.common.operations.RequestCoalescer;
 import com.owncloud.android.lib.common.utils.Log_OC;
 
 import org.apache.commons.httpclient.Header;
@@ -28,6 +29,7 @@ import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * Get the Capabilities from the server
@@ -204,18 +206,20 @@ public class GetCapabilitiesRemoteOperation extends RemoteOperation<OCCapability
 
     @Override
     public RemoteOperationResult<OCCapability> run(NextcloudClient client) {
+        String uri = buildRequestUri(client.getBaseUri());
+        String key = getCoalescingKey(client.getUserIdPlain() + "@" + client.getBaseUri(), uri);
+
+        return RequestCoalescer.execute(key, () -> fetch(client, uri));
+    }
+
+    private RemoteOperationResult<OCCapability> fetch(NextcloudClient client, String uri) {
         RemoteOperationResult<OCCapability> result;
         int status;
         GetMethod get = null;
 
         try {
-            Uri requestUri = client.getBaseUri();
-            Uri.Builder uriBuilder = requestUri.buildUpon();
-            uriBuilder.appendEncodedPath(OCS_ROUTE);    // avoid starting "/" in this method
-            uriBuilder.appendQueryParameter(PARAM_FORMAT, VALUE_FORMAT);
-
             // Get Method
-            get = new GetMethod(uriBuilder.build().toString(), true);
+            get = new GetMethod(uri, true);
 
             if (null != currentCapability && !"".equals(currentCapability.getEtag())) {
                 get.addRequestHeader(OCS_ETAG_HEADER, currentCapability.getEtag());
@@ -264,18 +268,20 @@ public class GetCapabilitiesRemoteOperation extends RemoteOperation<OCCapability
 
     @Override
     protected RemoteOperationResult<OCCapability> run(OwnCloudClient client) {
+        String uri = buildRequestUri(client.getBaseUri());
+        String key = getCoalescingKey(client.getUserIdPlain() + "@" + client.getBaseUri(), uri);
+
+        return RequestCoalescer.execute(key, () -> fetch(client, uri));
+    }
+
+    private RemoteOperationResult<OCCapability> fetch(OwnCloudClient client, String uri) {
         RemoteOperationResult<OCCapability> result;
         int status;
         org.apache.commons.httpclient.methods.GetMethod get = null;
 
         try {
-            Uri requestUri = client.getBaseUri();
-            Uri.Builder uriBuilder = requestUri.buildUpon();
-            uriBuilder.appendEncodedPath(OCS_ROUTE);    // avoid starting "/" in this method
-            uriBuilder.appendQueryParameter(PARAM_FORMAT, VALUE_FORMAT);
-
             // Get Method
-            get = new org.apache.commons.httpclient.methods.GetMethod(uriBuilder.build().toString());
+            get = new org.apache.commons.httpclient.methods.GetMethod(uri);
             get.addRequestHeader(OCS_API_HEADER, OCS_API_HEADER_VALUE);
 
             if (null != currentCapability && !"".equals(currentCapability.getEtag())) {
@@ -327,6 +333,26 @@ public class GetCapabilitiesRemoteOperation extends RemoteOperation<OCCapability
         return result;
     }
 
+    private String buildRequestUri(Uri baseUri) {
+        Uri.Builder uriBuilder = baseUri.buildUpon();
+        uriBuilder.appendEncodedPath(OCS_ROUTE);    // avoid starting "/" in this method
+        uriBuilder.appendQueryParameter(PARAM_FORMAT, VALUE_FORMAT);
+        return uriBuilder.build().toString();
+    }
+
+    /**
+     * Requests only share a response if they were sent with the same ETag, as the outcome depends on it.
+     */
+    private String getCoalescingKey(String account, String uri) {
+        if (null != currentCapability && !"".equals(currentCapability.getEtag())) {
+            return RequestCoalescer.key(account,
+                                        "GET",
+                                        uri,
+                                        Collections.singletonMap(OCS_ETAG_HEADER, currentCapability.getEtag()));
+        }
+        return RequestCoalescer.key(account, "GET", uri);
+    }
+
     private OCCapability parseResponse(String response) throws JSONException {
         OCCapability capability = new OCCapability();
 
@@ -8,6 +8,7 @@
 package com.owncloud.android.lib.resources.tags
 
 import com.owncloud.android.lib.common.OwnCloudClient
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod
 import com.owncloud.android.lib.common.network.WebdavEntry.Companion.EXTENDED_PROPERTY_NAME_REMOTE_ID
 import com.owncloud.android.lib.common.network.WebdavEntry.Companion.EXTENDED_PROPERTY_SYSTEM_TAGS_COLOR
 import com.owncloud.android.lib.common.network.WebdavEntry.Companion.NAMESPACE_NC
@@ -16,7 +17,6 @@ import com.owncloud.android.lib.common.network.WebdavEntry.Companion.SHAREES_DIS
 import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import org.apache.commons.httpclient.HttpStatus
-import org.apache.jackrabbit.webdav.client.methods.PropFindMethod
 import org.apache.jackrabbit.webdav.property.DavPropertyNameSet
 import org.apache.jackrabbit.webdav.xml.Namespace
 
@@ -35,7 +35,7 @@ class GetTagsRemoteOperation : RemoteOperation<List<Tag>>() {
             }
 
         val propFindMethod =
-            PropFindMethod(
+            DecompressingPropFindMethod(
                 client.baseUri.toString() + TAG_URL,
                 propSet,
                 1
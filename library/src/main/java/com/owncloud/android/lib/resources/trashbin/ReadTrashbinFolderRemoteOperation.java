@@ -8,6 +8,7 @@
 package com.owncloud.android.lib.resources.trashbin;
 
 import com.owncloud.android.lib.common.OwnCloudClient;
+import com.owncloud.android.lib.common.network.DecompressingPropFindMethod;
 import com.owncloud.android.lib.common.network.WebdavEntry;
 import com.owncloud.android.lib.common.network.WebdavUtils;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
@@ -58,7 +59,9 @@ public class ReadTrashbinFolderRemoteOperation extends RemoteOperation<List<Tras
             String baseUri = client.getDavUri() + "/trashbin/" + client.getUserId() + "/trash";
             DavPropertyNameSet propSet = WebdavUtils.getTrashbinPropSet();
                 
-            query = new PropFindMethod(baseUri + WebdavUtils.encodePath(remotePath), propSet, DavConstants.DEPTH_1);
+            query = new DecompressingPropFindMethod(baseUri + WebdavUtils.encodePath(remotePath),
+                                                    propSet,
+                                                    DavConstants.DEPTH_1);
             int status = client.executeMethod(query);
 
             // check and process response
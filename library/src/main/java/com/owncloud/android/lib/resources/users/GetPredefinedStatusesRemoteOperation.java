@@ -15,8 +15,6 @@ import com.owncloud.android.lib.common.utils.Log_OC;
 import com.owncloud.android.lib.ocs.ServerResponse;
 import com.owncloud.android.lib.resources.OCSRemoteOperation;
 
-import org.apache.commons.httpclient.HttpStatus;
-
 import java.util.ArrayList;
 
 /**
@@ -38,20 +36,17 @@ public class GetPredefinedStatusesRemoteOperation extends OCSRemoteOperation<Arr
             // remote request
             getMethod = new GetMethod(client.getBaseUri() + GET_STATUS_URL + JSON_FORMAT, true);
 
-            int status = client.execute(getMethod);
-
-            if (status == HttpStatus.SC_OK) {
-                ServerResponse<ArrayList<PredefinedStatus>> serverResponse = getServerResponse(getMethod, new TypeToken<>() {});
+            ArrayList<PredefinedStatus> predefinedStatuses = executeConditionally(client, getMethod, method -> {
+                ServerResponse<ArrayList<PredefinedStatus>> serverResponse =
+                    getServerResponse(method, new TypeToken<ServerResponse<ArrayList<PredefinedStatus>>>() {});
+                return serverResponse == null ? null : serverResponse.getOcs().getData();
+            }).getData();
 
-                if (serverResponse != null) {
-                    result = new RemoteOperationResult<>(true, getMethod);
-                    result.setResultData(serverResponse.getOcs().getData());
-                } else {
-                    result = new RemoteOperationResult<>(false, getMethod);
-                }
+            if (predefinedStatuses != null) {
+                result = new RemoteOperationResult<>(true, getMethod);
+                result.setResultData(predefinedStatuses);
             } else {
                 result = new RemoteOperationResult<>(false, getMethod);
-                getMethod.releaseConnection();
             }
         } catch (Exception e) {
             result = new RemoteOperationResult<>(e);
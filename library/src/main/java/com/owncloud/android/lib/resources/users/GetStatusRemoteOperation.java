@@ -10,6 +10,7 @@ package com.owncloud.android.lib.resources.users;
 import com.google.gson.reflect.TypeToken;
 import com.nextcloud.common.NextcloudClient;
 import com.nextcloud.operations.GetMethod;
+import com.owncloud.android.lib.common.operations.OperationPriority;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
 import com.owncloud.android.lib.common.utils.Log_OC;
 import com.owncloud.android.lib.ocs.ServerResponse;
@@ -17,6 +18,8 @@ import com.owncloud.android.lib.resources.OCSRemoteOperation;
 
 import org.apache.commons.httpclient.HttpStatus;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Remote operation to get status
  */
@@ -30,15 +33,28 @@ public class GetStatusRemoteOperation extends OCSRemoteOperation<Status> {
      */
     @Override
     public RemoteOperationResult<Status> run(NextcloudClient client) {
-        GetMethod getMethod = null;
-        RemoteOperationResult<Status> result;
+        GetMethod getMethod = new GetMethod(client.getBaseUri() + GET_STATUS_URL + JSON_FORMAT, true);
 
         try {
-            // remote request
-            getMethod = new GetMethod(client.getBaseUri() + GET_STATUS_URL + JSON_FORMAT, true);
+            return handleResponse(getMethod, client.execute(getMethod));
+        } catch (Exception e) {
+            getMethod.releaseConnection();
+            return handleException(e);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<RemoteOperationResult<Status>> runAsync(NextcloudClient client,
+                                                                        OperationPriority priority) {
+        GetMethod getMethod = new GetMethod(client.getBaseUri() + GET_STATUS_URL + JSON_FORMAT, true);
 
-            int status = client.execute(getMethod);
+        return getMethod.executeAsync(client).thenApply(status -> handleResponse(getMethod, status));
+    }
 
+    private RemoteOperationResult<Status> handleResponse(GetMethod getMethod, int status) {
+        RemoteOperationResult<Status> result;
+
+        try {
             if (status == HttpStatus.SC_OK) {
                 ServerResponse<Status> serverResponse = getServerResponse(getMethod, new TypeToken<>() {});
                 if (serverResponse != null) {
@@ -54,17 +70,19 @@ public class GetStatusRemoteOperation extends OCSRemoteOperation<Status> {
                     result.setResultData(new Status(StatusType.INVISIBLE, "", "", -1));
                 } else {
                     result = new RemoteOperationResult<>(false, getMethod);
-                    getMethod.releaseConnection();
                 }
             }
         } catch (Exception e) {
-            result = new RemoteOperationResult<>(e);
-            Log_OC.e(TAG, "Fetching of own status failed: " + result.getLogMessage(), result.getException());
+            result = handleException(e);
         } finally {
-            if (getMethod != null) {
-                getMethod.releaseConnection();
-            }
+            getMethod.releaseConnection();
         }
         return result;
     }
+
+    private RemoteOperationResult<Status> handleException(Exception e) {
+        RemoteOperationResult<Status> result = new RemoteOperationResult<>(e);
+        Log_OC.e(TAG, "Fetching of own status failed: " + result.getLogMessage(), result.getException());
+        return result;
+    }
 }
@@ -13,6 +13,7 @@ import com.nextcloud.operations.GetMethod;
 import com.owncloud.android.lib.common.Quota;
 import com.owncloud.android.lib.common.UserInfo;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
+import com.owncloud.android.lib.common.operations.RequestCoalescer;
 import com.owncloud.android.lib.common.utils.Log_OC;
 import com.owncloud.android.lib.ocs.ServerResponse;
 import com.owncloud.android.lib.resources.OCSRemoteOperation;
@@ -57,12 +58,17 @@ public class GetUserInfoRemoteOperation extends OCSRemoteOperation<UserInfo> {
 
     @Override
     public RemoteOperationResult<UserInfo> run(NextcloudClient client) {
+        String url = client.getBaseUri() + OCS_ROUTE_SELF;
+        String key = RequestCoalescer.key(client.getUserIdPlain() + "@" + client.getBaseUri(), "GET", url);
+
+        return RequestCoalescer.execute(key, () -> fetch(client, url));
+    }
+
+    private RemoteOperationResult<UserInfo> fetch(NextcloudClient client, String url) {
         RemoteOperationResult<UserInfo> result;
         int status;
         GetMethod get = null;
 
-        String url = client.getBaseUri() + OCS_ROUTE_SELF;
-
         // get the user
         try {
 
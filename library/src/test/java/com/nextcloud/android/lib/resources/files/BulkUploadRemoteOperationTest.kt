@@ -0,0 +1,73 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class BulkUploadRemoteOperationTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private fun file(
+        name: String,
+        size: Int
+    ): BulkUploadFile {
+        val local = folder.newFile(name).apply { writeBytes(ByteArray(size)) }
+        return BulkUploadFile(local.absolutePath, "/Photos/$name", 1_700_000_000)
+    }
+
+    @Test
+    fun `batches are split by count and size`() {
+        val files = listOf(file("a", 10), file("b", 10), file("c", 10), file("d", 50), file("e", 5))
+
+        val byCount = BulkUploadRemoteOperation.plan(files, 1_000, 2)
+        val bySize = BulkUploadRemoteOperation.plan(files, 40, 100)
+
+        assertEquals(listOf(2, 2, 1), byCount.map { it.size })
+        // oversized file is sent alone
+        assertEquals(listOf(listOf("a", "b", "c"), listOf("d"), listOf("e")), bySize.map { batch -> batch.names() })
+    }
+
+    @Test
+    fun `server results are mapped to files`() {
+        val files = listOf(file("a", 1), file("b", 1), file("c", 1))
+        val response =
+            """
+            {
+                "/Photos/a": {"error": false, "etag": "\"abc\"", "fileid": "00000042oc"},
+                "/Photos/b": {"error": true, "message": "Quota exceeded"}
+            }
+            """.trimIndent()
+
+        val results = BulkUploadRemoteOperation.parseResults(files, response)
+
+        assertTrue(results[0].isSuccess)
+        assertEquals("abc", results[0].etag)
+        assertEquals("00000042oc", results[0].fileId)
+        assertNull(results[0].message)
+        assertFalse(results[1].isSuccess)
+        assertEquals("Quota exceeded", results[1].message)
+        assertFalse(results[2].isSuccess)
+    }
+
+    @Test
+    fun `invalid responses fail all files`() {
+        val files = listOf(file("a", 1))
+
+        val results = BulkUploadRemoteOperation.parseResults(files, "<html>")
+
+        assertFalse(results.single().isSuccess)
+    }
+
+    private fun List<BulkUploadFile>.names() = map { it.remotePath.substringAfterLast('/') }
+}
@@ -0,0 +1,85 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+
+class BandwidthLimiterTest {
+    private var now = 0L
+    private val pauses = mutableListOf<Long>()
+
+    private fun limiter(
+        bytesPerSecond: Long,
+        parent: BandwidthLimiter? = null
+    ) = BandwidthLimiter(bytesPerSecond, parent, { now }) { pause ->
+        pauses.add(pause)
+        now += pause
+    }
+
+    @Test
+    fun `unlimited transfers are never paused`() {
+        val sut = limiter(BandwidthLimiter.UNLIMITED)
+
+        repeat(10) { sut.acquire(1_000_000) }
+
+        assertEquals(emptyList<Long>(), pauses)
+    }
+
+    @Test
+    fun `transfers beyond the burst are paused to the rate`() {
+        // GIVEN
+        //      idle limiter of 1000 B/s
+        val sut = limiter(1_000)
+        now = TimeUnit.SECONDS.toNanos(10)
+
+        // WHEN
+        //      one second worth of data is sent, then another 500 bytes
+        sut.acquire(1_000)
+        sut.acquire(500)
+
+        // THEN
+        //      burst passes immediately
+        //      following bytes wait for their tokens
+        assertEquals(listOf(TimeUnit.MILLISECONDS.toNanos(500)), pauses)
+    }
+
+    @Test
+    fun `rate changes apply to running transfers`() {
+        // GIVEN
+        //      limiter with exhausted bucket
+        val sut = limiter(1_000)
+        sut.acquire(1_000)
+        pauses.clear()
+
+        // WHEN
+        //      limit is raised
+        sut.bytesPerSecond = 2_000
+        sut.acquire(1_000)
+
+        // THEN
+        //      bytes wait for the new rate only
+        assertEquals(listOf(TimeUnit.MILLISECONDS.toNanos(500)), pauses)
+    }
+
+    @Test
+    fun `parent limit applies too`() {
+        // GIVEN
+        //      unlimited child of a 1000 B/s limiter
+        val parent = limiter(1_000)
+        val sut = limiter(BandwidthLimiter.UNLIMITED, parent)
+        now = TimeUnit.SECONDS.toNanos(10)
+
+        // WHEN
+        sut.acquire(2_000)
+
+        // THEN
+        //      parent paused the transfer
+        assertEquals(listOf(TimeUnit.SECONDS.toNanos(1)), pauses)
+    }
+}
@@ -10,7 +10,7 @@ package com.nextcloud.common
 import com.nextcloud.android.lib.core.Clock
 
 class ClockStub(
-    private val currentTimeValue: Long
+    var currentTimeValue: Long
 ) : Clock {
     override val currentTimeMillis: Long
         get() = currentTimeValue
@@ -0,0 +1,153 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import android.content.Context
+import android.net.Uri
+import com.nextcloud.android.lib.core.ClockImpl
+import com.owncloud.android.lib.common.operations.RemoteOperation
+import okhttp3.Credentials
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+
+class ConditionalRequestCacheTest {
+    companion object {
+        private const val ETAG = "\"1\""
+        private const val TTL = 1_000L
+        private const val URL_A = "http://example.com/ocs/v2.php/a"
+        private const val URL_B = "http://example.com/ocs/v2.php/b"
+        private const val URL_C = "http://example.com/ocs/v2.php/c"
+    }
+
+    @Mock
+    lateinit var context: Context
+
+    @Mock
+    lateinit var uri: Uri
+
+    @Mock
+    lateinit var okHttpClient: OkHttpClient
+
+    lateinit var nextcloudClient: NextcloudClient
+
+    private val clock = ClockStub(currentTimeValue = 0)
+    private val requests = mutableListOf<Request>()
+    private var parsed = 0
+
+    @Before
+    fun setUp() {
+        MockitoAnnotations.initMocks(this)
+        val credentials = Credentials.basic("username", "password")
+        nextcloudClient = NextcloudClient(uri, "test", credentials, okHttpClient, context)
+        nextcloudClient.followRedirects = false
+        nextcloudClient.addInterceptor { chain ->
+            requests.add(chain.request)
+            val modified = chain.request.header(RemoteOperation.OCS_ETAG_HEADER) != ETAG
+            Response
+                .Builder()
+                .request(chain.request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(if (modified) 200 else 304)
+                .message("")
+                .header("ETag", ETAG)
+                .build()
+        }
+
+        ConditionalRequestCache.clear()
+        ConditionalRequestCache.configure(ConditionalRequestCache.DEFAULT_MAX_ENTRIES, TTL)
+        ConditionalRequestCache.clock = clock
+    }
+
+    @After
+    fun tearDown() {
+        ConditionalRequestCache.clear()
+        ConditionalRequestCache.configure(
+            ConditionalRequestCache.DEFAULT_MAX_ENTRIES,
+            ConditionalRequestCache.DEFAULT_TTL_MILLIS
+        )
+        ConditionalRequestCache.clock = ClockImpl()
+    }
+
+    private fun fetch(url: String): ConditionalRequestCache.Response<String> {
+        val method =
+            object : OkHttpMethodBase(url, true) {
+                override fun applyType(temp: Request.Builder) {
+                    temp.get()
+                }
+            }
+        val request = ConditionalRequestCache.prepare(nextcloudClient, method)
+        return request.resolve<String>(method.execute(nextcloudClient)) {
+            parsed++
+            "result of $url"
+        }
+    }
+
+    private fun lastValidator(): String? = requests.last().header(RemoteOperation.OCS_ETAG_HEADER)
+
+    @Test
+    fun `unmodified result is served from cache`() {
+        // GIVEN
+        fetch(URL_A)
+
+        // WHEN
+        val result = fetch(URL_A)
+
+        // THEN
+        //      validator was sent and the answer was not parsed
+        assertEquals(ETAG, lastValidator())
+        assertEquals(304, result.status)
+        assertTrue(result.isFromCache)
+        assertEquals("result of $URL_A", result.data)
+        assertEquals(1, parsed)
+    }
+
+    @Test
+    fun `expired result is fetched again`() {
+        // GIVEN
+        fetch(URL_A)
+
+        // WHEN
+        clock.currentTimeValue = TTL + 1
+        val result = fetch(URL_A)
+
+        // THEN
+        assertNull(lastValidator())
+        assertEquals(200, result.status)
+        assertFalse(result.isFromCache)
+        assertEquals(2, parsed)
+    }
+
+    @Test
+    fun `least recently used result is evicted`() {
+        // GIVEN
+        //      cache of two entries, the first one used again
+        ConditionalRequestCache.configure(2, TTL)
+        fetch(URL_A)
+        fetch(URL_B)
+        fetch(URL_A)
+
+        // WHEN
+        fetch(URL_C)
+
+        // THEN
+        assertEquals(2, ConditionalRequestCache.size())
+        assertTrue(fetch(URL_A).isFromCache)
+        assertFalse(fetch(URL_B).isFromCache)
+        assertNull(lastValidator())
+    }
+}
@@ -16,6 +16,8 @@ import junit.framework.TestCase
 import okhttp3.Dns
 import org.junit.Test
 import java.net.InetAddress
+import java.net.UnknownHostException
+import java.util.concurrent.Executor
 
 class DNSCacheTest : TestCase() {
     companion object {
@@ -29,6 +31,8 @@ class DNSCacheTest : TestCase() {
             )
     }
 
+    private val defaultExecutor = DNSCache.executor
+
     private fun setStaticClock() {
         DNSCache.clock = ClockStub(currentTimeValue = 1000)
     }
@@ -40,7 +44,10 @@ class DNSCacheTest : TestCase() {
     public override fun tearDown() {
         DNSCache.ttlMillis = DNSCache.ttlMillis
         DNSCache.clock = ClockImpl()
+        DNSCache.staleMillis = DNSCache.DEFAULT_STALE_MILLIS
+        DNSCache.negativeTtlMillis = DNSCache.DEFAULT_NEGATIVE_TTL
         DNSCache.dns = Dns.SYSTEM
+        DNSCache.executor = defaultExecutor
         DNSCache.clear()
     }
 
@@ -123,6 +130,7 @@ class DNSCacheTest : TestCase() {
 
         DNSCache.clock = ClockStub(currentTimeValue = 1000)
         DNSCache.ttlMillis = 500
+        DNSCache.staleMillis = 0
 
         // initial lookup
         compareLookupLists(initialList, DNSCache.lookup(TEST_HOST))
@@ -138,4 +146,60 @@ class DNSCacheTest : TestCase() {
         DNSCache.clock = ClockStub(currentTimeValue = 1501)
         compareLookupLists(secondList, DNSCache.lookup(TEST_HOST))
     }
+
+    @Test
+    fun testDNSLookupServesStaleWhileRefreshing() {
+        val dns: Dns = mock()
+        val initialList = listOf(TEST_IPV4)
+        val secondList = listOf(TEST_IPV6)
+        whenever(dns.lookup(any())) doReturn initialList
+        DNSCache.dns = dns
+        DNSCache.ttlMillis = 500
+        DNSCache.staleMillis = 1000
+        val refreshes = mutableListOf<Runnable>()
+        DNSCache.executor = Executor { refreshes.add(it) }
+
+        compareLookupLists(initialList, DNSCache.lookup(TEST_HOST))
+        whenever(dns.lookup(any())) doReturn secondList
+
+        // expired, but within the stale window: old list is returned and one refresh is scheduled
+        DNSCache.clock = ClockStub(currentTimeValue = 1501)
+        compareLookupLists(initialList, DNSCache.lookup(TEST_HOST))
+        compareLookupLists(initialList, DNSCache.lookup(TEST_HOST))
+        assertEquals(1, refreshes.size)
+
+        // refresh updates the entry
+        refreshes.first().run()
+        compareLookupLists(secondList, DNSCache.lookup(TEST_HOST))
+
+        val stats = DNSCache.getStats()
+        assertEquals(1L, stats.misses)
+        assertEquals(2L, stats.staleHits)
+        assertEquals(1L, stats.hits)
+    }
+
+    @Test
+    fun testDNSLookupFailuresAreCached() {
+        val dns: Dns = mock()
+        whenever(dns.lookup(any())).thenThrow(UnknownHostException::class.java)
+        DNSCache.dns = dns
+        DNSCache.negativeTtlMillis = 100
+
+        repeat(2) {
+            try {
+                DNSCache.lookup(TEST_HOST)
+                fail("Lookup should fail")
+            } catch (expected: UnknownHostException) {
+                // expected
+            }
+        }
+        assertEquals(1L, DNSCache.getStats().failures)
+        assertEquals(1L, DNSCache.getStats().negativeHits)
+
+        // failure is forgotten after the negative TTL
+        val addressList = listOf(TEST_IPV4)
+        whenever(dns.lookup(any())) doReturn addressList
+        DNSCache.clock = ClockStub(currentTimeValue = 1101)
+        compareLookupLists(addressList, DNSCache.lookup(TEST_HOST))
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import android.content.Context
+import android.net.Uri
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import okhttp3.Call
+import okhttp3.Credentials
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+
+class MethodInterceptorTest {
+    @Mock
+    lateinit var context: Context
+
+    @Mock
+    lateinit var uri: Uri
+
+    @Mock
+    lateinit var okHttpClient: OkHttpClient
+
+    lateinit var nextcloudClient: NextcloudClient
+
+    private val method =
+        object : OkHttpMethodBase("http://example.com/status.php", false) {
+            override fun applyType(temp: Request.Builder) {
+                temp.get()
+            }
+        }
+
+    @Before
+    fun setUp() {
+        MockitoAnnotations.initMocks(this)
+        val credentials = Credentials.basic("username", "password")
+        nextcloudClient = NextcloudClient(uri, "test", credentials, okHttpClient, context)
+        nextcloudClient.followRedirects = false
+    }
+
+    private fun response(
+        request: Request,
+        code: Int
+    ) = Response
+        .Builder()
+        .request(request)
+        .protocol(Protocol.HTTP_1_1)
+        .code(code)
+        .message("")
+        .build()
+
+    @Test
+    fun `interceptors run in order and may change the request`() {
+        // GIVEN
+        //      two interceptors recording their order, the second one adding a header
+        val calls = mutableListOf<String>()
+        nextcloudClient.addInterceptor { chain ->
+            calls.add("first")
+            chain.proceed(chain.request)
+        }
+        nextcloudClient.addInterceptor { chain ->
+            calls.add("second")
+            assertEquals(method, chain.method)
+            chain.proceed(chain.request.newBuilder().header("X-Test", "1").build())
+        }
+        val call = mock<Call>()
+        val request = argumentCaptor<Request>()
+        whenever(okHttpClient.newCall(request.capture())).thenReturn(call)
+        whenever(call.execute()).thenAnswer { response(request.firstValue, 200) }
+
+        // WHEN
+        //      method is executed
+        val code = method.execute(nextcloudClient)
+
+        // THEN
+        //      interceptors ran outermost first
+        //      modified request was sent, with the credentials of the client
+        assertEquals(200, code)
+        assertEquals(listOf("first", "second"), calls)
+        assertEquals("1", request.firstValue.header("X-Test"))
+        assertEquals(nextcloudClient.credentials, request.firstValue.header(OkHttpMethodBase.AUTHORIZATION))
+    }
+
+    @Test
+    fun `interceptors may answer without network`() {
+        // GIVEN
+        //      interceptor answering every request itself
+        nextcloudClient.addInterceptor { chain -> response(chain.request, 304) }
+
+        // WHEN
+        //      method is executed
+        val code = method.execute(nextcloudClient)
+
+        // THEN
+        //      no call was issued
+        //      status of the interceptor is returned
+        verify(okHttpClient, never()).newCall(any())
+        assertEquals(304, code)
+    }
+
+    @Test
+    fun `removed interceptors do not run`() {
+        // GIVEN
+        //      interceptor answering every request, then removed
+        val interceptor = MethodInterceptor { chain -> response(chain.request, 304) }
+        nextcloudClient.addInterceptor(interceptor)
+        nextcloudClient.removeInterceptor(interceptor)
+        val call = mock<Call>()
+        val request = argumentCaptor<Request>()
+        whenever(okHttpClient.newCall(request.capture())).thenReturn(call)
+        whenever(call.execute()).thenAnswer { response(request.firstValue, 200) }
+
+        // WHEN
+        //      method is executed
+        val code = method.execute(nextcloudClient)
+
+        // THEN
+        //      request went to the network
+        assertEquals(200, code)
+        assertEquals(0, nextcloudClient.interceptors.size)
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.IOException
+
+class NetworkMetricsAggregatorTest {
+    companion object {
+        private const val WINDOW = 1_000L
+    }
+
+    private val clock = ClockStub(currentTimeValue = 0)
+
+    private fun metrics(
+        url: String,
+        totalMillis: Long,
+        method: String = "PROPFIND",
+        failure: IOException? = null
+    ) = CallMetrics(
+        method = method,
+        url = url,
+        endpointFamily = EndpointFamily.of(method, url),
+        operation = null,
+        status = if (failure == null) 207 else OkHttpMethodBase.UNKNOWN_STATUS_CODE,
+        dnsMillis = CallMetrics.NOT_MEASURED,
+        connectMillis = CallMetrics.NOT_MEASURED,
+        tlsMillis = CallMetrics.NOT_MEASURED,
+        timeToFirstByteMillis = totalMillis / 2,
+        transferMillis = totalMillis / 2,
+        totalMillis = totalMillis,
+        bytesSent = 100,
+        bytesReceived = 1_000,
+        connectionReused = true,
+        failure = failure
+    )
+
+    @Test
+    fun `endpoint families are recognized`() {
+        val base = "https://cloud.example.com"
+
+        assertEquals(EndpointFamily.DAV_FILES, EndpointFamily.of("PROPFIND", "$base/remote.php/dav/files/user/"))
+        assertEquals(EndpointFamily.UPLOADS, EndpointFamily.of("PUT", "$base/remote.php/dav/files/user/a.txt"))
+        assertEquals(EndpointFamily.UPLOADS, EndpointFamily.of("MKCOL", "$base/remote.php/dav/uploads/user/1"))
+        assertEquals(EndpointFamily.OCS, EndpointFamily.of("GET", "$base/ocs/v2.php/cloud/capabilities"))
+        assertEquals(EndpointFamily.OTHER, EndpointFamily.of("GET", "$base/status.php"))
+    }
+
+    @Test
+    fun `calls are aggregated per family`() {
+        // GIVEN
+        val sut = NetworkMetricsAggregator(WINDOW, clock)
+        val dav = "https://cloud.example.com/remote.php/dav/files/user/"
+
+        // WHEN
+        sut.onCallFinished(metrics(dav, 20))
+        sut.onCallFinished(metrics(dav, 40))
+        sut.onCallFinished(metrics(dav, 400, failure = IOException()))
+        sut.onCallFinished(metrics("https://cloud.example.com/ocs/v2.php/apps/notifications", 5, "GET"))
+
+        // THEN
+        val snapshot = sut.getSnapshot(EndpointFamily.DAV_FILES)
+        val total = snapshot.histograms.getValue(NetworkMetricsAggregator.Phase.TOTAL)
+        assertEquals(3L, snapshot.calls)
+        assertEquals(1L, snapshot.failures)
+        assertEquals(3_000L, snapshot.bytesReceived)
+        assertEquals(50L, total.percentile(50.0))
+        assertEquals(500L, total.percentile(99.0))
+        assertEquals(0L, snapshot.histograms.getValue(NetworkMetricsAggregator.Phase.DNS).count)
+        assertEquals(1L, sut.getSnapshot(EndpointFamily.OCS).calls)
+    }
+
+    @Test
+    fun `old windows are dropped`() {
+        // GIVEN
+        val sut = NetworkMetricsAggregator(WINDOW, clock)
+        val dav = "https://cloud.example.com/remote.php/dav/files/user/"
+        sut.onCallFinished(metrics(dav, 20))
+
+        // WHEN
+        clock.currentTimeValue = WINDOW + 1
+        val rolled = sut.getSnapshot(EndpointFamily.DAV_FILES)
+        clock.currentTimeValue = 3 * WINDOW
+        val expired = sut.getSnapshot(EndpointFamily.DAV_FILES)
+
+        // THEN
+        assertEquals(1L, rolled.calls)
+        assertEquals(0L, expired.calls)
+        val total = expired.histograms.getValue(NetworkMetricsAggregator.Phase.TOTAL)
+        assertEquals(CallMetrics.NOT_MEASURED, total.percentile(50.0))
+    }
+}
@@ -16,9 +16,13 @@ import com.owncloud.android.lib.common.operations.RemoteOperation
 import com.owncloud.android.lib.common.operations.RemoteOperationResult
 import okhttp3.Call
 import okhttp3.Credentials
+import okhttp3.Dns
 import okhttp3.OkHttpClient
+import okhttp3.Protocol
 import okhttp3.Request
 import okhttp3.Response
+import org.junit.After
+import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNull
 import org.junit.Assert.assertSame
 import org.junit.Before
@@ -26,8 +30,17 @@ import org.junit.Test
 import org.mockito.Mock
 import org.mockito.MockitoAnnotations
 import java.io.IOException
+import java.net.InetAddress
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 class NextcloudClientTest {
+    companion object {
+        private const val HOST = "cloud.example.com"
+        private const val TIMEOUT_SECONDS = 5L
+    }
+
     @Mock
     lateinit var context: Context
 
@@ -47,6 +60,12 @@ class NextcloudClientTest {
         nextcloudClient = NextcloudClient(uri, userId, credentials, okHttpClient, context)
     }
 
+    @After
+    fun tearDown() {
+        DNSCache.dns = Dns.SYSTEM
+        DNSCache.clear()
+    }
+
     @Test
     fun `exceptions handled when RemoteOperations is executed`() {
         // GIVEN
@@ -113,4 +132,55 @@ class NextcloudClientTest {
         assertSame(okHttpResponse, result.result)
         assertNull(result.error)
     }
+
+    @Test
+    fun `prewarm resolves host and sends one HEAD request for status`() {
+        // GIVEN
+        //      host resolved by a stub
+        //      server answering once released
+        val lookups = CopyOnWriteArrayList<String>()
+        DNSCache.dns =
+            object : Dns {
+                override fun lookup(hostname: String): List<InetAddress> {
+                    lookups.add(hostname)
+                    return listOf(InetAddress.getByAddress(hostname, byteArrayOf(127, 0, 0, 1)))
+                }
+            }
+        val requests = CopyOnWriteArrayList<Request>()
+        val release = CountDownLatch(1)
+        val server =
+            OkHttpClient
+                .Builder()
+                .addInterceptor { chain ->
+                    requests.add(chain.request())
+                    release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    Response
+                        .Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("")
+                        .build()
+                }.build()
+        whenever(uri.host).thenReturn(HOST)
+        whenever(uri.toString()).thenReturn("https://$HOST")
+        val sut = NextcloudClient(uri, "test", Credentials.basic("login", "test"), server, context)
+
+        // WHEN
+        //      prewarm is requested again while in progress
+        val first = sut.prewarm()
+        val second = sut.prewarm()
+        release.countDown()
+
+        // THEN
+        //      both calls share the same prewarm
+        //      host was resolved
+        //      a single HEAD request was sent for status.php
+        assertSame(first, second)
+        assertEquals(200, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertEquals(listOf(HOST), lookups)
+        assertEquals(1, requests.size)
+        assertEquals("HEAD", requests[0].method)
+        assertEquals("https://$HOST/status.php", requests[0].url.toString())
+    }
 }
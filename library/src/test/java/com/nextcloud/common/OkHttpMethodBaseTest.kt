@@ -10,10 +10,12 @@ package com.nextcloud.common
 import android.content.Context
 import android.net.Uri
 import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
 import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import okhttp3.Call
+import okhttp3.Callback
 import okhttp3.Credentials
 import okhttp3.OkHttpClient
 import okhttp3.Request
@@ -69,4 +71,54 @@ class OkHttpMethodBaseTest {
         verify(call).execute()
         assertEquals(OkHttpMethodBase.UNKNOWN_STATUS_CODE, code)
     }
+
+    @Test
+    fun `cancelling async execution cancels the call`() {
+        // GIVEN
+        //      method executed asynchronously
+        val method =
+            object : OkHttpMethodBase("http://example.com", true) {
+                override fun applyType(temp: Request.Builder) {
+                    temp.get()
+                }
+            }
+        val call = mock<Call>()
+        whenever(okHttpClient.newCall(any())).thenReturn(call)
+        val future = method.executeAsync(nextcloudClient)
+
+        // WHEN
+        //      future is cancelled
+        future.cancel(true)
+
+        // THEN
+        //      okhttp call was enqueued instead of executed
+        //      okhttp call is cancelled
+        verify(call).enqueue(any())
+        verify(call).cancel()
+    }
+
+    @Test
+    fun `failures of async execution complete with error code`() {
+        // GIVEN
+        //      method executed asynchronously
+        val method =
+            object : OkHttpMethodBase("http://example.com", true) {
+                override fun applyType(temp: Request.Builder) {
+                    temp.get()
+                }
+            }
+        val call = mock<Call>()
+        whenever(okHttpClient.newCall(any())).thenReturn(call)
+        val future = method.executeAsync(nextcloudClient)
+
+        // WHEN
+        //      call fails
+        val callback = argumentCaptor<Callback>()
+        verify(call).enqueue(callback.capture())
+        callback.firstValue.onFailure(call, IOException())
+
+        // THEN
+        //      error code is returned
+        assertEquals(OkHttpMethodBase.UNKNOWN_STATUS_CODE, future.get())
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class PermanentRedirectsTest {
+    companion object {
+        private const val BASE = "http://cloud.example.com"
+        private const val ACCOUNT = "user@$BASE"
+    }
+
+    @After
+    fun tearDown() {
+        PermanentRedirects.clear()
+    }
+
+    @Test
+    fun `redirect to https is applied to other paths of the server`() {
+        // GIVEN
+        PermanentRedirects.record(
+            ACCOUNT,
+            BASE,
+            "http://cloud.example.com/remote.php/dav/files/user/a.txt",
+            "https://cloud.example.com/remote.php/dav/files/user/a.txt"
+        )
+
+        // WHEN
+        val rewritten = PermanentRedirects.rewrite(ACCOUNT, "http://cloud.example.com/ocs/v2.php/cloud/user")
+        val otherHost = PermanentRedirects.rewrite(ACCOUNT, "http://cloud.example.community/status.php")
+
+        // THEN
+        assertEquals("https://cloud.example.com/ocs/v2.php/cloud/user", rewritten)
+        assertEquals("http://cloud.example.community/status.php", otherHost)
+    }
+
+    @Test
+    fun `moved base path is rewritten`() {
+        PermanentRedirects.record(
+            ACCOUNT,
+            "https://example.com/nextcloud/",
+            "https://example.com/nextcloud/remote.php/dav/files/user/",
+            "https://cloud.example.com/remote.php/dav/files/user/"
+        )
+
+        assertEquals(
+            "https://cloud.example.com/remote.php/dav/files/user/b.txt",
+            PermanentRedirects.rewrite(ACCOUNT, "https://example.com/nextcloud/remote.php/dav/files/user/b.txt")
+        )
+    }
+
+    @Test
+    fun `unrelated redirect only rewrites the exact url`() {
+        val share = "https://example.com/index.php/s/abc"
+        PermanentRedirects.record(ACCOUNT, "https://example.com", share, "https://example.com/login")
+
+        assertEquals("https://example.com/login", PermanentRedirects.rewrite(ACCOUNT, share))
+        assertEquals(
+            "https://example.com/index.php/s/abc/download",
+            PermanentRedirects.rewrite(ACCOUNT, "$share/download")
+        )
+    }
+
+    @Test
+    fun `file moved within the server only rewrites the exact url`() {
+        // GIVEN
+        val files = "$BASE/remote.php/dav/files/user"
+        PermanentRedirects.record(ACCOUNT, BASE, "$files/old/a.txt", "$files/new/a.txt")
+
+        // WHEN
+        val moved = PermanentRedirects.rewrite(ACCOUNT, "$files/old/a.txt")
+        val sibling = PermanentRedirects.rewrite(ACCOUNT, "$files/old/b.txt")
+
+        // THEN
+        assertEquals("$files/new/a.txt", moved)
+        assertEquals("$files/old/b.txt", sibling)
+    }
+
+    @Test
+    fun `redirect to https of base path is not applied outside of it`() {
+        // GIVEN
+        PermanentRedirects.record(
+            ACCOUNT,
+            "http://example.com/nextcloud",
+            "http://example.com/nextcloud/status.php",
+            "https://example.com/nextcloud/status.php"
+        )
+
+        // WHEN
+        val below = PermanentRedirects.rewrite(ACCOUNT, "http://example.com/nextcloud/ocs/v2.php/cloud/user")
+        val outside = PermanentRedirects.rewrite(ACCOUNT, "http://example.com/wiki")
+
+        // THEN
+        assertEquals("https://example.com/nextcloud/ocs/v2.php/cloud/user", below)
+        assertEquals("http://example.com/wiki", outside)
+    }
+
+    @Test
+    fun `invalidated and foreign account redirects are not applied`() {
+        // GIVEN
+        val uri = "http://cloud.example.com/status.php"
+        PermanentRedirects.record(ACCOUNT, BASE, uri, "https://cloud.example.com/status.php")
+
+        // WHEN
+        val foreign = PermanentRedirects.rewrite("other@http://cloud.example.com", uri)
+        PermanentRedirects.invalidate(ACCOUNT, uri)
+
+        // THEN
+        assertEquals(uri, foreign)
+        assertEquals(uri, PermanentRedirects.rewrite(ACCOUNT, uri))
+    }
+}
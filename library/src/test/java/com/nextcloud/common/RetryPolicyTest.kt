@@ -0,0 +1,116 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.nextcloud.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.IOException
+import java.net.ConnectException
+import kotlin.random.Random
+
+class RetryPolicyTest {
+    companion object {
+        private const val HOST = "cloud.example.com"
+        private const val NOW = 1_700_000_000_000L
+    }
+
+    private val clock = ClockStub(NOW)
+
+    private fun policy(budget: RetryBudget = RetryBudget(clock = clock)) =
+        RetryPolicy(
+            maxRetries = 2,
+            baseDelayMillis = 100,
+            maxDelayMillis = 1_000,
+            budget = budget,
+            clock = clock,
+            random = Random(0)
+        )
+
+    @Test
+    fun `idempotent methods are retried on server errors with bounded backoff`() {
+        val sut = policy()
+
+        val first = sut.getRetryDelay("PROPFIND", HOST, 0, 503, null)
+        val second = sut.getRetryDelay("PROPFIND", HOST, 1, 502, null)
+        val third = sut.getRetryDelay("PROPFIND", HOST, 2, 504, null)
+
+        assertTrue(first in 0..100)
+        assertTrue(second in 0..200)
+        assertEquals(RetryPolicy.NO_RETRY, third)
+    }
+
+    @Test
+    fun `non idempotent methods are only retried on 429`() {
+        val sut = policy()
+
+        assertEquals(RetryPolicy.NO_RETRY, sut.getRetryDelay("POST", HOST, 0, 503, null))
+        assertEquals(RetryPolicy.NO_RETRY, sut.getRetryDelay("MOVE", HOST, 0, 502, null))
+        assertTrue(sut.getRetryDelay("POST", HOST, 0, 429, null) >= 0)
+    }
+
+    @Test
+    fun `requests with large or unknown body are not retried on server errors`() {
+        val sut = policy()
+        val limit = RetryPolicy.DEFAULT_MAX_RETRIED_BODY_BYTES
+
+        assertTrue(sut.getRetryDelay("PUT", HOST, 0, 503, null, limit) >= 0)
+        assertEquals(RetryPolicy.NO_RETRY, sut.getRetryDelay("PUT", HOST, 0, 503, null, limit + 1))
+        assertEquals(RetryPolicy.NO_RETRY, sut.getRetryDelay("PUT", HOST, 0, 429, null, -1))
+        assertTrue(sut.getRetryDelay(HOST, 0, ConnectException()) >= 0)
+    }
+
+    @Test
+    fun `client errors are not retried`() {
+        assertEquals(RetryPolicy.NO_RETRY, policy().getRetryDelay("GET", HOST, 0, 404, null))
+    }
+
+    @Test
+    fun `retry after is honored in seconds and as http date`() {
+        val sut = policy()
+
+        assertEquals(1_000L, sut.getRetryDelay("GET", HOST, 0, 429, "1"))
+        assertEquals(0L, sut.parseRetryAfter("Tue, 14 Nov 2023 22:13:20 GMT"))
+        assertEquals(RetryPolicy.NO_RETRY, sut.parseRetryAfter("soon"))
+    }
+
+    @Test
+    fun `retry after longer than the maximum delay is not waited for`() {
+        assertEquals(RetryPolicy.NO_RETRY, policy().getRetryDelay("GET", HOST, 0, 503, "120"))
+    }
+
+    @Test
+    fun `only connection failures are retried`() {
+        val sut = policy()
+
+        assertTrue(sut.getRetryDelay(HOST, 0, ConnectException()) >= 0)
+        assertEquals(RetryPolicy.NO_RETRY, sut.getRetryDelay(HOST, 0, IOException()))
+    }
+
+    @Test
+    fun `retries stop when the budget of the host is exhausted`() {
+        // GIVEN
+        val sut = policy(RetryBudget(maxRetriesPerWindow = 1, windowMillis = 60_000, clock = clock))
+
+        // WHEN
+        val first = sut.getRetryDelay("GET", HOST, 0, 503, null)
+        val second = sut.getRetryDelay("GET", HOST, 0, 503, null)
+        val otherHost = sut.getRetryDelay("GET", "other.example.com", 0, 503, null)
+
+        // THEN
+        assertTrue(first >= 0)
+        assertEquals(RetryPolicy.NO_RETRY, second)
+        assertTrue(otherHost >= 0)
+    }
+
+    @Test
+    fun `idempotency is case insensitive`() {
+        assertTrue(RetryPolicy.isIdempotent("get"))
+        assertFalse(RetryPolicy.isIdempotent("MKCOL"))
+    }
+}
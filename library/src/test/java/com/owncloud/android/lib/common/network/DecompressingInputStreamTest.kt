@@ -0,0 +1,55 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.GZIPOutputStream
+
+class DecompressingInputStreamTest {
+    private val body = "<d:response><d:href>/remote.php/dav/files/user/</d:href></d:response>".repeat(100)
+
+    @Test
+    fun `gzip body is decompressed and counted`() {
+        // GIVEN
+        val compressed = ByteArrayOutputStream()
+        GZIPOutputStream(compressed).use { it.write(body.toByteArray()) }
+        var counts: Pair<Long, Long>? = null
+        val listener =
+            OnResponseCompressionListener { _, _, compressedBytes, uncompressedBytes ->
+                counts = compressedBytes to uncompressedBytes
+            }
+
+        // WHEN
+        val sut = DecompressingInputStream(ByteArrayInputStream(compressed.toByteArray()), "gzip", null, listener)
+        val result = sut.use { it.readBytes() }
+
+        // THEN
+        assertEquals(body, String(result))
+        assertEquals(compressed.size().toLong() to body.length.toLong(), counts)
+    }
+
+    @Test
+    fun `deflate body is decompressed`() {
+        val compressed = ByteArrayOutputStream()
+        DeflaterOutputStream(compressed).use { it.write(body.toByteArray()) }
+
+        val sut = DecompressingInputStream(ByteArrayInputStream(compressed.toByteArray()), "deflate", null, null)
+
+        assertEquals(body, String(sut.use { it.readBytes() }))
+    }
+
+    @Test
+    fun `empty gzip body reads as empty`() {
+        val sut = DecompressingInputStream(ByteArrayInputStream(ByteArray(0)), "gzip", null, null)
+
+        assertEquals(0, sut.use { it.readBytes() }.size)
+    }
+}
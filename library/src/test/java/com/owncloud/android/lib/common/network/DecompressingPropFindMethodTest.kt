@@ -0,0 +1,153 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import org.apache.commons.httpclient.HttpClient
+import org.apache.jackrabbit.webdav.DavConstants
+import org.apache.jackrabbit.webdav.client.methods.PropFindMethod
+import org.apache.jackrabbit.webdav.property.DavPropertyName
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.InputStream
+import java.net.InetAddress
+import java.net.ServerSocket
+import java.util.zip.GZIPOutputStream
+import kotlin.concurrent.thread
+
+class DecompressingPropFindMethodTest {
+    companion object {
+        private const val ROOT = "/remote.php/dav/files/user/"
+        private const val FILE = "/remote.php/dav/files/user/a.txt"
+        private val MULTISTATUS =
+            """
+            <?xml version="1.0"?>
+            <d:multistatus xmlns:d="DAV:">
+                <d:response><d:href>$ROOT</d:href><d:propstat><d:prop><d:getetag>"1"</d:getetag></d:prop>
+                    <d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>
+                <d:response><d:href>$FILE</d:href><d:propstat><d:prop><d:getetag>"2"</d:getetag></d:prop>
+                    <d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>
+            </d:multistatus>
+            """.trimIndent()
+    }
+
+    private val server = ServerSocket(0, 1, InetAddress.getLoopbackAddress())
+    private var requestHeaders = emptyList<String>()
+
+    @After
+    fun tearDown() {
+        server.close()
+    }
+
+    private fun respond(
+        body: ByteArray,
+        vararg headers: String
+    ): Thread =
+        thread {
+            server.accept().use { socket ->
+                val input = socket.getInputStream()
+                requestHeaders = readHead(input)
+                val contentLength =
+                    requestHeaders
+                        .firstOrNull { it.startsWith("Content-Length:", ignoreCase = true) }
+                        ?.substringAfter(':')
+                        ?.trim()
+                        ?.toInt() ?: 0
+                DataInputStream(input).readFully(ByteArray(contentLength))
+
+                val head =
+                    "HTTP/1.1 207 Multi-Status\r\n" +
+                        "Content-Type: application/xml; charset=utf-8\r\n" +
+                        headers.joinToString("") { "$it\r\n" } +
+                        "Content-Length: ${body.size}\r\n" +
+                        "Connection: close\r\n\r\n"
+                socket.getOutputStream().apply {
+                    write(head.toByteArray())
+                    write(body)
+                    flush()
+                }
+            }
+        }
+
+    private fun readHead(input: InputStream): List<String> {
+        val head = StringBuilder()
+        while (!head.endsWith("\r\n\r\n")) {
+            val read = input.read()
+            if (read == -1) {
+                break
+            }
+            head.append(read.toChar())
+        }
+        return head.trim().lines()
+    }
+
+    private fun execute(method: PropFindMethod): List<String> {
+        try {
+            assertEquals(207, HttpClient().executeMethod(method))
+            return method.responseBodyAsMultiStatus.responses.map { it.href }
+        } finally {
+            method.releaseConnection()
+        }
+    }
+
+    private fun url() = "http://127.0.0.1:${server.localPort}$ROOT"
+
+    private fun etag() = DavPropertyNameSet().apply { add(DavPropertyName.GETETAG) }
+
+    @Test
+    fun `gzip multistatus is decompressed before it is parsed`() {
+        // GIVEN
+        //      server answering with a gzip body
+        val compressed = ByteArrayOutputStream()
+        GZIPOutputStream(compressed).use { it.write(MULTISTATUS.toByteArray()) }
+        val responder = respond(compressed.toByteArray(), "Content-Encoding: gzip")
+        var counts: Pair<Long, Long>? = null
+        val sut = DecompressingPropFindMethod(url(), etag(), DavConstants.DEPTH_1)
+        ResponseCompression.negotiate(sut) { _, _, compressedBytes, uncompressedBytes ->
+            counts = compressedBytes to uncompressedBytes
+        }
+
+        // WHEN
+        val hrefs = execute(sut)
+        responder.join()
+
+        // THEN
+        //      compression was offered, and the listing read from the decompressed body
+        assertTrue(requestHeaders.contains("Accept-Encoding: gzip, deflate"))
+        assertEquals(listOf(ROOT, FILE), hrefs)
+        assertEquals(compressed.size().toLong() to MULTISTATUS.length.toLong(), counts)
+    }
+
+    @Test
+    fun `uncompressed multistatus is parsed as is`() {
+        // GIVEN
+        val responder = respond(MULTISTATUS.toByteArray())
+        val sut = DecompressingPropFindMethod(url(), etag(), DavConstants.DEPTH_1)
+        ResponseCompression.negotiate(sut, null)
+
+        // WHEN
+        val hrefs = execute(sut)
+        responder.join()
+
+        // THEN
+        assertEquals(listOf(ROOT, FILE), hrefs)
+    }
+
+    @Test
+    fun `plain PROPFIND is not offered compression`() {
+        val method = PropFindMethod(url(), etag(), DavConstants.DEPTH_1)
+
+        assertFalse(ResponseCompression.negotiate(method, null))
+        assertNull(method.getRequestHeader(ResponseCompression.ACCEPT_ENCODING_HEADER))
+    }
+}
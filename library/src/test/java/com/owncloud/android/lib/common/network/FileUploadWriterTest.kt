@@ -0,0 +1,141 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import com.nextcloud.common.BandwidthLimiter
+import okio.Buffer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Ignore
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.OutputStream
+import java.io.RandomAccessFile
+import kotlin.random.Random
+import kotlin.system.measureNanoTime
+
+class FileUploadWriterTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var file: File
+    private lateinit var content: ByteArray
+    private val progress = mutableListOf<Long>()
+    private val listener = FileUploadWriter.WriteListener { bytes, _ -> progress.add(bytes) }
+
+    @Before
+    fun setUp() {
+        content = Random(1).nextBytes(SIZE)
+        file = folder.newFile().apply { writeBytes(content) }
+    }
+
+    @Test
+    fun `region is written to stream`() {
+        val out = ByteArrayOutputStream()
+
+        RandomAccessFile(file, "r").use {
+            FileUploadWriter(BUFFER).write(it.channel, 100, 5_000, out, BandwidthLimiter.GLOBAL, listener)
+        }
+
+        assertArrayEquals(content.copyOfRange(100, 5_100), out.toByteArray())
+        assertEquals(listOf(1_024L, 1_024, 1_024, 1_024, 904), progress)
+    }
+
+    @Test
+    fun `region is written to file channel`() {
+        val target = folder.newFile()
+
+        RandomAccessFile(file, "r").use { source ->
+            FileOutputStream(target).use {
+                val writer = FileUploadWriter(BUFFER)
+                writer.write(source.channel, 0, SIZE.toLong(), it.channel, BandwidthLimiter.GLOBAL, listener)
+            }
+        }
+
+        assertArrayEquals(content, target.readBytes())
+        assertEquals(SIZE.toLong(), progress.sum())
+    }
+
+    @Test
+    fun `region is written to other channels through direct buffer`() {
+        val sink = Buffer()
+
+        RandomAccessFile(file, "r").use {
+            FileUploadWriter(BUFFER, true).write(it.channel, 10, 2_000, sink, BandwidthLimiter.GLOBAL, listener)
+        }
+
+        assertArrayEquals(content.copyOfRange(10, 2_010), sink.readByteArray())
+    }
+
+    @Test
+    fun `write stops at end of file`() {
+        val out = ByteArrayOutputStream()
+
+        RandomAccessFile(file, "r").use {
+            FileUploadWriter(BUFFER).write(it.channel, SIZE - 10L, 1_000, out, BandwidthLimiter.GLOBAL, listener)
+        }
+
+        assertEquals(10, out.size())
+    }
+
+    /**
+     * Compares the upload throughput of [FileRequestEntity] with the former 4 KiB buffer and with the default one,
+     * with a progress listener attached as during an upload. The request is written to a stream which discards the
+     * data, so that only the copy and the progress reporting are measured; the best of a few runs is kept. Timing
+     * depends on the machine, so it is run on demand only.
+     */
+    @Ignore("Benchmark")
+    @Test
+    fun `default buffer uploads faster than legacy buffer`() {
+        val large = folder.newFile().apply { writeBytes(ByteArray(BENCHMARK_SIZE)) }
+        val sink =
+            object : OutputStream() {
+                override fun write(b: Int) = Unit
+
+                override fun write(
+                    b: ByteArray,
+                    off: Int,
+                    len: Int
+                ) = Unit
+            }
+
+        val nanos =
+            listOf(FileUploadWriter(LEGACY_BUFFER), FileUploadWriter.DEFAULT).map { writer ->
+                var reported = 0L
+                val entity =
+                    FileRequestEntity(large, "application/octet-stream").apply {
+                        setUploadWriter(writer)
+                        addDataTransferProgressListener { rate, _, _, _ -> reported += rate }
+                    }
+
+                // warm up
+                entity.writeRequest(sink)
+                val best = (1..BENCHMARK_RUNS).minOf { measureNanoTime { entity.writeRequest(sink) } }
+                assertEquals((BENCHMARK_RUNS + 1L) * BENCHMARK_SIZE, reported)
+                best
+            }
+
+        val throughput = nanos.map { BENCHMARK_SIZE * NANOS_PER_SECOND / it / MIB }
+        assertTrue("legacy: %.0f MiB/s, default: %.0f MiB/s".format(throughput[0], throughput[1]), nanos[1] < nanos[0])
+    }
+
+    companion object {
+        private const val SIZE = 10_000
+        private const val BUFFER = 1_024
+        private const val LEGACY_BUFFER = 4_096
+        private const val BENCHMARK_SIZE = 64 * 1024 * 1024
+        private const val BENCHMARK_RUNS = 5
+        private const val NANOS_PER_SECOND = 1_000_000_000.0
+        private const val MIB = 1024 * 1024
+    }
+}
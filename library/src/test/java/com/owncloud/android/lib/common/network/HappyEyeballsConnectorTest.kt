@@ -0,0 +1,75 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import com.nextcloud.common.DNSCache
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import okhttp3.Dns
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.net.InetAddress
+import java.net.ServerSocket
+
+class HappyEyeballsConnectorTest {
+    companion object {
+        private const val TEST_HOST = "test.localhost"
+        private val LOOPBACK_IPV4 = InetAddress.getByAddress(TEST_HOST, byteArrayOf(127, 0, 0, 1))
+        private val LOOPBACK_IPV6 =
+            InetAddress.getByAddress(TEST_HOST, byteArrayOf(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1))
+        private val OTHER_IPV4 = InetAddress.getByAddress(TEST_HOST, byteArrayOf(127, 0, 0, 2))
+        private const val TIMEOUT = 1000
+    }
+
+    @After
+    fun tearDown() {
+        DNSCache.dns = Dns.SYSTEM
+        DNSCache.clear()
+    }
+
+    @Test
+    fun `address families alternate starting with the first one`() {
+        val sorted = listOf(LOOPBACK_IPV6, LOOPBACK_IPV4, OTHER_IPV4)
+
+        val result = HappyEyeballsConnector.interleave(sorted)
+
+        assertEquals(listOf(LOOPBACK_IPV6, LOOPBACK_IPV4, OTHER_IPV4), result)
+        assertEquals(
+            listOf(LOOPBACK_IPV4, LOOPBACK_IPV6, OTHER_IPV4),
+            HappyEyeballsConnector.interleave(listOf(LOOPBACK_IPV4, OTHER_IPV4, LOOPBACK_IPV6))
+        )
+    }
+
+    @Test
+    fun `unreachable IPv6 falls back to IPv4 and is remembered`() {
+        // GIVEN
+        //      server only listening on IPv4
+        //      host resolving to both families, IPv6 preferred
+        ServerSocket(0, 1, LOOPBACK_IPV4).use { server ->
+            val dns: Dns = mock()
+            whenever(dns.lookup(any())) doReturn listOf(LOOPBACK_IPV4, LOOPBACK_IPV6)
+            DNSCache.dns = dns
+            DNSCache.lookup(TEST_HOST)
+            assertTrue(DNSCache.isIPV6First(TEST_HOST))
+
+            // WHEN
+            //      connecting
+            val socket = HappyEyeballsConnector.connect(TEST_HOST, server.localPort, null, 0, TIMEOUT)
+
+            // THEN
+            //      IPv4 connection won
+            //      IPv4 is preferred from now on
+            socket.use { assertEquals(LOOPBACK_IPV4, it.inetAddress) }
+            assertFalse(DNSCache.isIPV6First(TEST_HOST))
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import org.apache.commons.httpclient.HostConfiguration
+import org.apache.commons.httpclient.HttpConnection
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class ManagedHttpConnectionManagerTest {
+    companion object {
+        private const val HOST = "cloud.example.com"
+        private const val DEFAULT_CONNECTION_TIMEOUT = 1_000
+        private const val DEFAULT_SO_TIMEOUT = 2_000
+        private const val POOL_TIMEOUT = 100L
+    }
+
+    private val sut =
+        ManagedHttpConnectionManager(2).apply {
+            params.connectionTimeout = DEFAULT_CONNECTION_TIMEOUT
+            params.soTimeout = DEFAULT_SO_TIMEOUT
+        }
+    private val hostConfiguration = HostConfiguration().apply { setHost(HOST, 80, "http") }
+
+    @After
+    fun tearDown() {
+        ManagedHttpConnectionManager.clearRequestTimeouts()
+        ManagedHttpConnectionManager.clearLeaseListener()
+        sut.shutdown()
+    }
+
+    private fun lease(): HttpConnection = sut.getConnectionWithTimeout(hostConfiguration, POOL_TIMEOUT)
+
+    @Test
+    fun `request timeouts are applied to the leased connection only`() {
+        // GIVEN
+        ManagedHttpConnectionManager.setRequestTimeouts(5, 7)
+
+        // WHEN
+        val connection = lease()
+        sut.releaseConnection(connection)
+        ManagedHttpConnectionManager.clearRequestTimeouts()
+        val pooled = lease()
+
+        // THEN
+        //      the pooled connection gets the defaults back
+        assertEquals(connection, pooled)
+        assertEquals(DEFAULT_CONNECTION_TIMEOUT, pooled.params.connectionTimeout)
+        assertEquals(DEFAULT_SO_TIMEOUT, pooled.params.soTimeout)
+    }
+
+    @Test
+    fun `request timeouts of other threads are not applied`() {
+        // GIVEN
+        ManagedHttpConnectionManager.setRequestTimeouts(5, -1)
+        val own = lease()
+
+        // WHEN
+        var other: HttpConnection? = null
+        Thread { other = lease() }.apply {
+            start()
+            join()
+        }
+
+        // THEN
+        assertEquals(5, own.params.connectionTimeout)
+        assertEquals(DEFAULT_SO_TIMEOUT, own.params.soTimeout)
+        assertEquals(DEFAULT_CONNECTION_TIMEOUT, other?.params?.connectionTimeout)
+    }
+
+    @Test
+    fun `lease listener is notified of the release of its own connection`() {
+        // GIVEN
+        //      listener set while leasing the first connection only
+        val events = mutableListOf<String>()
+        ManagedHttpConnectionManager.setLeaseListener(
+            object : ManagedHttpConnectionManager.LeaseListener {
+                override fun onLeased() {
+                    events.add("leased")
+                }
+
+                override fun onReleased() {
+                    events.add("released")
+                }
+            }
+        )
+        val own = lease()
+        ManagedHttpConnectionManager.clearLeaseListener()
+        val other = lease()
+
+        // WHEN
+        sut.releaseConnection(other)
+        sut.releaseConnection(own)
+
+        // THEN
+        assertEquals(listOf("leased", "released"), events)
+    }
+
+    @Test
+    fun `leased connections are counted per host`() {
+        // GIVEN
+        val first = lease()
+        lease()
+
+        // WHEN
+        sut.releaseConnection(first)
+
+        // THEN
+        val stats = sut.stats
+        assertEquals(1, stats.leased)
+        assertEquals(1, stats.idle)
+        assertEquals(mapOf(HOST to 1), stats.leasedPerHost)
+        assertEquals(false, ManagedHttpConnectionManager.getLastLeaseReused())
+    }
+}
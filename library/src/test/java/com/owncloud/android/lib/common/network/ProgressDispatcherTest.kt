@@ -0,0 +1,123 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+class ProgressDispatcherTest {
+    private var now = 0L
+    private val tasks = mutableListOf<Runnable>()
+    private val events = mutableListOf<List<Long>>()
+    private lateinit var sut: ProgressDispatcher
+
+    @Before
+    fun setUp() {
+        sut = ProgressDispatcher(PATH, INTERVAL_MILLIS, MIN_BYTES, Executor { tasks.add(it) }) { now }
+        sut.addDataTransferProgressListener { rate, transferred, total, path ->
+            assertEquals(PATH, path)
+            events.add(listOf(rate, transferred, total))
+        }
+    }
+
+    private fun runTasks() {
+        tasks.toList().forEach { it.run() }
+        tasks.clear()
+    }
+
+    private fun advance(millis: Long) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis)
+    }
+
+    @Test
+    fun `progress within interval is coalesced`() {
+        // GIVEN
+        //      ten buffers within one interval
+        repeat(10) {
+            advance(10)
+            sut.onProgress(1_000, (it + 1) * 1_000L, 20_000)
+        }
+
+        // WHEN
+        //      interval elapses
+        advance(INTERVAL_MILLIS)
+        sut.onProgress(1_000, 11_000, 20_000)
+        runTasks()
+
+        // THEN
+        //      one event covering all buffers
+        assertEquals(listOf(listOf(11_000L, 11_000L, 20_000L)), events)
+    }
+
+    @Test
+    fun `small progress waits for byte delta`() {
+        advance(INTERVAL_MILLIS)
+        sut.onProgress(10, 10, 20_000)
+        runTasks()
+
+        assertEquals(emptyList<List<Long>>(), events)
+    }
+
+    @Test
+    fun `flush delivers remaining progress before returning`() {
+        // GIVEN
+        //      delivery queued but not run yet
+        advance(INTERVAL_MILLIS)
+        sut.onProgress(MIN_BYTES, MIN_BYTES, 2 * MIN_BYTES)
+        sut.onProgress(10, MIN_BYTES + 10, 2 * MIN_BYTES)
+
+        // WHEN
+        sut.flush()
+
+        // THEN
+        //      final event delivered on the calling thread
+        //      queued delivery and further flushes deliver nothing more
+        assertEquals(listOf(listOf(MIN_BYTES + 10, MIN_BYTES + 10, 2 * MIN_BYTES)), events)
+        runTasks()
+        sut.flush()
+        assertEquals(1, events.size)
+    }
+
+    @Test
+    fun `resumed event is delivered before final event`() {
+        // GIVEN
+        sut.onResumed(10, 20)
+        sut.onProgress(10, 20, 20)
+
+        // WHEN
+        sut.flush()
+        runTasks()
+
+        // THEN
+        assertEquals(listOf(listOf(0L, 10L, 20L), listOf(10L, 20L, 20L)), events)
+    }
+
+    @Test
+    fun `delivery is off the transfer thread and not queued twice`() {
+        // GIVEN
+        //      slow listener, events not delivered yet
+        advance(INTERVAL_MILLIS)
+        sut.onProgress(MIN_BYTES, MIN_BYTES, 20_000)
+        advance(INTERVAL_MILLIS)
+        sut.onProgress(MIN_BYTES, 2 * MIN_BYTES, 20_000)
+
+        // THEN
+        //      transfer was not blocked and one delivery carries both
+        assertEquals(1, tasks.size)
+        runTasks()
+        assertEquals(listOf(listOf(2 * MIN_BYTES, 2 * MIN_BYTES, 20_000L)), events)
+    }
+
+    companion object {
+        private const val PATH = "/sdcard/file.bin"
+        private const val INTERVAL_MILLIS = 250L
+        private const val MIN_BYTES = 1_000L
+    }
+}
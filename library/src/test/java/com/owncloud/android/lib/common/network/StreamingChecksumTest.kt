@@ -0,0 +1,130 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.network
+
+import com.nextcloud.common.BandwidthLimiter
+import okio.Buffer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayOutputStream
+import java.io.FileOutputStream
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+import kotlin.random.Random
+
+class StreamingChecksumTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val abc = "abc".toByteArray()
+
+    @Test
+    fun `algorithms hash to lowercase hex`() {
+        val expected =
+            mapOf(
+                ChecksumAlgorithm.SHA256 to "SHA256:ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                ChecksumAlgorithm.MD5 to "MD5:900150983cd24fb0d6963f7d28e17f72",
+                ChecksumAlgorithm.ADLER32 to "Adler32:024d0127"
+            )
+
+        expected.forEach { (algorithm, value) ->
+            val sut = StreamingChecksum(algorithm)
+            sut.update(0, abc, 0, 1)
+            sut.update(1, ByteBuffer.wrap(abc, 1, 2))
+            assertEquals(value, sut.getHeaderValue(3))
+        }
+    }
+
+    @Test
+    fun `bytes sent again are hashed once`() {
+        // GIVEN
+        //      first request failed after two bytes
+        val sut = StreamingChecksum(ChecksumAlgorithm.MD5)
+        sut.update(0, abc, 0, 2)
+
+        // WHEN
+        //      retried request sends all bytes again
+        sut.update(0, abc, 0, 3)
+
+        // THEN
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", sut.getValue(3))
+    }
+
+    @Test
+    fun `checksum after gap is incomplete`() {
+        // GIVEN
+        //      start of file uploaded earlier
+        val sut = StreamingChecksum(ChecksumAlgorithm.ADLER32)
+
+        // WHEN
+        sut.update(1, abc, 1, 2)
+        sut.update(0, abc, 0, 1)
+
+        // THEN
+        assertNull(sut.getValue(3))
+    }
+
+    @Test
+    fun `checksum of part of file is incomplete`() {
+        val sut = StreamingChecksum(ChecksumAlgorithm.SHA256)
+        sut.update(0, abc, 0, 2)
+
+        assertNull(sut.getValue(3))
+    }
+
+    @Test
+    fun `buffer position is kept`() {
+        val buffer = ByteBuffer.wrap(abc)
+
+        StreamingChecksum(ChecksumAlgorithm.SHA256).update(0, buffer)
+
+        assertEquals(0, buffer.position())
+    }
+
+    @Test
+    fun `checksum is found in header`() {
+        val header = "SHA1:a9993e36 MD5:900150983CD24FB0D6963F7D28E17F72 ADLER32:024d0127"
+
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", ChecksumAlgorithm.MD5.findIn(header))
+        assertEquals("024d0127", ChecksumAlgorithm.ADLER32.findIn(header))
+        assertNull(ChecksumAlgorithm.SHA256.findIn(header))
+        assertNull(ChecksumAlgorithm.SHA256.findIn(null))
+    }
+
+    @Test
+    fun `chunks written by upload writer hash whole file`() {
+        // GIVEN
+        //      file uploaded in chunks to a stream, a file channel and an OkHttp sink
+        val content = Random(1).nextBytes(SIZE)
+        val file = folder.newFile().apply { writeBytes(content) }
+        val sut = StreamingChecksum(ChecksumAlgorithm.SHA256)
+        val writer = FileUploadWriter(BUFFER)
+
+        // WHEN
+        RandomAccessFile(file, "r").use { raf ->
+            writer.write(raf.channel, 0, CHUNK, ByteArrayOutputStream(), BandwidthLimiter.GLOBAL, sut) { _, _ -> }
+            FileOutputStream(folder.newFile()).use {
+                writer.write(raf.channel, CHUNK, CHUNK, it.channel, BandwidthLimiter.GLOBAL, sut) { _, _ -> }
+            }
+            writer.write(raf.channel, 2 * CHUNK, CHUNK, Buffer(), BandwidthLimiter.GLOBAL, sut) { _, _ -> }
+        }
+
+        // THEN
+        val expected = MessageDigest.getInstance("SHA-256").digest(content).joinToString("") { "%02x".format(it) }
+        assertEquals(expected, sut.getValue(SIZE.toLong()))
+    }
+
+    companion object {
+        private const val SIZE = 10_000
+        private const val CHUNK = 4_000L
+        private const val BUFFER = 1_024
+    }
+}
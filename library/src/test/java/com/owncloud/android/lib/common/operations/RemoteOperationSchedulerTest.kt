@@ -0,0 +1,84 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.operations
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class RemoteOperationSchedulerTest {
+    companion object {
+        private const val TIMEOUT_SECONDS = 5L
+    }
+
+    @Test
+    fun `higher priorities are started first`() {
+        // GIVEN a single worker blocked by a running task
+        val sut = RemoteOperationScheduler(1, 1, 1)
+        val release = CountDownLatch(1)
+        val blocker = sut.submit({ release.await() }, "a", "host", OperationPriority.METADATA)
+        val order = Collections.synchronizedList(mutableListOf<OperationPriority>())
+
+        // WHEN tasks of all priorities are queued in reverse order
+        val futures =
+            listOf(OperationPriority.BULK_TRANSFER, OperationPriority.METADATA, OperationPriority.INTERACTIVE)
+                .map { priority -> sut.submit({ order.add(priority) }, "a", "host", priority) }
+        assertEquals(3, sut.stats.queueDepth)
+        release.countDown()
+        blocker.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        futures.forEach { it.get(TIMEOUT_SECONDS, TimeUnit.SECONDS) }
+
+        // THEN
+        assertEquals(
+            listOf(OperationPriority.INTERACTIVE, OperationPriority.METADATA, OperationPriority.BULK_TRANSFER),
+            order
+        )
+        assertEquals(0, sut.stats.queueDepth)
+        assertEquals(1, sut.stats.getWaitStats(OperationPriority.INTERACTIVE).started)
+    }
+
+    @Test
+    fun `account cap does not block other accounts`() {
+        // GIVEN one running task of account a, with at most one task per account
+        val sut = RemoteOperationScheduler(4, 1, 4)
+        val release = CountDownLatch(1)
+        val blocker = sut.submit({ release.await() }, "a", "host", OperationPriority.METADATA)
+
+        // WHEN
+        val sameAccount = sut.submit({ true }, "a", "host", OperationPriority.INTERACTIVE)
+        val otherAccount = sut.submit({ true }, "b", "host", OperationPriority.METADATA)
+
+        // THEN
+        assertTrue(otherAccount.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertFalse(sameAccount.isDone)
+        assertEquals(1, sut.stats.getQueueDepth(OperationPriority.INTERACTIVE))
+
+        release.countDown()
+        blocker.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        assertTrue(sameAccount.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun `cancelled tasks leave the queue`() {
+        // GIVEN
+        val sut = RemoteOperationScheduler(1, 1, 1)
+        val release = CountDownLatch(1)
+        sut.submit({ release.await() }, "a", "host", OperationPriority.METADATA)
+        val queued = sut.submit({ true }, "a", "host", OperationPriority.METADATA)
+
+        // WHEN
+        queued.cancel(true)
+
+        // THEN
+        assertEquals(0, sut.stats.queueDepth)
+        release.countDown()
+    }
+}
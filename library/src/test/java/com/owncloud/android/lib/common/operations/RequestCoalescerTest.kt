@@ -0,0 +1,92 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.common.operations
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class RequestCoalescerTest {
+    companion object {
+        private const val TIMEOUT_SECONDS = 5L
+    }
+
+    @Before
+    fun setUp() {
+        RequestCoalescer.isEnabled = true
+        RequestCoalescer.resetStats()
+    }
+
+    @After
+    fun tearDown() {
+        RequestCoalescer.isEnabled = false
+    }
+
+    @Test
+    fun `concurrent identical requests share one call`() {
+        // GIVEN a call blocked in flight
+        val key = RequestCoalescer.key("user@https://example.com", "GET", "https://example.com/capabilities")
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val calls = AtomicInteger()
+        val result = Any()
+        val first =
+            CompletableFuture.supplyAsync {
+                RequestCoalescer.execute(key) {
+                    calls.incrementAndGet()
+                    started.countDown()
+                    release.await()
+                    result
+                }
+            }
+        started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+
+        // WHEN an identical request is issued
+        val second = CompletableFuture.supplyAsync { RequestCoalescer.execute(key) { calls.incrementAndGet() } }
+        while (RequestCoalescer.getStats().savedCalls == 0L) {
+            Thread.yield()
+        }
+        release.countDown()
+
+        // THEN
+        assertSame(result, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertSame(result, second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+        assertEquals(1, calls.get())
+        assertEquals(RequestCoalescer.Stats(1, 1, 0), RequestCoalescer.getStats())
+    }
+
+    @Test
+    fun `disabled coalescer always runs the call`() {
+        // GIVEN
+        RequestCoalescer.isEnabled = false
+
+        // WHEN
+        val result = RequestCoalescer.execute("key") { "value" }
+
+        // THEN
+        assertEquals("value", result)
+        assertEquals(0L, RequestCoalescer.getStats().executedCalls)
+    }
+
+    @Test
+    fun `keys depend on relevant headers`() {
+        val plain = RequestCoalescer.key("account", "PROPFIND", "https://example.com/dav")
+        val depth = RequestCoalescer.key("account", "PROPFIND", "https://example.com/dav", mapOf("Depth" to "1"))
+
+        val lowerCase = RequestCoalescer.key("account", "PROPFIND", "https://example.com/dav", mapOf("depth" to "1"))
+
+        assertNotEquals(plain, depth)
+        assertEquals(depth, lowerCase)
+    }
+}
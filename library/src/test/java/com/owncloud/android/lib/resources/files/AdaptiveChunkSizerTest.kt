@@ -0,0 +1,81 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertThrows
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class AdaptiveChunkSizerTest {
+    private val sut = AdaptiveChunkSizer(10 * MB, 5 * MB, 100 * MB, 10_000)
+
+    @Test
+    fun `initial size is used before any measurement`() {
+        assertEquals(10 * MB, sut.nextChunkSize())
+    }
+
+    @Test
+    fun `fast connection grows chunks gradually`() {
+        // GIVEN
+        //      10 MB/s measured
+        sut.nextChunkSize()
+        sut.onChunkUploaded(10 * MB, 1_000)
+
+        // WHEN
+        val sizes = List(3) { sut.nextChunkSize() }
+
+        // THEN
+        //      chunks at most double until they take the target time
+        assertEquals(listOf(20 * MB, 40 * MB, 80 * MB), sizes)
+        assertEquals(100 * MB, sut.nextChunkSize())
+    }
+
+    @Test
+    fun `slow connection shrinks chunks to the minimum`() {
+        sut.onChunkUploaded(10 * MB, 1_000_000)
+
+        assertEquals(AdaptiveChunkSizer.MIN_CHUNK_SIZE, sut.nextChunkSize())
+    }
+
+    @Test
+    fun `chunks are not smaller than accepted by S3 multipart uploads`() {
+        // GIVEN
+        //      slow and flaky connection
+        //      sizer with default bounds
+        val sizer = AdaptiveChunkSizer()
+        sizer.onChunkUploaded(MB, 1_000_000)
+        repeat(5) { sizer.onChunkFailed() }
+
+        // WHEN
+        val size = sizer.nextChunkSize(100 * MB)
+
+        // THEN
+        assertEquals(5 * MB, size)
+        assertThrows(IllegalArgumentException::class.java) { AdaptiveChunkSizer(10 * MB, MB) }
+    }
+
+    @Test
+    fun `large file is not split into more than ten thousand chunks`() {
+        // GIVEN
+        //      slow connection
+        sut.onChunkUploaded(10 * MB, 1_000_000)
+
+        // WHEN
+        val medium = sut.nextChunkSize(100_000 * MB + 1)
+        val huge = sut.nextChunkSize(2_000_000 * MB)
+
+        // THEN
+        //      chunks of the size needed for at most 10000 chunks, even beyond the maximum size
+        assertEquals(10 * MB + 1, medium)
+        assertEquals(200 * MB, huge)
+    }
+
+    companion object {
+        private const val MB = 1024 * 1024L
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class ChunkUploadPlannerTest {
+    @Test
+    fun `new upload is split into chunks`() {
+        val plan = ChunkUploadPlanner.plan(25, 10, emptyList())
+
+        assertEquals(listOf(Chunk(1, 0, 10), Chunk(2, 10, 10), Chunk(3, 20, 5)), plan.missing)
+        assertEquals(emptyList<Int>(), plan.obsoleteIds)
+        assertEquals(0, plan.uploadedBytes)
+    }
+
+    @Test
+    fun `prefix uploaded with other chunk size is kept`() {
+        // GIVEN
+        //      first two chunks uploaded on wifi
+        val remote = listOf(RemoteChunk(1, 40), RemoteChunk(2, 40))
+
+        // WHEN
+        //      resumed on mobile
+        val plan = ChunkUploadPlanner.plan(100, 10, remote)
+
+        // THEN
+        //      remaining bytes are chunked with the new size
+        assertEquals(80, plan.uploadedBytes)
+        assertEquals(listOf(Chunk(3, 80, 10), Chunk(4, 90, 10)), plan.missing)
+    }
+
+    @Test
+    fun `gaps of an interrupted parallel upload are filled`() {
+        // GIVEN
+        //      chunks 1, 3 and 5 finished, 4 was cut short
+        val remote = listOf(RemoteChunk(1, 10), RemoteChunk(3, 10), RemoteChunk(4, 3), RemoteChunk(5, 10))
+
+        // WHEN
+        //      resumed with the same chunk size
+        val plan = ChunkUploadPlanner.plan(50, 10, remote, remoteChunkSize = 10)
+
+        // THEN
+        //      only the missing and incomplete chunks are uploaded
+        assertEquals(listOf(Chunk(2, 10, 10), Chunk(4, 30, 10)), plan.missing)
+        assertEquals(30, plan.uploadedBytes)
+        assertEquals(listOf(4), plan.obsoleteIds)
+    }
+
+    @Test
+    fun `chunks after prefix of another chunk size are uploaded again`() {
+        // GIVEN
+        //      parallel upload with 40 byte chunks interrupted after the first chunk and the 10 byte tail
+        val remote = listOf(RemoteChunk(1, 40), RemoteChunk(3, 10))
+
+        // WHEN
+        //      resumed with 10 byte chunks, where chunk 3 has the same length at another offset
+        val plan = ChunkUploadPlanner.plan(90, 10, remote, remoteChunkSize = 40)
+
+        // THEN
+        //      tail is not assembled into the middle of the file
+        assertEquals(listOf(3), plan.obsoleteIds)
+        assertEquals((2..6).map { Chunk(it, 40 + (it - 2) * 10L, 10) }, plan.missing)
+        assertEquals(40, plan.uploadedBytes)
+    }
+
+    @Test
+    fun `chunks after prefix of unknown chunk size are uploaded again`() {
+        val remote = listOf(RemoteChunk(1, 10), RemoteChunk(3, 10))
+
+        val plan = ChunkUploadPlanner.plan(30, 10, remote)
+
+        assertEquals(listOf(3), plan.obsoleteIds)
+        assertEquals(listOf(Chunk(2, 10, 10), Chunk(3, 20, 10)), plan.missing)
+    }
+
+    @Test
+    fun `chunks beyond the file are obsolete`() {
+        // GIVEN
+        //      chunks left over by an upload with smaller chunks
+        val remote = listOf(RemoteChunk(2, 5), RemoteChunk(7, 5), RemoteChunk(9, 5))
+
+        // WHEN
+        val plan = ChunkUploadPlanner.plan(30, 10, remote)
+
+        // THEN
+        //      they are deleted so that the server does not assemble them
+        assertEquals(listOf(2, 7, 9), plan.obsoleteIds)
+        assertEquals(listOf(Chunk(1, 0, 10), Chunk(2, 10, 10), Chunk(3, 20, 10)), plan.missing)
+    }
+
+    @Test
+    fun `completely uploaded file has nothing to upload`() {
+        val plan = ChunkUploadPlanner.plan(20, 10, listOf(RemoteChunk(2, 10), RemoteChunk(1, 10)))
+
+        assertEquals(emptyList<Chunk>(), plan.missing)
+        assertEquals(20, plan.uploadedBytes)
+    }
+}
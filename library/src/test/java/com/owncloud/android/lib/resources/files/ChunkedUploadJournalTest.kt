@@ -0,0 +1,107 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class ChunkedUploadJournalTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var directory: File
+    private lateinit var sut: ChunkedUploadJournal
+
+    @Before
+    fun setUp() {
+        directory = folder.newFolder()
+        sut = ChunkedUploadJournal(directory)
+    }
+
+    @Test
+    fun `recorded chunks are read back`() {
+        // GIVEN
+        //      upload with two chunks, the second one uploaded twice
+        sut.start(UPLOAD_ID, FOLDER_URI)
+        sut.record(UPLOAD_ID, 1, 10)
+        sut.record(UPLOAD_ID, 2, 3)
+        sut.record(UPLOAD_ID, 2, 10)
+
+        // WHEN
+        //      read by another instance, as after a restart
+        val upload = ChunkedUploadJournal(directory).read(UPLOAD_ID, FOLDER_URI)
+
+        // THEN
+        //      latest record of each chunk wins
+        assertEquals(listOf(RemoteChunk(1, 10), RemoteChunk(2, 10)), upload?.chunks)
+        assertNull(upload?.chunkSize)
+    }
+
+    @Test
+    fun `restart keeps only given chunks and chunk size`() {
+        // GIVEN
+        //      upload with three chunks
+        sut.start(UPLOAD_ID, FOLDER_URI)
+        (1..3).forEach { sut.record(UPLOAD_ID, it, 10) }
+
+        // WHEN
+        //      resumed with chunk 2 to be deleted
+        sut.start(UPLOAD_ID, FOLDER_URI, 20, listOf(RemoteChunk(1, 10), RemoteChunk(3, 10)))
+        sut.record(UPLOAD_ID, 4, 20)
+
+        // THEN
+        //      deleted chunk is not counted on anymore
+        val upload = sut.read(UPLOAD_ID, FOLDER_URI)
+        assertEquals(listOf(RemoteChunk(1, 10), RemoteChunk(3, 10), RemoteChunk(4, 20)), upload?.chunks)
+        assertEquals(20L, upload?.chunkSize)
+    }
+
+    @Test
+    fun `chunk of journal not started is not recorded`() {
+        sut.record(UPLOAD_ID, 1, 10)
+
+        assertNull(sut.read(UPLOAD_ID, FOLDER_URI))
+    }
+
+    @Test
+    fun `started upload without chunks is empty`() {
+        sut.start(UPLOAD_ID, FOLDER_URI)
+
+        assertEquals(ChunkedUploadJournal.Upload(null, emptyList()), sut.read(UPLOAD_ID, FOLDER_URI))
+    }
+
+    @Test
+    fun `missing journal is null`() {
+        assertNull(sut.read(UPLOAD_ID, FOLDER_URI))
+
+        sut.start(UPLOAD_ID, FOLDER_URI)
+        sut.delete(UPLOAD_ID)
+
+        assertNull(sut.read(UPLOAD_ID, FOLDER_URI))
+    }
+
+    @Test
+    fun `inconsistent journal is null`() {
+        // journal of another upload folder, e.g. another account
+        sut.start(UPLOAD_ID, FOLDER_URI)
+        assertNull(sut.read(UPLOAD_ID, "$FOLDER_URI/other"))
+
+        // record cut short by process death
+        File(directory, UPLOAD_ID).appendText("3")
+        assertNull(sut.read(UPLOAD_ID, FOLDER_URI))
+    }
+
+    companion object {
+        private const val UPLOAD_ID = "0cc175b9c0f1b6a831c399e269772661"
+        private const val FOLDER_URI = "https://example.com/remote.php/dav/uploads/user/$UPLOAD_ID"
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Nextcloud Android Library
+ *
+ * SPDX-FileCopyrightText: 2026 Nextcloud GmbH and Nextcloud contributors
+ * SPDX-License-Identifier: MIT
+ */
+package com.owncloud.android.lib.resources.files
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class SegmentedDownloadTest {
+    @Test
+    fun `file is split into contiguous ranges`() {
+        val ranges = SegmentedDownload.split(10, 3)
+
+        assertEquals(listOf(0L..3L, 4L..7L, 8L..9L), ranges)
+    }
+
+    @Test
+    fun `small file gets fewer segments`() {
+        val ranges = SegmentedDownload.split(2, 4)
+
+        assertEquals(listOf(0L..0L, 1L..1L), ranges)
+    }
+
+    @Test
+    fun `ranges cover the whole file`() {
+        listOf(1L, 999L, 64L * 1024 * 1024 + 1).forEach { size ->
+            val ranges = SegmentedDownload.split(size, 4)
+
+            assertEquals(size, ranges.sumOf { it.last - it.first + 1 })
+            ranges.zipWithNext().forEach { (a, b) -> assertEquals(a.last + 1, b.first) }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.owncloud.android.lib.common.OwnCloudClientFactory;
 import com.owncloud.android.lib.common.OwnCloudCredentialsFactory;
 import com.owncloud.android.lib.common.network.OnDatatransferProgressListener;
 import com.owncloud.android.lib.common.operations.OnRemoteOperationListener;
+import com.owncloud.android.lib.common.operations.OperationPriority;
 import com.owncloud.android.lib.common.operations.RemoteOperation;
 import com.owncloud.android.lib.common.operations.RemoteOperationResult;
 import com.owncloud.android.lib.resources.files.DownloadFileRemoteOperation;
@@ -134,7 +135,7 @@ public class MainActivity extends Activity implements OnRemoteOperationListener,
 
     private void startRefresh() {
         ReadFolderRemoteOperation refreshOperation = new ReadFolderRemoteOperation(FileUtils.PATH_SEPARATOR);
-        refreshOperation.execute(mClient, this, mHandler);
+        refreshOperation.schedule(mClient, this, mHandler, OperationPriority.INTERACTIVE);
     }
 
     private void startUpload() {
@@ -154,7 +155,7 @@ public class MainActivity extends Activity implements OnRemoteOperationListener,
                         timeStamp
                 );
         uploadOperation.addDataTransferProgressListener(this);
-        uploadOperation.execute(mClient, this, mHandler);
+        uploadOperation.schedule(mClient, this, mHandler, OperationPriority.BULK_TRANSFER);
     }
 
     private void startRemoteDeletion() {
@@ -162,7 +163,7 @@ public class MainActivity extends Activity implements OnRemoteOperationListener,
         File fileToUpload = upFolder.listFiles()[0];
         String remotePath = FileUtils.PATH_SEPARATOR + fileToUpload.getName();
         RemoveFileRemoteOperation removeOperation = new RemoveFileRemoteOperation(remotePath);
-        removeOperation.execute(mClient, this, mHandler);
+        removeOperation.schedule(mClient, this, mHandler, OperationPriority.INTERACTIVE);
     }
 
     private void startDownload() {
@@ -173,7 +174,7 @@ public class MainActivity extends Activity implements OnRemoteOperationListener,
         String remotePath = FileUtils.PATH_SEPARATOR + fileToUpload.getName();
         DownloadFileRemoteOperation downloadOperation = new DownloadFileRemoteOperation(remotePath, downFolder.getAbsolutePath());
         downloadOperation.addProgressListener(this);
-        downloadOperation.execute(mClient, this, mHandler);
+        downloadOperation.schedule(mClient, this, mHandler, OperationPriority.BULK_TRANSFER);
     }
 
     @SuppressWarnings("deprecation")